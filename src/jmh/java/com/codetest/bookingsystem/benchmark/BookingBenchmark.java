@@ -0,0 +1,84 @@
+package com.codetest.bookingsystem.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codetest.bookingsystem.dto.request.BookingRequest;
+import com.codetest.bookingsystem.dto.response.BookingResponse;
+import com.codetest.bookingsystem.dto.response.MessageResponse;
+
+/**
+ * Booking, cancellation and waitlist promotion through {@code BookingService}
+ * with every thread contending for the same class, so the lock and seat
+ * counter are on the measured path. Runs once per booking engine; the
+ * in-memory class row does not model the database row lock that the
+ * conditional update engine waits on, so compare engines under load too.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookingBenchmark {
+
+	@Param({ "lock", "conditional-update" })
+	public String engine;
+
+	private BookingFixture fixture;
+	private BookingRequest bookingRequest;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		fixture = new BookingFixture(0, engine);
+		fixture.authenticate();
+		bookingRequest = new BookingRequest();
+		bookingRequest.setClassScheduleId(BookingFixture.CLASS_SCHEDULE_ID);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public BookingResponse bookClassContended() {
+		return fixture.bookingService.bookClass(bookingRequest);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public MessageResponse cancelBookingContended() {
+		return fixture.bookingService.cancelBooking(BookingFixture.BOOKING_ID);
+	}
+
+	@Benchmark
+	public MessageResponse cancelBookingWithWaitlistPromotion(WaitlistState waitlist) {
+		return waitlist.fixture.bookingService.cancelBooking(BookingFixture.BOOKING_ID);
+	}
+
+	/**
+	 * Fixture whose waitlist always has someone to promote.
+	 */
+	@State(Scope.Benchmark)
+	public static class WaitlistState {
+
+		private BookingFixture fixture;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			fixture = new BookingFixture(0);
+			fixture.waitlistPopulated = true;
+			fixture.authenticate();
+		}
+	}
+}
@@ -0,0 +1,281 @@
+package com.codetest.bookingsystem.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.codetest.bookingsystem.enums.BookingStatus;
+import com.codetest.bookingsystem.enums.Country;
+import com.codetest.bookingsystem.enums.Role;
+import com.codetest.bookingsystem.enums.WaitlistStatus;
+import com.codetest.bookingsystem.model.AppUser;
+import com.codetest.bookingsystem.model.Booking;
+import com.codetest.bookingsystem.model.ClassSchedule;
+import com.codetest.bookingsystem.model.CreditPackage;
+import com.codetest.bookingsystem.model.UserPackage;
+import com.codetest.bookingsystem.model.Waitlist;
+import com.codetest.bookingsystem.repository.AppUserRepository;
+import com.codetest.bookingsystem.repository.BookingRepository;
+import com.codetest.bookingsystem.repository.ClassScheduleRepository;
+import com.codetest.bookingsystem.repository.CreditLedgerRepository;
+import com.codetest.bookingsystem.repository.DomainEventRepository;
+import com.codetest.bookingsystem.repository.NotificationRepository;
+import com.codetest.bookingsystem.repository.UserPackageRepository;
+import com.codetest.bookingsystem.repository.WaitlistRepository;
+import com.codetest.bookingsystem.security.UserDetailsImpl;
+import com.codetest.bookingsystem.service.BookingIntervalService;
+import com.codetest.bookingsystem.service.BookingMetrics;
+import com.codetest.bookingsystem.service.BookingService;
+import com.codetest.bookingsystem.service.CreditLedgerService;
+import com.codetest.bookingsystem.service.DistributedLockService;
+import com.codetest.bookingsystem.service.DomainEventService;
+import com.codetest.bookingsystem.service.LocalLockStrategy;
+import com.codetest.bookingsystem.service.NotificationService;
+import com.codetest.bookingsystem.service.SeatInventoryService;
+import com.codetest.bookingsystem.service.WaitlistPromotionService;
+import com.codetest.bookingsystem.service.WaitlistQueueService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Wires a real {@link BookingService}, {@link SeatInventoryService} and
+ * {@link DistributedLockService} against in-memory repositories and the local
+ * lock strategy in place of Redis. Saves are accepted and discarded so state
+ * does not grow over a run.
+ */
+final class BookingFixture {
+
+	static final Long CLASS_SCHEDULE_ID = 1L;
+	static final Long BOOKING_ID = 100L;
+
+	final AppUser user;
+	final ClassSchedule classSchedule;
+	final UserPackage userPackage;
+	final BookingService bookingService;
+	final DistributedLockService distributedLockService;
+
+	// Set by benchmarks that want cancellations to promote someone off the waitlist
+	boolean waitlistPopulated;
+	// One waiter per freed seat, so a promotion run stops once it has filled the seat
+	private final AtomicInteger waitersForFreedSeats = new AtomicInteger();
+
+	private final AtomicLong ids = new AtomicLong(1000);
+	// Stands in for class_schedule.booked_count, taken with a compare-and-set like the conditional UPDATE
+	private final AtomicInteger bookedSeats = new AtomicInteger();
+
+	BookingFixture(int pageSize) {
+		this(pageSize, BookingService.ENGINE_LOCK);
+	}
+
+	BookingFixture(int pageSize, String bookingEngine) {
+		user = new AppUser(1L, "benchmark", "password", "benchmark@example.com", Role.USER, true, null, 0);
+		CreditPackage creditPackage = new CreditPackage(1L, "Benchmark", 1000, BigDecimal.TEN, Country.SINGAPORE, 365);
+		userPackage = new UserPackage(1L, user, creditPackage, Integer.MAX_VALUE / 2, LocalDate.now(),
+				LocalDate.now().plusDays(365));
+		LocalDateTime start = LocalDateTime.now().plusDays(2);
+		classSchedule = new ClassSchedule(CLASS_SCHEDULE_ID, "Benchmark Yoga", start, start.plusHours(1),
+				Integer.MAX_VALUE, Country.SINGAPORE, 1, 0);
+		List<Booking> page = new ArrayList<>();
+		for (long i = 0; i < pageSize; i++) {
+			page.add(new Booking(BOOKING_ID + i, user, classSchedule, userPackage, BookingStatus.BOOKED));
+		}
+
+		Map<String, Function<Object[], Object>> bookingHandlers = Map.of(
+				"countByClassScheduleIdAndStatus", args -> 0,
+				"countByClassScheduleIdsAndStatus", args -> List.of(),
+				"findByUserIdAndClassScheduleId", args -> Optional.empty(),
+				"findOverlappingBookings", args -> List.of(),
+				"findById", args -> Optional.of(new Booking(BOOKING_ID, user, classSchedule, userPackage,
+						BookingStatus.BOOKED)),
+				"findPageWithDetailsByUserId", args -> page,
+				"save", args -> save((Booking) args[0]));
+		Map<String, Function<Object[], Object>> waitlistHandlers = Map.of(
+				"findByUserIdAndClassScheduleId", args -> Optional.empty(),
+				"findFirstByClassScheduleIdAndStatusOrderByCreatedAtAsc",
+				args -> waitersForFreedSeats.getAndUpdate(waiters -> Math.max(0, waiters - 1)) > 0
+						? Optional.of(new Waitlist(ids.incrementAndGet(), user, classSchedule,
+								WaitlistStatus.WAITING, userPackage))
+						: Optional.empty(),
+				"updateStatus", args -> 1,
+				"save", args -> args[0]);
+
+		BookingRepository bookingRepository = InMemoryRepository.of(BookingRepository.class, bookingHandlers);
+		SeatInventoryService seatInventoryService = new SeatInventoryService();
+		ReflectionTestUtils.setField(seatInventoryService, "bookingRepository", bookingRepository);
+
+		LocalLockStrategy localLockStrategy = new LocalLockStrategy();
+		ReflectionTestUtils.setField(localLockStrategy, "stripeCount", 1024);
+		ReflectionTestUtils.setField(localLockStrategy, "waitTimeoutMs", 10000L);
+		ReflectionTestUtils.invokeMethod(localLockStrategy, "initStripes");
+		// Meters are recorded like in production so their overhead is part of every measurement
+		ObservationRegistry observationRegistry = ObservationRegistry.create();
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+		BookingMetrics bookingMetrics = new BookingMetrics(meterRegistry, observationRegistry);
+
+		distributedLockService = new DistributedLockService();
+		ReflectionTestUtils.setField(distributedLockService, "bookingMetrics", bookingMetrics);
+		ReflectionTestUtils.setField(distributedLockService, "lockStrategies", List.of(localLockStrategy));
+		ReflectionTestUtils.setField(distributedLockService, "lockMode", "local");
+		ReflectionTestUtils.invokeMethod(distributedLockService, "selectStrategy");
+
+		bookingService = new BookingService();
+		ReflectionTestUtils.setField(bookingService, "bookingRepository", bookingRepository);
+		ClassScheduleRepository classScheduleRepository = InMemoryRepository.of(ClassScheduleRepository.class, Map.of(
+						"findById", args -> Optional.of(classSchedule),
+						"reserveSeat", args -> reserveSeat(),
+						"releaseSeat", args -> bookedSeats.getAndUpdate(value -> Math.max(0, value - 1)) > 0 ? 1 : 0));
+		ReflectionTestUtils.setField(bookingService, "classScheduleRepository", classScheduleRepository);
+		UserPackageRepository userPackageRepository = InMemoryRepository.of(UserPackageRepository.class, Map.of(
+				"findActivePackagesForBooking", args -> List.of(userPackage),
+				"deductCredits", args -> 1,
+				"findRemainingCreditsById", args -> userPackage.getRemainingCredits(),
+				"refundCredits", args -> 1,
+				"save", args -> args[0]));
+		ReflectionTestUtils.setField(bookingService, "userPackageRepository", userPackageRepository);
+		WaitlistRepository waitlistRepository = InMemoryRepository.of(WaitlistRepository.class, waitlistHandlers);
+		ReflectionTestUtils.setField(bookingService, "waitlistRepository", waitlistRepository);
+		WaitlistQueueService waitlistQueueService = new WaitlistQueueService();
+		ReflectionTestUtils.setField(waitlistQueueService, "waitlistRepository", waitlistRepository);
+		ReflectionTestUtils.setField(waitlistQueueService, "engine", WaitlistQueueService.ENGINE_DATABASE);
+		ReflectionTestUtils.setField(bookingService, "waitlistQueueService", waitlistQueueService);
+		ReflectionTestUtils.setField(bookingService, "appUserRepository", InMemoryRepository
+				.of(AppUserRepository.class, Map.of("getReferenceById", args -> user)));
+		ReflectionTestUtils.setField(bookingService, "seatInventoryService", seatInventoryService);
+		// Every iteration books the same class for the same user, so overlaps are left to the repository stub
+		BookingIntervalService bookingIntervalService = new BookingIntervalService();
+		ReflectionTestUtils.setField(bookingIntervalService, "bookingRepository", bookingRepository);
+		ReflectionTestUtils.setField(bookingIntervalService, "enabled", false);
+		ReflectionTestUtils.setField(bookingService, "bookingIntervalService", bookingIntervalService);
+		ReflectionTestUtils.setField(bookingService, "distributedLockService", distributedLockService);
+		ReflectionTestUtils.setField(bookingService, "bookingMetrics", bookingMetrics);
+		// Promotions queue their email in the outbox within the transaction, so the enqueue is measured too
+		NotificationService notificationService = new NotificationService();
+		ReflectionTestUtils.setField(notificationService, "notificationRepository",
+				InMemoryRepository.of(NotificationRepository.class,
+						Map.of("existsByDedupKey", args -> false)));
+		ReflectionTestUtils.setField(notificationService, "jdbcTemplate", new JdbcTemplate() {
+			@Override
+			public int update(String sql, Object... args) {
+				return 1;
+			}
+		});
+		ReflectionTestUtils.setField(bookingService, "notificationService", notificationService);
+		DomainEventService domainEventService = new DomainEventService();
+		ReflectionTestUtils.setField(domainEventService, "domainEventRepository",
+				InMemoryRepository.of(DomainEventRepository.class, Map.of("save", args -> args[0])));
+		ReflectionTestUtils.setField(domainEventService, "objectMapper", new ObjectMapper());
+		// Every event bumps its class's sequence counter
+		ReflectionTestUtils.setField(domainEventService, "jdbcTemplate", new JdbcTemplate() {
+			@Override
+			public int update(String sql, Object... args) {
+				return 1;
+			}
+
+			@Override
+			public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+				return requiredType.cast(1L);
+			}
+		});
+		ReflectionTestUtils.setField(bookingService, "domainEventService", domainEventService);
+		// Ledger entries are appended in the booking transaction, so the insert is measured too
+		CreditLedgerService creditLedgerService = new CreditLedgerService();
+		ReflectionTestUtils.setField(creditLedgerService, "creditLedgerRepository",
+				InMemoryRepository.of(CreditLedgerRepository.class, Map.of("save", args -> args[0])));
+		ReflectionTestUtils.setField(bookingService, "creditLedgerService", creditLedgerService);
+		ReflectionTestUtils.setField(bookingService, "maxPageSize", Math.max(pageSize, 1));
+		ReflectionTestUtils.setField(bookingService, "bookingEngine", bookingEngine);
+
+		// Promotions run inline on the cancelling thread so the promotion benchmark still measures their cost
+		WaitlistPromotionService waitlistPromotionService = new WaitlistPromotionService();
+		ReflectionTestUtils.setField(waitlistPromotionService, "classScheduleRepository", classScheduleRepository);
+		ReflectionTestUtils.setField(waitlistPromotionService, "bookingRepository", bookingRepository);
+		ReflectionTestUtils.setField(waitlistPromotionService, "userPackageRepository", userPackageRepository);
+		ReflectionTestUtils.setField(waitlistPromotionService, "waitlistRepository", waitlistRepository);
+		ReflectionTestUtils.setField(waitlistPromotionService, "waitlistQueueService", waitlistQueueService);
+		ReflectionTestUtils.setField(waitlistPromotionService, "seatInventoryService", seatInventoryService);
+		ReflectionTestUtils.setField(waitlistPromotionService, "bookingIntervalService", bookingIntervalService);
+		ReflectionTestUtils.setField(waitlistPromotionService, "notificationService", notificationService);
+		ReflectionTestUtils.setField(waitlistPromotionService, "domainEventService", domainEventService);
+		ReflectionTestUtils.setField(waitlistPromotionService, "bookingMetrics", bookingMetrics);
+		ReflectionTestUtils.setField(waitlistPromotionService, "transactionManager", new NoOpTransactionManager());
+		ReflectionTestUtils.setField(waitlistPromotionService, "promotionExecutor", (Executor) Runnable::run);
+		ReflectionTestUtils.setField(waitlistPromotionService, "maxAttempts", 3);
+		ReflectionTestUtils.setField(bookingService, "waitlistPromotionService", waitlistPromotionService);
+	}
+
+	/**
+	 * Authenticates every benchmark thread as the fixture user.
+	 */
+	void authenticate() {
+		SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+		UserDetailsImpl principal = UserDetailsImpl.build(user);
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+
+	private int reserveSeat() {
+		int current;
+		do {
+			current = bookedSeats.get();
+			if (current >= classSchedule.getCapacity()) {
+				return 0;
+			}
+		} while (!bookedSeats.compareAndSet(current, current + 1));
+		return 1;
+	}
+
+	private Booking save(Booking booking) {
+		if (waitlistPopulated && booking.getStatus() == BookingStatus.CANCELLED) {
+			waitersForFreedSeats.incrementAndGet();
+		}
+		return withId(booking);
+	}
+
+	private Booking withId(Booking booking) {
+		if (booking.getId() == null) {
+			booking.setId(ids.incrementAndGet());
+		}
+		return booking;
+	}
+
+	/**
+	 * Runs transaction callbacks without a transaction; the repositories are
+	 * in-memory anyway.
+	 */
+	private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+		@Override
+		public TransactionStatus getTransaction(TransactionDefinition definition) {
+			return new SimpleTransactionStatus();
+		}
+
+		@Override
+		public void commit(TransactionStatus status) {
+		}
+
+		@Override
+		public void rollback(TransactionStatus status) {
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package com.codetest.bookingsystem.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds a stand-in for a Spring Data repository interface from a map of
+ * method name to handler, so benchmarks measure service code rather than a
+ * database or a mocking framework. Calling a method without a handler fails
+ * loudly.
+ */
+final class InMemoryRepository {
+
+	private InMemoryRepository() {
+	}
+
+	@SuppressWarnings("unchecked")
+	static <T> T of(Class<T> repositoryType, Map<String, Function<Object[], Object>> handlers) {
+		return (T) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[] { repositoryType },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "toString":
+						return "InMemory" + repositoryType.getSimpleName();
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "equals":
+						return proxy == args[0];
+					default:
+						Function<Object[], Object> handler = handlers.get(method.getName());
+						if (handler == null) {
+							throw new UnsupportedOperationException(
+									repositoryType.getSimpleName() + "." + method.getName() + " is not stubbed");
+						}
+						return handler.apply(args);
+					}
+				});
+	}
+}
@@ -0,0 +1,80 @@
+package com.codetest.bookingsystem.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.codetest.bookingsystem.enums.Role;
+import com.codetest.bookingsystem.model.AppUser;
+import com.codetest.bookingsystem.security.JwtTokenProvider;
+import com.codetest.bookingsystem.security.TokenClaims;
+import com.codetest.bookingsystem.security.UserDetailsImpl;
+
+/**
+ * What {@code AuthTokenFilter} pays per request to check a bearer token, with
+ * and without the validated-token cache, plus the cost of issuing one at login.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+	private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+	private JwtTokenProvider jwtTokenProvider;
+	private JwtTokenProvider uncachedJwtTokenProvider;
+	private Authentication authentication;
+	private String token;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		jwtTokenProvider = newProvider(10000);
+		uncachedJwtTokenProvider = newProvider(0);
+		UserDetailsImpl principal = UserDetailsImpl
+				.build(new AppUser(1L, "benchmark", "password", "benchmark@example.com", Role.USER, true, null, 0));
+		authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+		token = jwtTokenProvider.generateJwtToken(authentication);
+	}
+
+	private static JwtTokenProvider newProvider(long validatedCacheSize) {
+		JwtTokenProvider provider = new JwtTokenProvider();
+		ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+		ReflectionTestUtils.setField(provider, "jwtExpirationMs", 86400000);
+		ReflectionTestUtils.setField(provider, "validatedCacheSize", validatedCacheSize);
+		ReflectionTestUtils.invokeMethod(provider, "init");
+		return provider;
+	}
+
+	@Benchmark
+	public String generateToken() {
+		return jwtTokenProvider.generateJwtToken(authentication);
+	}
+
+	// Mirrors AuthTokenFilter for a client reusing its token
+	@Benchmark
+	public TokenClaims parseClaimsCached() {
+		return jwtTokenProvider.parseClaims(token);
+	}
+
+	// Full signature verification on every call
+	@Benchmark
+	public TokenClaims parseClaimsUncached() {
+		return uncachedJwtTokenProvider.parseClaims(token);
+	}
+}
@@ -0,0 +1,66 @@
+package com.codetest.bookingsystem.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codetest.bookingsystem.service.DistributedLockService;
+
+/**
+ * Acquire/release round trip through {@code DistributedLockService}, with all
+ * threads on one class and with each thread on its own class.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LockBenchmark {
+
+	private DistributedLockService distributedLockService;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		distributedLockService = new BookingFixture(0).distributedLockService;
+	}
+
+	@Benchmark
+	public boolean sameClass() {
+		return acquireAndRelease(BookingFixture.CLASS_SCHEDULE_ID);
+	}
+
+	@Benchmark
+	public boolean distinctClasses(ThreadClass threadClass) {
+		return acquireAndRelease(threadClass.classScheduleId);
+	}
+
+	private boolean acquireAndRelease(Long classScheduleId) {
+		boolean acquired = distributedLockService.acquireLock(classScheduleId);
+		distributedLockService.releaseLock(classScheduleId);
+		return acquired;
+	}
+
+	@State(Scope.Thread)
+	public static class ThreadClass {
+
+		private Long classScheduleId;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			classScheduleId = Thread.currentThread().getId();
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.codetest.bookingsystem.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codetest.bookingsystem.dto.response.BookingResponse;
+import com.codetest.bookingsystem.dto.response.CursorPage;
+
+/**
+ * Entity to DTO conversion for a page of bookings ({@code convertToBookingResponse}
+ * via {@code getMyBookings}), with the repository returning a prepared page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResponseMappingBenchmark {
+
+	@Param({ "10", "200" })
+	public int pageSize;
+
+	private BookingFixture fixture;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		fixture = new BookingFixture(pageSize);
+		fixture.authenticate();
+	}
+
+	@Benchmark
+	public CursorPage<BookingResponse> mapBookingPage() {
+		return fixture.bookingService.getMyBookings(null, pageSize);
+	}
+}
@@ -9,7 +9,7 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @SpringBootApplication
 @EnableJpaAuditing
 @EnableCaching // Enable caching for Redis
-@EnableScheduling // Enable scheduling for Quartz
+@EnableScheduling // Per-node jobs; cluster-wide jobs run on Quartz (see QuartzConfig)
 public class BookingSystemApiApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,80 @@
+package com.codetest.bookingsystem.cache;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.codetest.bookingsystem.config.CacheConfig;
+import com.codetest.bookingsystem.model.ClassSchedule;
+import com.codetest.bookingsystem.model.CreditPackage;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that clears the catalogue caches when a class schedule or
+ * credit package is written. Each affected cache is cleared once, after the
+ * transaction commits, so a concurrent reader cannot repopulate it with the old
+ * rows and a bulk import does not clear it once per row.
+ */
+@Component
+public class CatalogueChangeListener {
+
+	private static final Logger logger = LoggerFactory.getLogger(CatalogueChangeListener.class);
+
+	@Autowired(required = false)
+	private CacheManager cacheManager;
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void onCatalogueChange(Object entity) {
+		String cacheName = entity instanceof ClassSchedule ? CacheConfig.SCHEDULE_CATALOGUE
+				: entity instanceof CreditPackage ? CacheConfig.CREDIT_PACKAGES : null;
+		if (cacheName == null) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			clear(cacheName);
+			return;
+		}
+		pendingClears().add(cacheName);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Set<String> pendingClears() {
+		Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+		if (pending != null) {
+			return pending;
+		}
+		Set<String> cacheNames = new HashSet<>();
+		TransactionSynchronizationManager.bindResource(this, cacheNames);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				TransactionSynchronizationManager.unbindResourceIfPossible(CatalogueChangeListener.this);
+				if (status == STATUS_COMMITTED) {
+					cacheNames.forEach(CatalogueChangeListener.this::clear);
+				}
+			}
+		});
+		return cacheNames;
+	}
+
+	private void clear(String cacheName) {
+		Cache cache = cacheManager != null ? cacheManager.getCache(cacheName) : null;
+		if (cache != null) {
+			cache.clear();
+			logger.debug("Cleared cache '{}' after a catalogue change.", cacheName);
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package com.codetest.bookingsystem.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+/**
+ * Cache with a bounded in-process tier in front of a shared Redis tier. Reads
+ * try the local tier first and fill it from Redis on a local miss. Evictions
+ * are applied to both tiers and broadcast so other instances drop their local
+ * copy. Keys are normalised to strings so they survive the broadcast. Redis
+ * failures are logged and treated as a remote miss so the cache degrades to
+ * local-only instead of failing the request.
+ */
+public class TwoTierCache extends AbstractValueAdaptingCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(TwoTierCache.class);
+
+	private final String name;
+	private final com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache;
+	private final Cache remoteCache;
+	private final TwoTierCacheManager cacheManager;
+
+	private final AtomicLong remoteHits = new AtomicLong();
+	private final AtomicLong remoteMisses = new AtomicLong();
+	private final AtomicLong puts = new AtomicLong();
+
+	TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> localCache,
+			Cache remoteCache, TwoTierCacheManager cacheManager) {
+		super(false);
+		this.name = name;
+		this.localCache = localCache;
+		this.remoteCache = remoteCache;
+		this.cacheManager = cacheManager;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return localCache;
+	}
+
+	public com.github.benmanes.caffeine.cache.Cache<Object, Object> getLocalCache() {
+		return localCache;
+	}
+
+	public long getRemoteHits() {
+		return remoteHits.get();
+	}
+
+	public long getRemoteMisses() {
+		return remoteMisses.get();
+	}
+
+	public long getPuts() {
+		return puts.get();
+	}
+
+	@Override
+	protected Object lookup(Object key) {
+		String cacheKey = String.valueOf(key);
+		Object value = localCache.getIfPresent(cacheKey);
+		if (value != null) {
+			return value;
+		}
+		value = remoteGet(cacheKey);
+		if (value != null) {
+			localCache.put(cacheKey, value);
+		}
+		return value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		String cacheKey = String.valueOf(key);
+		// Caffeine runs the loader at most once per key on this instance
+		return (T) fromStoreValue(localCache.get(cacheKey, ignored -> {
+			Object remoteValue = remoteGet(cacheKey);
+			if (remoteValue != null) {
+				return remoteValue;
+			}
+			Object loaded;
+			try {
+				loaded = toStoreValue(valueLoader.call());
+			} catch (Exception e) {
+				throw new ValueRetrievalException(key, valueLoader, e);
+			}
+			remotePut(cacheKey, loaded);
+			puts.incrementAndGet();
+			return loaded;
+		}));
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		String cacheKey = String.valueOf(key);
+		Object storeValue = toStoreValue(value);
+		localCache.put(cacheKey, storeValue);
+		remotePut(cacheKey, storeValue);
+		puts.incrementAndGet();
+	}
+
+	@Override
+	public void evict(Object key) {
+		String cacheKey = String.valueOf(key);
+		localCache.invalidate(cacheKey);
+		try {
+			remoteCache.evict(cacheKey);
+		} catch (RuntimeException e) {
+			logger.warn("Failed to evict '{}' from remote cache '{}': {}", cacheKey, name, e.getMessage());
+		}
+		cacheManager.publishInvalidation(name, cacheKey);
+	}
+
+	@Override
+	public void clear() {
+		localCache.invalidateAll();
+		try {
+			remoteCache.clear();
+		} catch (RuntimeException e) {
+			logger.warn("Failed to clear remote cache '{}': {}", name, e.getMessage());
+		}
+		cacheManager.publishInvalidation(name, null);
+	}
+
+	/**
+	 * Applies an invalidation broadcast by another instance. Only the local tier
+	 * is touched because the sender already updated Redis.
+	 */
+	void evictLocal(String key) {
+		if (key == null) {
+			localCache.invalidateAll();
+		} else {
+			localCache.invalidate(key);
+		}
+	}
+
+	private Object remoteGet(String key) {
+		try {
+			ValueWrapper wrapper = remoteCache.get(key);
+			if (wrapper != null && wrapper.get() != null) {
+				remoteHits.incrementAndGet();
+				return wrapper.get();
+			}
+		} catch (RuntimeException e) {
+			logger.warn("Failed to read '{}' from remote cache '{}': {}", key, name, e.getMessage());
+		}
+		remoteMisses.incrementAndGet();
+		return null;
+	}
+
+	private void remotePut(String key, Object value) {
+		try {
+			remoteCache.put(key, value);
+		} catch (RuntimeException e) {
+			logger.warn("Failed to write '{}' to remote cache '{}': {}", key, name, e.getMessage());
+		}
+	}
+}
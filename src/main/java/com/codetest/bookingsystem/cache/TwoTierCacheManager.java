@@ -0,0 +1,83 @@
+package com.codetest.bookingsystem.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.AbstractCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Builds a {@link TwoTierCache} per cache name from a Caffeine spec for the
+ * local tier and a Redis-backed {@link CacheManager} for the remote tier, and
+ * relays invalidations between instances over a Redis channel.
+ */
+public class TwoTierCacheManager extends AbstractCacheManager {
+
+	private static final Logger logger = LoggerFactory.getLogger(TwoTierCacheManager.class);
+
+	public static final String INVALIDATION_CHANNEL = "cache:invalidate";
+
+	// Separates instance id, cache name and key in an invalidation message
+	private static final String SEPARATOR = "|";
+	private static final String ALL_KEYS = "*";
+
+	private final Caffeine<Object, Object> localCacheBuilder;
+	private final CacheManager remoteCacheManager;
+	private final StringRedisTemplate redisTemplate;
+	private final Collection<String> cacheNames;
+	private final String instanceId = UUID.randomUUID().toString();
+
+	public TwoTierCacheManager(Caffeine<Object, Object> localCacheBuilder, CacheManager remoteCacheManager,
+			StringRedisTemplate redisTemplate, Collection<String> cacheNames) {
+		this.localCacheBuilder = localCacheBuilder;
+		this.remoteCacheManager = remoteCacheManager;
+		this.redisTemplate = redisTemplate;
+		this.cacheNames = List.copyOf(cacheNames);
+	}
+
+	@Override
+	protected Collection<? extends Cache> loadCaches() {
+		// Created eagerly so Actuator binds metrics for every cache at startup
+		return cacheNames.stream().map(this::createCache).toList();
+	}
+
+	@Override
+	protected Cache getMissingCache(String name) {
+		return createCache(name);
+	}
+
+	private TwoTierCache createCache(String name) {
+		return new TwoTierCache(name, localCacheBuilder.build(), remoteCacheManager.getCache(name), this);
+	}
+
+	void publishInvalidation(String cacheName, String key) {
+		String message = instanceId + SEPARATOR + cacheName + SEPARATOR + (key != null ? key : ALL_KEYS);
+		try {
+			redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+		} catch (RuntimeException e) {
+			logger.warn("Failed to broadcast invalidation for cache '{}': {}", cacheName, e.getMessage());
+		}
+	}
+
+	/**
+	 * Handles a message received on {@link #INVALIDATION_CHANNEL}. Messages sent
+	 * by this instance are ignored because they were applied before sending.
+	 */
+	public void handleInvalidation(String message) {
+		String[] parts = message.split("\\|", 3);
+		if (parts.length != 3 || instanceId.equals(parts[0])) {
+			return;
+		}
+		Cache cache = getCache(parts[1]);
+		if (cache instanceof TwoTierCache twoTierCache) {
+			twoTierCache.evictLocal(ALL_KEYS.equals(parts[2]) ? null : parts[2]);
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.codetest.bookingsystem.cache;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Publishes the standard {@code cache.*} meters for a {@link TwoTierCache}. A
+ * hit is a hit in either tier, a miss is a miss in both. Per-tier counters are
+ * added on top so the Redis hit ratio can be watched separately.
+ */
+public class TwoTierCacheMetrics extends CacheMeterBinder<TwoTierCache> {
+
+	// Held strongly; the caches live as long as the cache manager anyway
+	private final TwoTierCache cache;
+
+	public TwoTierCacheMetrics(TwoTierCache cache, Iterable<Tag> tags) {
+		super(cache, cache.getName(), tags);
+		this.cache = cache;
+	}
+
+	@Override
+	protected Long size() {
+		return cache.getLocalCache().estimatedSize();
+	}
+
+	@Override
+	protected long hitCount() {
+		return localStats().hitCount() + cache.getRemoteHits();
+	}
+
+	@Override
+	protected Long missCount() {
+		return cache.getRemoteMisses();
+	}
+
+	@Override
+	protected Long evictionCount() {
+		return localStats().evictionCount();
+	}
+
+	@Override
+	protected long putCount() {
+		return cache.getPuts();
+	}
+
+	@Override
+	protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+		FunctionCounter.builder("cache.tier.gets", cache, cache -> cache.getLocalCache().stats().hitCount())
+				.tags(getTagsWithCacheName()).tag("tier", "local").tag("result", "hit")
+				.description("Lookups answered by the in-process tier").register(registry);
+		FunctionCounter.builder("cache.tier.gets", cache, TwoTierCache::getRemoteHits)
+				.tags(getTagsWithCacheName()).tag("tier", "remote").tag("result", "hit")
+				.description("Local misses answered by Redis").register(registry);
+		FunctionCounter.builder("cache.tier.gets", cache, TwoTierCache::getRemoteMisses)
+				.tags(getTagsWithCacheName()).tag("tier", "remote").tag("result", "miss")
+				.description("Lookups that missed both tiers").register(registry);
+	}
+
+	private CacheStats localStats() {
+		return cache.getLocalCache().stats();
+	}
+}
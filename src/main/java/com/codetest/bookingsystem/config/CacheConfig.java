@@ -0,0 +1,94 @@
+package com.codetest.bookingsystem.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import com.codetest.bookingsystem.cache.TwoTierCache;
+import com.codetest.bookingsystem.cache.TwoTierCacheManager;
+import com.codetest.bookingsystem.cache.TwoTierCacheMetrics;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+@Configuration
+public class CacheConfig {
+
+  public static final String SCHEDULE_CATALOGUE = "scheduleCatalogue";
+  public static final String CREDIT_PACKAGES = "creditPackages";
+  public static final String TOKEN_VERSIONS = "tokenVersions";
+
+  @Value("${app.cache.local.max-size:1000}")
+  private long localMaxSize;
+
+  @Value("${app.cache.local.ttl-seconds:30}")
+  private long localTtlSeconds;
+
+  @Value("${app.cache.redis.ttl-seconds:300}")
+  private long redisTtlSeconds;
+
+  @Bean
+  public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+      StringRedisTemplate redisTemplate) {
+    Caffeine<Object, Object> localCacheBuilder = Caffeine.newBuilder()
+        .maximumSize(localMaxSize)
+        .expireAfterWrite(Duration.ofSeconds(localTtlSeconds))
+        .recordStats();
+
+    RedisCacheConfiguration redisCacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
+        .entryTtl(Duration.ofSeconds(redisTtlSeconds))
+        .disableCachingNullValues()
+        .computePrefixWith(name -> "cache:" + name + "::")
+        .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(redisValueSerializer()));
+    // SCAN instead of KEYS when a whole cache is cleared
+    RedisCacheManager redisCacheManager = RedisCacheManager
+        .builder(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, BatchStrategies.scan(100)))
+        .cacheDefaults(redisCacheConfiguration)
+        .build();
+    redisCacheManager.afterPropertiesSet();
+
+    return new TwoTierCacheManager(localCacheBuilder, redisCacheManager, redisTemplate,
+        List.of(SCHEDULE_CATALOGUE, CREDIT_PACKAGES, TOKEN_VERSIONS));
+  }
+
+  @Bean
+  public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+      TwoTierCacheManager cacheManager) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+    container.addMessageListener((message, pattern) -> cacheManager.handleInvalidation(new String(message.getBody())),
+        new ChannelTopic(TwoTierCacheManager.INVALIDATION_CHANNEL));
+    return container;
+  }
+
+  @Bean
+  public CacheMeterBinderProvider<TwoTierCache> twoTierCacheMeterBinderProvider() {
+    return TwoTierCacheMetrics::new;
+  }
+
+  static GenericJackson2JsonRedisSerializer redisValueSerializer() {
+    ObjectMapper objectMapper = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    // Store type information so cached DTOs come back as their own classes
+    objectMapper.activateDefaultTyping(objectMapper.getPolymorphicTypeValidator(),
+        ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+    return new GenericJackson2JsonRedisSerializer(objectMapper);
+  }
+}
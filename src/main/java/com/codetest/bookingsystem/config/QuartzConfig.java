@@ -0,0 +1,97 @@
+package com.codetest.bookingsystem.config;
+
+import com.codetest.bookingsystem.scheduler.ClassCompletionJob;
+import com.codetest.bookingsystem.scheduler.ClassEndJob;
+import com.codetest.bookingsystem.scheduler.CreditLedgerJob;
+import org.quartz.CronScheduleBuilder;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
+import org.quartz.JobKey;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Cluster-wide jobs, stored in the Quartz JDBC job store so each firing runs on
+ * exactly one node. Housekeeping that only touches shared state belongs here;
+ * jobs that maintain per-node in-memory state, such as seat inventory
+ * reconciliation, and sub-second pollers such as the domain event relay, which
+ * picks its node with a lease instead, stay on {@code @Scheduled}.
+ */
+@Configuration
+public class QuartzConfig {
+
+  public static final String JOB_GROUP = "booking";
+
+  // Target of the one-shot per-class triggers registered by ClassEndTimers
+  public static final JobKey CLASS_END_JOB = JobKey.jobKey("classEnd", JOB_GROUP);
+
+  @Value("${app.scheduler.class-completion.cron:0 0 * * * ?}")
+  private String classCompletionCron;
+
+  @Value("${app.credits.ledger.reconcile.interval-ms:3600000}")
+  private long creditLedgerReconcileIntervalMs;
+
+  @Value("${app.credits.ledger.reconcile.initial-delay-ms:60000}")
+  private long creditLedgerReconcileInitialDelayMs;
+
+  @Bean
+  public JobDetail classCompletionJobDetail() {
+    return JobBuilder.newJob(ClassCompletionJob.class)
+        .withIdentity("classCompletion", JOB_GROUP)
+        .withDescription("Refunds users still waitlisted on classes that have ended")
+        .storeDurably()
+        .requestRecovery() // Re-run on another node if the executing node dies mid-run
+        .build();
+  }
+
+  @Bean
+  public JobDetail classEndJobDetail() {
+    return JobBuilder.newJob(ClassEndJob.class)
+        .withIdentity(CLASS_END_JOB)
+        .withDescription("Refunds users still waitlisted on one class right after it ends")
+        .storeDurably() // Kept while no class has a pending trigger
+        .requestRecovery()
+        .build();
+  }
+
+  @Bean
+  public Trigger classCompletionTrigger(JobDetail classCompletionJobDetail) {
+    return TriggerBuilder.newTrigger()
+        .forJob(classCompletionJobDetail)
+        .withIdentity("classCompletionTrigger", JOB_GROUP)
+        // Missed firings collapse into one immediate run; the watermark covers the whole gap
+        .withSchedule(CronScheduleBuilder.cronSchedule(classCompletionCron)
+            .withMisfireHandlingInstructionFireAndProceed())
+        .build();
+  }
+
+  @Bean
+  public JobDetail creditLedgerJobDetail() {
+    return JobBuilder.newJob(CreditLedgerJob.class)
+        .withIdentity("creditLedgerReconcile", JOB_GROUP)
+        .withDescription("Checks package balances against the credit ledger")
+        .storeDurably()
+        .build();
+  }
+
+  @Bean
+  public Trigger creditLedgerTrigger(JobDetail creditLedgerJobDetail) {
+    return TriggerBuilder.newTrigger()
+        .forJob(creditLedgerJobDetail)
+        .withIdentity("creditLedgerTrigger", JOB_GROUP)
+        .startAt(Date.from(Instant.now().plusMillis(creditLedgerReconcileInitialDelayMs)))
+        // A missed run is not made up; the next one checks every package anyway
+        .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+            .withIntervalInMilliseconds(creditLedgerReconcileIntervalMs)
+            .repeatForever()
+            .withMisfireHandlingInstructionNextWithRemainingCount())
+        .build();
+  }
+}
@@ -0,0 +1,100 @@
+package com.codetest.bookingsystem.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Thread pools for background jobs. Scheduled jobs get their own small pool so
+ * a long refund run does not delay seat reconciliation, and the per-class
+ * refund work runs on a bounded executor sized below the JDBC connection pool.
+ * Waitlist promotions run on their own pool so cancellations never wait for
+ * them, and booking interval loads get a small pool of their own so a booking
+ * never holds a second connection to fill the index.
+ */
+@Configuration
+public class SchedulingConfig implements SchedulingConfigurer {
+
+  public static final String CLASS_COMPLETION_EXECUTOR = "classCompletionExecutor";
+  public static final String WAITLIST_PROMOTION_EXECUTOR = "waitlistPromotionExecutor";
+  public static final String INTERVAL_INDEX_EXECUTOR = "intervalIndexExecutor";
+
+  @Value("${app.scheduler.pool-size:4}")
+  private int schedulerPoolSize;
+
+  @Value("${app.scheduler.class-completion.workers:4}")
+  private int classCompletionWorkers;
+
+  @Value("${app.scheduler.class-completion.queue-capacity:100}")
+  private int classCompletionQueueCapacity;
+
+  @Value("${app.waitlist.promotion.workers:2}")
+  private int waitlistPromotionWorkers;
+
+  @Value("${app.waitlist.promotion.queue-capacity:1000}")
+  private int waitlistPromotionQueueCapacity;
+
+  @Value("${app.booking.interval-index.loader-workers:1}")
+  private int intervalIndexWorkers;
+
+  @Value("${app.booking.interval-index.loader-queue-capacity:1000}")
+  private int intervalIndexQueueCapacity;
+
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+    taskRegistrar.setTaskScheduler(jobScheduler());
+  }
+
+  @Bean(destroyMethod = "shutdown")
+  public ThreadPoolTaskScheduler jobScheduler() {
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(schedulerPoolSize);
+    scheduler.setThreadNamePrefix("job-");
+    scheduler.initialize();
+    return scheduler;
+  }
+
+  @Bean(name = CLASS_COMPLETION_EXECUTOR)
+  public ThreadPoolTaskExecutor classCompletionExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(classCompletionWorkers);
+    executor.setMaxPoolSize(classCompletionWorkers);
+    executor.setQueueCapacity(classCompletionQueueCapacity);
+    // Backpressure: when the queue is full the submitting job thread refunds the class itself
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(30);
+    executor.setThreadNamePrefix("class-completion-");
+    return executor;
+  }
+
+  @Bean(name = WAITLIST_PROMOTION_EXECUTOR)
+  public ThreadPoolTaskExecutor waitlistPromotionExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(waitlistPromotionWorkers);
+    executor.setMaxPoolSize(waitlistPromotionWorkers);
+    executor.setQueueCapacity(waitlistPromotionQueueCapacity);
+    // No caller-runs fallback: that would put the promotion back on the cancelling request; the sweep picks it up
+    executor.setWaitForTasksToCompleteOnShutdown(true);
+    executor.setAwaitTerminationSeconds(30);
+    executor.setThreadNamePrefix("waitlist-promotion-");
+    return executor;
+  }
+
+  @Bean(name = INTERVAL_INDEX_EXECUTOR)
+  public ThreadPoolTaskExecutor intervalIndexExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(intervalIndexWorkers);
+    executor.setMaxPoolSize(intervalIndexWorkers);
+    executor.setQueueCapacity(intervalIndexQueueCapacity);
+    // No caller-runs fallback: a dropped load only means the next check queries the database again
+    executor.setThreadNamePrefix("interval-index-");
+    return executor;
+  }
+}
@@ -1,9 +1,12 @@
 package com.codetest.bookingsystem.controller;
 
 import com.codetest.bookingsystem.dto.request.BookingRequest;
+import com.codetest.bookingsystem.dto.request.BulkBookingRequest;
 import com.codetest.bookingsystem.dto.request.WaitlistRequest;
 import com.codetest.bookingsystem.dto.response.BookingResponse;
+import com.codetest.bookingsystem.dto.response.BulkBookingResponse;
 import com.codetest.bookingsystem.dto.response.ClassScheduleResponse;
+import com.codetest.bookingsystem.dto.response.CursorPage;
 import com.codetest.bookingsystem.dto.response.MessageResponse;
 import com.codetest.bookingsystem.dto.response.WaitlistResponse;
 import com.codetest.bookingsystem.enums.Country;
@@ -14,29 +17,43 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = BookingController.NEXT_CURSOR_HEADER)
 @RestController
 @RequestMapping("/api/booking")
 @PreAuthorize("hasRole('USER')") // All methods in this controller require USER role
 @io.swagger.v3.oas.annotations.tags.Tag(name = "Booking & Schedule", description = "APIs for viewing class schedules, booking, cancelling, and joining waitlists")
 public class BookingController {
 
+	// Carries the cursor for the next page; absent on the last page
+	static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
 	@Autowired
 	private BookingService bookingService;
 
 	@GetMapping("/schedules")
-	@Operation(summary = "Get available class schedules by country", description = "Retrieves a list of upcoming class schedules for a specified country.")
+	@Operation(summary = "Get available class schedules by country", description = "Retrieves a page of upcoming class schedules for a specified country, ordered by start time. Pass the X-Next-Cursor response header back as 'cursor' to get the next page.")
 	@io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved schedules", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ClassScheduleResponse.class)))
-	@io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid country parameter", content = @Content(mediaType = "application/json", schema = @Schema(implementation = com.codetest.bookingsystem.exception.ErrorDetails.class)))
-	public ResponseEntity<List<ClassScheduleResponse>> getAvailableSchedules(@RequestParam Country country) {
-		List<ClassScheduleResponse> schedules = bookingService.getAvailableSchedules(country);
-		return ResponseEntity.ok(schedules);
+	@io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid country, cursor or page size", content = @Content(mediaType = "application/json", schema = @Schema(implementation = com.codetest.bookingsystem.exception.ErrorDetails.class)))
+	public ResponseEntity<List<ClassScheduleResponse>> getAvailableSchedules(@RequestParam Country country,
+			@Parameter(description = "Cursor from a previous X-Next-Cursor header") @RequestParam(required = false) String cursor,
+			@Parameter(description = "Page size", example = "50") @RequestParam(defaultValue = "50") int size) {
+		return toPageResponse(bookingService.getAvailableSchedules(country, cursor, size));
+	}
+
+	@GetMapping(value = "/schedules/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+	@Operation(summary = "Stream all available class schedules by country", description = "Streams every upcoming class schedule for a specified country as a single JSON array, written as rows are read from the database.")
+	@io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Schedules streamed", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ClassScheduleResponse.class)))
+	public ResponseEntity<StreamingResponseBody> streamAvailableSchedules(@RequestParam Country country) {
+		StreamingResponseBody body = outputStream -> bookingService.streamAvailableSchedules(country, outputStream);
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
 	}
 
 	@PostMapping("/book")
@@ -49,6 +66,15 @@ public class BookingController {
 		return ResponseEntity.ok(bookingResponse);
 	}
 
+	@PostMapping("/book/bulk")
+	@Operation(summary = "Book several classes", description = "Books several classes in one request, e.g. a week's programme. ALL_OR_NOTHING (the default) books every class or none; BEST_EFFORT books each class it can and reports why the others failed.")
+	@io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Classes processed; see the per-class results", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BulkBookingResponse.class)))
+	@io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Bad request (e.g., too many classes, or a class could not be booked in ALL_OR_NOTHING mode)", content = @Content(mediaType = "application/json", schema = @Schema(implementation = com.codetest.bookingsystem.exception.ErrorDetails.class)))
+	public ResponseEntity<BulkBookingResponse> bookClasses(@Valid @RequestBody BulkBookingRequest request) {
+		BulkBookingResponse bulkBookingResponse = bookingService.bookClasses(request);
+		return ResponseEntity.ok(bulkBookingResponse);
+	}
+
 	@PostMapping("/cancel/{bookingId}")
 	@Operation(summary = "Cancel a booked class", description = "Cancels a user's booked class. Credits are refunded if cancelled 4 hours before class start time.")
 	@io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Booking cancelled successfully", content = @Content(mediaType = "application/json", schema = @Schema(implementation = MessageResponse.class)))
@@ -82,10 +108,19 @@ public class BookingController {
 	}
 
 	@GetMapping("/my-bookings")
-	@Operation(summary = "Get my bookings", description = "Retrieves a list of all bookings made by the authenticated user.")
+	@Operation(summary = "Get my bookings", description = "Retrieves a page of bookings made by the authenticated user, ordered by class start time. Pass the X-Next-Cursor response header back as 'cursor' to get the next page.")
 	@io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved bookings", content = @Content(mediaType = "application/json", schema = @Schema(implementation = BookingResponse.class)))
-	public ResponseEntity<List<BookingResponse>> getMyBookings() {
-		List<BookingResponse> bookings = bookingService.getMyBookings();
-		return ResponseEntity.ok(bookings);
+	public ResponseEntity<List<BookingResponse>> getMyBookings(
+			@Parameter(description = "Cursor from a previous X-Next-Cursor header") @RequestParam(required = false) String cursor,
+			@Parameter(description = "Page size", example = "50") @RequestParam(defaultValue = "50") int size) {
+		return toPageResponse(bookingService.getMyBookings(cursor, size));
+	}
+
+	private <T> ResponseEntity<List<T>> toPageResponse(CursorPage<T> page) {
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+		if (page.getNextCursor() != null) {
+			response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+		}
+		return response.body(page.getItems());
 	}
 }
\ No newline at end of file
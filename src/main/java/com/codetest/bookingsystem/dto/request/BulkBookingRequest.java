@@ -0,0 +1,27 @@
+package com.codetest.bookingsystem.dto.request;
+
+import java.util.List;
+
+import com.codetest.bookingsystem.enums.BulkBookingMode;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request DTO for booking several classes at once")
+public class BulkBookingRequest {
+
+	@Valid
+	@NotEmpty(message = "Bookings cannot be empty")
+	@Schema(description = "Classes to book, in order of preference")
+	private List<BookingRequest> bookings;
+
+	@Schema(description = "ALL_OR_NOTHING books every class or none; BEST_EFFORT books whatever it can", example = "ALL_OR_NOTHING", defaultValue = "ALL_OR_NOTHING")
+	private BulkBookingMode mode;
+}
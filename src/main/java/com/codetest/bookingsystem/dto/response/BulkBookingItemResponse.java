@@ -0,0 +1,25 @@
+package com.codetest.bookingsystem.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of one class in a bulk booking")
+public class BulkBookingItemResponse {
+
+	@Schema(description = "ID of the class schedule", example = "1")
+	private Long classScheduleId;
+
+	@Schema(description = "Whether the class was booked", example = "true")
+	private boolean booked;
+
+	@Schema(description = "The booking, when the class was booked")
+	private BookingResponse booking;
+
+	@Schema(description = "Why the class was not booked", example = "Class is full. You can join the waitlist.")
+	private String message;
+}
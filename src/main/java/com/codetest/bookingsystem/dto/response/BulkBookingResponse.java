@@ -0,0 +1,29 @@
+package com.codetest.bookingsystem.dto.response;
+
+import java.util.List;
+
+import com.codetest.bookingsystem.enums.BulkBookingMode;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Response DTO for a bulk booking")
+public class BulkBookingResponse {
+
+	@Schema(description = "Mode the request was processed in", example = "BEST_EFFORT")
+	private BulkBookingMode mode;
+
+	@Schema(description = "Number of classes booked", example = "3")
+	private int bookedCount;
+
+	@Schema(description = "Number of classes not booked", example = "1")
+	private int failedCount;
+
+	@Schema(description = "One result per requested class, in request order")
+	private List<BulkBookingItemResponse> results;
+}
@@ -0,0 +1,6 @@
+package com.codetest.bookingsystem.enums;
+
+public enum BulkBookingMode {
+	ALL_OR_NOTHING, // Every class is booked, or none is
+	BEST_EFFORT // Each class is booked on its own; failures are reported per class
+}
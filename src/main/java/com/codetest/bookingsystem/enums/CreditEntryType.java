@@ -0,0 +1,10 @@
+package com.codetest.bookingsystem.enums;
+
+public enum CreditEntryType {
+	OPENING_BALANCE,
+	PURCHASE,
+	BOOKING,
+	WAITLIST_JOIN,
+	BOOKING_REFUND,
+	WAITLIST_REFUND
+}
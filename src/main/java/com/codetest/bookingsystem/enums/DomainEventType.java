@@ -0,0 +1,10 @@
+package com.codetest.bookingsystem.enums;
+
+public enum DomainEventType {
+	BOOKED,
+	CANCELLED,
+	CHECKED_IN,
+	WAITLIST_JOINED,
+	WAITLIST_PROMOTED,
+	WAITLIST_REFUNDED
+}
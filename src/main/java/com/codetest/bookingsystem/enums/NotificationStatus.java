@@ -0,0 +1,7 @@
+package com.codetest.bookingsystem.enums;
+
+public enum NotificationStatus {
+	PENDING,
+	SENT,
+	FAILED
+}
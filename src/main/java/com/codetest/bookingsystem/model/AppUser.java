@@ -39,4 +39,8 @@ public class AppUser extends Auditable {
 
 	@OneToMany(mappedBy = "user")
 	private Set<UserPackage> userPackages = new HashSet<>();
+
+	// Embedded in issued JWTs; bumping it revokes every token issued before
+	@Column(nullable = false)
+	private int tokenVersion = 0;
 }
\ No newline at end of file
@@ -12,7 +12,12 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "booking")
+// One booking per user and class; backs the duplicate check when bookings run without the class lock
+// The unique key also serves lookups by user; the indexes cover seat counts per class and the overlap check
+@Table(name = "booking", uniqueConstraints = @UniqueConstraint(name = "uk_booking_user_class", columnNames = {
+		"user_id", "class_schedule_id" }), indexes = {
+				@Index(name = "idx_booking_class_status", columnList = "class_schedule_id, status"),
+				@Index(name = "idx_booking_user_status", columnList = "user_id, status") })
 public class Booking extends Auditable {
 
 	@Id
@@ -1,11 +1,14 @@
 package com.codetest.bookingsystem.model;
 
+import com.codetest.bookingsystem.cache.CatalogueChangeListener;
 import com.codetest.bookingsystem.enums.Country;
+import com.codetest.bookingsystem.scheduler.ClassEndTimerListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -14,7 +17,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "class_schedule")
+@EntityListeners({ CatalogueChangeListener.class, ClassEndTimerListener.class })
+// Upcoming pages are read per country in start order; completion and seat recounts range over end times
+@Table(name = "class_schedule", indexes = {
+		@Index(name = "idx_class_schedule_country_start", columnList = "country, start_time, id"),
+		@Index(name = "idx_class_schedule_end", columnList = "end_time") })
 public class ClassSchedule extends Auditable {
 
 	@Id
@@ -38,4 +45,10 @@ public class ClassSchedule extends Auditable {
 	private Country country;
 
 	private int requiredCredits;
+
+	// BOOKED seats, kept by the conditional updates in ClassScheduleRepository and
+	// never written from this entity, so a stale copy cannot reset it
+	@ColumnDefault("0")
+	@Column(nullable = false, updatable = false)
+	private int bookedCount;
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.codetest.bookingsystem.model;
+
+import com.codetest.bookingsystem.enums.CreditEntryType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/**
+ * One movement of credits in or out of a user package. Entries are only ever
+ * inserted, in the transaction that changes the package's
+ * {@code remainingCredits}, so the sum of a package's entries is its balance.
+ * The unique keys stop a booking or waitlist entry from being charged or
+ * refunded twice.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Immutable
+@Table(name = "credit_ledger_entry", indexes = @Index(name = "idx_credit_ledger_package", columnList = "user_package_id, id"),
+		uniqueConstraints = {
+				@UniqueConstraint(name = "uk_credit_ledger_booking", columnNames = { "booking_id", "entry_type" }),
+				@UniqueConstraint(name = "uk_credit_ledger_waitlist", columnNames = { "waitlist_id", "entry_type" }) })
+public class CreditLedgerEntry {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false)
+	private Long userPackageId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 30)
+	private CreditEntryType entryType;
+
+	// Positive when credits are added to the package, negative when they are spent
+	@Column(nullable = false)
+	private int credits;
+
+	private Long bookingId;
+
+	private Long waitlistId;
+
+	@Column(nullable = false)
+	private Instant occurredAt;
+}
@@ -1,5 +1,6 @@
 package com.codetest.bookingsystem.model;
 
+import com.codetest.bookingsystem.cache.CatalogueChangeListener;
 import com.codetest.bookingsystem.enums.Country;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -14,6 +15,7 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@EntityListeners(CatalogueChangeListener.class)
 @Table(name = "credit_package")
 public class CreditPackage extends Auditable {
 
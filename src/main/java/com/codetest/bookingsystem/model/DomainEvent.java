@@ -0,0 +1,56 @@
+package com.codetest.bookingsystem.model;
+
+import com.codetest.bookingsystem.enums.DomainEventType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Outbox row for a booking state change, written in the same transaction as
+ * the change itself. {@code sequenceNumber} numbers a class's events from 1
+ * in commit order, and the relay publishes them in that order;
+ * {@code publishedAt} is set once the relay has handed the event on.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "domain_event", indexes = @Index(name = "idx_domain_event_unpublished", columnList = "published_at, id"),
+		uniqueConstraints = @UniqueConstraint(name = "uk_domain_event_class_sequence", columnNames = { "class_schedule_id",
+				"sequence_number" }))
+public class DomainEvent {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 30)
+	private DomainEventType eventType;
+
+	@Column(nullable = false)
+	private Long classScheduleId;
+
+	// Position among the class's events, without gaps (see DomainEventSequence); null on rows older than the column
+	private Long sequenceNumber;
+
+	@Column(nullable = false)
+	private Long userId;
+
+	// Id of the booking or waitlist entry that changed
+	@Column(nullable = false)
+	private Long aggregateId;
+
+	@Column(length = 1000)
+	private String payload;
+
+	@Column(nullable = false)
+	private Instant occurredAt;
+
+	private Instant publishedAt;
+}
@@ -0,0 +1,30 @@
+package com.codetest.bookingsystem.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Last domain event sequence handed out for a class. The row stays locked
+ * until the recording transaction commits, so a class's events commit in
+ * sequence order.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "domain_event_sequence")
+public class DomainEventSequence {
+
+	@Id
+	private Long classScheduleId;
+
+	@Column(nullable = false)
+	private long lastSequence;
+}
@@ -0,0 +1,37 @@
+package com.codetest.bookingsystem.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a recurring job: everything up to {@code watermark} has been
+ * processed. The lease columns make sure only one node works on the job at a
+ * time.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "job_watermark")
+public class JobWatermark {
+
+	@Id
+	@Column(length = 100)
+	private String jobName;
+
+	@Column(nullable = false)
+	private LocalDateTime watermark;
+
+	private String leaseOwner;
+
+	private LocalDateTime leaseUntil;
+}
@@ -0,0 +1,56 @@
+package com.codetest.bookingsystem.model;
+
+import com.codetest.bookingsystem.enums.NotificationStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row for an email. Written in the same transaction as the change it
+ * announces and delivered later by the notification dispatcher.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "notification", indexes = @Index(name = "idx_notification_due", columnList = "status, next_attempt_at"))
+public class Notification extends Auditable {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(nullable = false)
+	private String recipient;
+
+	@Column(nullable = false)
+	private String subject;
+
+	@Column(nullable = false, length = 2000)
+	private String body;
+
+	// Identifies the event being announced, so it is never queued twice
+	@Column(nullable = false, unique = true, length = 150)
+	private String dedupKey;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private NotificationStatus status;
+
+	@Column(nullable = false)
+	private int attempts;
+
+	@Column(nullable = false)
+	private LocalDateTime nextAttemptAt;
+
+	// Dispatcher batch currently sending this row
+	private String claimedBy;
+
+	@Column(length = 500)
+	private String lastError;
+}
@@ -13,7 +13,8 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "user_package")
+// Booking picks the user's package that expires first
+@Table(name = "user_package", indexes = @Index(name = "idx_user_package_user_expiry", columnList = "user_id, expiry_date"))
 public class UserPackage extends Auditable {
 
 	@Id
@@ -28,7 +29,9 @@ public class UserPackage extends Auditable {
 	@JoinColumn(name = "package_id", nullable = false)
 	private CreditPackage creditPackage;
 
-	@Column(nullable = false)
+	// Only changed through the conditional updates in UserPackageRepository, so a
+	// stale copy of this entity can never write back an old balance
+	@Column(nullable = false, updatable = false)
 	private int remainingCredits;
 
 	@Column(nullable = false)
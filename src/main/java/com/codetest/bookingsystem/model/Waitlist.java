@@ -12,7 +12,11 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "waitlist")
+// FIFO promotion and refund chunks read one class's entries by status; joins are checked per user and class
+@Table(name = "waitlist", indexes = {
+		@Index(name = "idx_waitlist_class_status_created", columnList = "class_schedule_id, status, created_at"),
+		@Index(name = "idx_waitlist_user_class", columnList = "user_id, class_schedule_id"),
+		@Index(name = "idx_waitlist_status_class", columnList = "status, class_schedule_id") })
 public class Waitlist extends Auditable {
 
 	@Id
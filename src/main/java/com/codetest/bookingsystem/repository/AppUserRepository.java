@@ -2,6 +2,8 @@ package com.codetest.bookingsystem.repository;
 
 import com.codetest.bookingsystem.model.AppUser;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -16,4 +18,7 @@ public interface AppUserRepository extends JpaRepository<AppUser, Long> {
 	Boolean existsByUsername(String username);
 
 	Boolean existsByEmail(String email);
+
+	@Query("SELECT u.tokenVersion FROM AppUser u WHERE u.id = :id")
+	Optional<Integer> findTokenVersionById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -2,12 +2,16 @@ package com.codetest.bookingsystem.repository;
 
 import com.codetest.bookingsystem.enums.BookingStatus;
 import com.codetest.bookingsystem.model.Booking;
+import com.codetest.bookingsystem.model.ClassSchedule;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,11 +20,64 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
 	int countByClassScheduleIdAndStatus(Long classScheduleId, BookingStatus status);
 
-	Optional<Booking> findByUserIdAndClassScheduleId(Long userId, Long classScheduleId);
+	// Written out because the derived query outer-joins both parents and filters on their ids, which hides the index
+	@Query("SELECT b FROM Booking b WHERE b.user.id = :userId AND b.classSchedule.id = :classScheduleId")
+	Optional<Booking> findByUserIdAndClassScheduleId(@Param("userId") Long userId,
+			@Param("classScheduleId") Long classScheduleId);
 
 	@Query("SELECT b FROM Booking b WHERE b.user.id = :userId AND b.status = 'BOOKED' AND b.classSchedule.startTime < :newEndTime AND b.classSchedule.endTime > :newStartTime")
 	List<Booking> findOverlappingBookings(@Param("userId") Long userId,
 			@Param("newStartTime") LocalDateTime newStartTime, @Param("newEndTime") LocalDateTime newEndTime);
 
+	// Bulk counterparts of the two checks above, one query each for a whole set of classes
+	@Query("SELECT b.classSchedule.id FROM Booking b WHERE b.user.id = :userId AND b.classSchedule.id IN :classScheduleIds")
+	List<Long> findClassIdsBookedByUser(@Param("userId") Long userId,
+			@Param("classScheduleIds") Collection<Long> classScheduleIds);
+
+	@Query("SELECT cs FROM Booking b JOIN b.classSchedule cs WHERE b.user.id = :userId AND b.status = 'BOOKED' AND cs.startTime < :endTime AND cs.endTime > :startTime")
+	List<ClassSchedule> findBookedClassesOverlapping(@Param("userId") Long userId,
+			@Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+
 	List<Booking> findByUserId(Long userId);
+
+	// Keyset page that loads everything a BookingResponse needs in one statement;
+	// a null afterStartTime means the first page
+	@EntityGraph(attributePaths = { "user", "classSchedule", "userPackage", "userPackage.creditPackage" })
+	@Query("SELECT b FROM Booking b WHERE b.user.id = :userId "
+			+ "AND (:afterStartTime IS NULL OR b.classSchedule.startTime > :afterStartTime "
+			+ "OR (b.classSchedule.startTime = :afterStartTime AND b.id > :afterId)) "
+			+ "ORDER BY b.classSchedule.startTime, b.id")
+	List<Booking> findPageWithDetailsByUserId(@Param("userId") Long userId,
+			@Param("afterStartTime") LocalDateTime afterStartTime, @Param("afterId") Long afterId, Limit limit);
+
+	@Query("SELECT b.classSchedule.id AS classScheduleId, COUNT(b) AS bookedCount FROM Booking b "
+			+ "WHERE b.status = :status AND b.classSchedule.id IN :classScheduleIds GROUP BY b.classSchedule.id")
+	List<ClassBookingCount> countByClassScheduleIdsAndStatus(
+			@Param("classScheduleIds") Collection<Long> classScheduleIds, @Param("status") BookingStatus status);
+
+	// Booked seats per class for every class that has not ended yet, used to prime the seat inventory
+	@Query("SELECT b.classSchedule.id AS classScheduleId, COUNT(b) AS bookedCount FROM Booking b "
+			+ "WHERE b.status = :status AND b.classSchedule.endTime > :now GROUP BY b.classSchedule.id")
+	List<ClassBookingCount> countUpcomingByStatus(@Param("status") BookingStatus status,
+			@Param("now") LocalDateTime now);
+
+	// A user's bookings in a status for classes ending after :from, loaded into the overlap index
+	@Query("SELECT b.id AS bookingId, cs.startTime AS startTime, cs.endTime AS endTime FROM Booking b "
+			+ "JOIN b.classSchedule cs WHERE b.user.id = :userId AND b.status = :status AND cs.endTime > :from")
+	List<BookingInterval> findIntervalsByUserId(@Param("userId") Long userId, @Param("status") BookingStatus status,
+			@Param("from") LocalDateTime from);
+
+	interface ClassBookingCount {
+		Long getClassScheduleId();
+
+		long getBookedCount();
+	}
+
+	interface BookingInterval {
+		Long getBookingId();
+
+		LocalDateTime getStartTime();
+
+		LocalDateTime getEndTime();
+	}
 }
\ No newline at end of file
@@ -1,18 +1,70 @@
 package com.codetest.bookingsystem.repository;
 
+import com.codetest.bookingsystem.enums.BookingStatus;
 import com.codetest.bookingsystem.enums.Country;
 import com.codetest.bookingsystem.model.ClassSchedule;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ClassScheduleRepository extends JpaRepository<ClassSchedule, Long> {
 	
-	List<ClassSchedule> findByCountryAndStartTimeAfter(Country country, LocalDateTime dateTime);
+	// Keyset page of upcoming classes; a null afterStartTime means the first page
+	@Query("SELECT c FROM ClassSchedule c WHERE c.country = :country AND c.startTime > :now "
+			+ "AND (:afterStartTime IS NULL OR c.startTime > :afterStartTime "
+			+ "OR (c.startTime = :afterStartTime AND c.id > :afterId)) ORDER BY c.startTime, c.id")
+	List<ClassSchedule> findUpcomingPage(@Param("country") Country country, @Param("now") LocalDateTime now,
+			@Param("afterStartTime") LocalDateTime afterStartTime, @Param("afterId") Long afterId, Limit limit);
+
+	// Must be consumed inside a transaction and closed; rows come off a JDBC cursor in fetch-size batches
+	@QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+	@Query("SELECT c FROM ClassSchedule c WHERE c.country = :country AND c.startTime > :now ORDER BY c.startTime, c.id")
+	Stream<ClassSchedule> streamUpcoming(@Param("country") Country country, @Param("now") LocalDateTime now);
 
 	// Find classes that ended within a given time range
 	List<ClassSchedule> findByEndTimeBetween(LocalDateTime start, LocalDateTime end);
+
+	@Query("SELECT c.id FROM ClassSchedule c WHERE c.endTime > :now")
+	List<Long> findIdsEndingAfter(@Param("now") LocalDateTime now);
+
+	@Query("SELECT c.id AS id, c.endTime AS endTime FROM ClassSchedule c WHERE c.endTime > :now")
+	List<ClassEndTime> findEndTimesAfter(@Param("now") LocalDateTime now);
+
+	// Takes a seat only while the class is below capacity; returns 0 when it is full
+	@Transactional
+	@Modifying
+	@Query("UPDATE ClassSchedule c SET c.bookedCount = c.bookedCount + 1 "
+			+ "WHERE c.id = :id AND c.bookedCount < c.capacity")
+	int reserveSeat(@Param("id") Long id);
+
+	@Transactional
+	@Modifying
+	@Query("UPDATE ClassSchedule c SET c.bookedCount = c.bookedCount - 1 WHERE c.id = :id AND c.bookedCount > 0")
+	int releaseSeat(@Param("id") Long id);
+
+	// Re-derives booked_count of upcoming classes from the booking table
+	@Transactional
+	@Modifying
+	@Query("UPDATE ClassSchedule c SET c.bookedCount = (SELECT COUNT(b) FROM Booking b "
+			+ "WHERE b.classSchedule = c AND b.status = :status) WHERE c.endTime > :now")
+	int recountBookedSeats(@Param("status") BookingStatus status, @Param("now") LocalDateTime now);
+
+	interface ClassEndTime {
+		Long getId();
+
+		LocalDateTime getEndTime();
+	}
 }
\ No newline at end of file
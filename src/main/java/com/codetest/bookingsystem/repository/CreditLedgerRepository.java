@@ -0,0 +1,38 @@
+package com.codetest.bookingsystem.repository;
+
+import com.codetest.bookingsystem.model.CreditLedgerEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface CreditLedgerRepository extends JpaRepository<CreditLedgerEntry, Long> {
+
+	interface PackageBalance {
+		Long getUserPackageId();
+
+		Integer getBalance();
+
+		Long getLedgerBalance();
+	}
+
+	// Keyset page of packages with their stored balance next to the sum of their ledger entries
+	@Query("SELECT up.id AS userPackageId, up.remainingCredits AS balance, COALESCE(SUM(e.credits), 0) AS ledgerBalance "
+			+ "FROM UserPackage up LEFT JOIN CreditLedgerEntry e ON e.userPackageId = up.id "
+			+ "WHERE up.id > :afterId GROUP BY up.id, up.remainingCredits ORDER BY up.id")
+	List<PackageBalance> findBalancesAfter(@Param("afterId") Long afterId, Limit limit);
+
+	// Replaces the stored balance with the ledger's in one statement, so a concurrent spend is not lost
+	@Transactional
+	@Modifying
+	@Query("UPDATE UserPackage up SET up.remainingCredits = (SELECT COALESCE(SUM(e.credits), 0) "
+			+ "FROM CreditLedgerEntry e WHERE e.userPackageId = up.id), up.updatedAt = :now WHERE up.id = :id")
+	int rebuildBalance(@Param("id") Long id, @Param("now") Instant now);
+}
@@ -0,0 +1,27 @@
+package com.codetest.bookingsystem.repository;
+
+import com.codetest.bookingsystem.model.DomainEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DomainEventRepository extends JpaRepository<DomainEvent, Long> {
+
+	// Per class, id order is sequence order: a class's next event is only inserted after the previous one committed
+	@Query("SELECT e FROM DomainEvent e WHERE e.publishedAt IS NULL ORDER BY e.id")
+	List<DomainEvent> findUnpublished(Limit limit);
+
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@Query("UPDATE DomainEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+	int markPublished(@Param("ids") Collection<Long> ids, @Param("publishedAt") Instant publishedAt);
+}
@@ -0,0 +1,44 @@
+package com.codetest.bookingsystem.repository;
+
+import com.codetest.bookingsystem.model.JobWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface JobWatermarkRepository extends JpaRepository<JobWatermark, String> {
+
+	// Plain insert so a concurrent first run on another node fails on the primary key instead of merging
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@Query(value = "INSERT INTO job_watermark (job_name, watermark) VALUES (:jobName, :watermark)", nativeQuery = true)
+	void insert(@Param("jobName") String jobName, @Param("watermark") LocalDateTime watermark);
+
+	// Takes the lease if it is free, expired or already ours; returns 0 if another node holds it
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@Query("UPDATE JobWatermark j SET j.leaseOwner = :owner, j.leaseUntil = :leaseUntil WHERE j.jobName = :jobName "
+			+ "AND (j.leaseUntil IS NULL OR j.leaseUntil < :now OR j.leaseOwner = :owner)")
+	int claimLease(@Param("jobName") String jobName, @Param("owner") String owner, @Param("now") LocalDateTime now,
+			@Param("leaseUntil") LocalDateTime leaseUntil);
+
+	// Moves the watermark and extends the lease, but only while the caller still holds it
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@Query("UPDATE JobWatermark j SET j.watermark = :watermark, j.leaseUntil = :leaseUntil "
+			+ "WHERE j.jobName = :jobName AND j.leaseOwner = :owner AND j.leaseUntil >= :now")
+	int advance(@Param("jobName") String jobName, @Param("owner") String owner,
+			@Param("watermark") LocalDateTime watermark, @Param("now") LocalDateTime now,
+			@Param("leaseUntil") LocalDateTime leaseUntil);
+
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@Query("UPDATE JobWatermark j SET j.leaseOwner = NULL, j.leaseUntil = NULL "
+			+ "WHERE j.jobName = :jobName AND j.leaseOwner = :owner")
+	int releaseLease(@Param("jobName") String jobName, @Param("owner") String owner);
+}
@@ -0,0 +1,43 @@
+package com.codetest.bookingsystem.repository;
+
+import com.codetest.bookingsystem.enums.NotificationStatus;
+import com.codetest.bookingsystem.model.Notification;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+	boolean existsByDedupKey(String dedupKey);
+
+	@Query("SELECT n.id FROM Notification n WHERE n.status = :status AND n.nextAttemptAt <= :now ORDER BY n.id")
+	List<Long> findDueIds(@Param("status") NotificationStatus status, @Param("now") LocalDateTime now, Limit limit);
+
+	// Takes the rows that are still due; pushing nextAttemptAt out hides them from other dispatchers until leaseUntil
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@Query("UPDATE Notification n SET n.claimedBy = :claimedBy, n.nextAttemptAt = :leaseUntil, "
+			+ "n.attempts = n.attempts + 1 WHERE n.id IN :ids AND n.status = :status AND n.nextAttemptAt <= :now")
+	int claim(@Param("ids") Collection<Long> ids, @Param("status") NotificationStatus status,
+			@Param("claimedBy") String claimedBy, @Param("now") LocalDateTime now,
+			@Param("leaseUntil") LocalDateTime leaseUntil);
+
+	List<Notification> findByClaimedByOrderById(String claimedBy);
+
+	// Replaces the body as well, so one-time secrets such as reset tokens do not outlive delivery
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@Query("UPDATE Notification n SET n.status = :status, n.body = :body, n.claimedBy = null, n.lastError = null "
+			+ "WHERE n.id IN :ids")
+	int markSent(@Param("ids") Collection<Long> ids, @Param("status") NotificationStatus status,
+			@Param("body") String body);
+}
@@ -3,10 +3,13 @@ package com.codetest.bookingsystem.repository;
 import com.codetest.bookingsystem.enums.Country;
 import com.codetest.bookingsystem.model.UserPackage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -15,9 +18,27 @@ public interface UserPackageRepository extends JpaRepository<UserPackage, Long>
 
 	List<UserPackage> findByUserId(Long userId);
 
-	@Query("SELECT up FROM UserPackage up JOIN up.creditPackage cp "
+	// Fetches the credit package: bulk bookings map these packages in later transactions, after they are detached
+	@Query("SELECT up FROM UserPackage up JOIN FETCH up.creditPackage cp "
 			+ "WHERE up.user.id = :userId AND cp.country = :country AND up.remainingCredits >= :requiredCredits AND up.expiryDate >= :today "
 			+ "ORDER BY up.expiryDate ASC")
 	List<UserPackage> findActivePackagesForBooking(@Param("userId") Long userId, @Param("country") Country country,
 			@Param("requiredCredits") int requiredCredits, @Param("today") LocalDate today);
-}
\ No newline at end of file
+
+	// Atomic check-and-spend: returns 0 instead of overdrawing when a concurrent request got there first
+	@Transactional
+	@Modifying
+	@Query("UPDATE UserPackage up SET up.remainingCredits = up.remainingCredits - :credits, up.updatedAt = :now "
+			+ "WHERE up.id = :id AND up.remainingCredits >= :credits")
+	int deductCredits(@Param("id") Long id, @Param("credits") int credits, @Param("now") Instant now);
+
+	// A scalar read, so it sees this transaction's own update rather than a managed entity's stale copy
+	@Query("SELECT up.remainingCredits FROM UserPackage up WHERE up.id = :id")
+	int findRemainingCreditsById(@Param("id") Long id);
+
+	@Transactional
+	@Modifying
+	@Query("UPDATE UserPackage up SET up.remainingCredits = up.remainingCredits + :credits, up.updatedAt = :now "
+			+ "WHERE up.id = :id")
+	int refundCredits(@Param("id") Long id, @Param("credits") int credits, @Param("now") Instant now);
+}
@@ -2,9 +2,17 @@ package com.codetest.bookingsystem.repository;
 
 import com.codetest.bookingsystem.enums.WaitlistStatus;
 import com.codetest.bookingsystem.model.Waitlist;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,5 +24,64 @@ public interface WaitlistRepository extends JpaRepository<Waitlist, Long> {
 
 	List<Waitlist> findByClassScheduleIdAndStatus(Long classScheduleId, WaitlistStatus status);
 
-	Optional<Waitlist> findByUserIdAndClassScheduleId(Long userId, Long classScheduleId);
-}
\ No newline at end of file
+	// Written out because the derived query outer-joins both parents and filters on their ids, which hides the index
+	@Query("SELECT w FROM Waitlist w WHERE w.user.id = :userId AND w.classSchedule.id = :classScheduleId")
+	Optional<Waitlist> findByUserIdAndClassScheduleId(@Param("userId") Long userId,
+			@Param("classScheduleId") Long classScheduleId);
+
+	@Query("SELECT w.classSchedule.id FROM Waitlist w WHERE w.user.id = :userId AND w.classSchedule.id IN :classScheduleIds")
+	List<Long> findClassIdsWaitlistedByUser(@Param("userId") Long userId,
+			@Param("classScheduleIds") Collection<Long> classScheduleIds);
+
+	// Classes that ended in (from, to] and still have someone waiting
+	@Query("SELECT DISTINCT w.classSchedule.id FROM Waitlist w WHERE w.status = :status "
+			+ "AND w.classSchedule.endTime > :from AND w.classSchedule.endTime <= :to")
+	List<Long> findClassIdsEndedBetween(@Param("status") WaitlistStatus status, @Param("from") LocalDateTime from,
+			@Param("to") LocalDateTime to);
+
+	// Keyset chunk of one class's waitlist entries, with what a refund needs
+	@Query("SELECT w.id AS id, w.userPackage.id AS userPackageId, w.classSchedule.requiredCredits AS credits, "
+			+ "w.user.id AS userId, w.user.email AS email, w.classSchedule.className AS className "
+			+ "FROM Waitlist w WHERE w.classSchedule.id = :classScheduleId AND w.status = :status "
+			+ "AND w.id > :afterId ORDER BY w.id")
+	List<RefundCandidate> findRefundChunk(@Param("classScheduleId") Long classScheduleId,
+			@Param("status") WaitlistStatus status, @Param("afterId") Long afterId, Limit limit);
+
+	// Classes not started yet where someone is waiting although a seat is free
+	@Query("SELECT DISTINCT w.classSchedule.id FROM Waitlist w WHERE w.status = :status "
+			+ "AND w.classSchedule.startTime > :now AND w.classSchedule.bookedCount < w.classSchedule.capacity")
+	List<Long> findClassIdsWithFreeSeats(@Param("status") WaitlistStatus status, @Param("now") LocalDateTime now);
+
+	// Moves an entry only if it is still in the expected status, so a promotion and a refund never both win it.
+	// The context is not cleared, so the caller's entry and its lazy associations stay usable
+	@Transactional
+	@Modifying
+	@Query("UPDATE Waitlist w SET w.status = :status, w.updatedAt = :now WHERE w.id = :id AND w.status = :expected")
+	int updateStatus(@Param("id") Long id, @Param("expected") WaitlistStatus expected,
+			@Param("status") WaitlistStatus status, @Param("now") Instant now);
+
+	// WAITING entries of classes that have not ended, in queue order; rebuilds the Redis waitlist queues
+	@Query("SELECT w.classSchedule.id AS classScheduleId, w.id AS id FROM Waitlist w WHERE w.status = :status "
+			+ "AND w.classSchedule.endTime > :now ORDER BY w.classSchedule.id, w.createdAt, w.id")
+	List<QueuedEntry> findQueuedEntries(@Param("status") WaitlistStatus status, @Param("now") LocalDateTime now);
+
+	interface RefundCandidate {
+		Long getId();
+
+		Long getUserPackageId();
+
+		int getCredits();
+
+		Long getUserId();
+
+		String getEmail();
+
+		String getClassName();
+	}
+
+	interface QueuedEntry {
+		Long getClassScheduleId();
+
+		Long getId();
+	}
+}
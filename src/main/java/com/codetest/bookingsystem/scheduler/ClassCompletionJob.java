@@ -0,0 +1,23 @@
+package com.codetest.bookingsystem.scheduler;
+
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * Quartz entry point for the end-of-class refund run. Instances are created by
+ * Quartz per firing and autowired by Spring; concurrent firings of the job are
+ * disallowed across the whole cluster.
+ */
+@DisallowConcurrentExecution
+public class ClassCompletionJob extends QuartzJobBean {
+
+  @Autowired
+  private ClassCompletionScheduler classCompletionScheduler;
+
+  @Override
+  protected void executeInternal(JobExecutionContext context) {
+    classCompletionScheduler.processEndedClassesAndWaitlists();
+  }
+}
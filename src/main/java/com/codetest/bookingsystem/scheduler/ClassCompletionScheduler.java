@@ -1,51 +1,84 @@
 package com.codetest.bookingsystem.scheduler;
 
-import com.codetest.bookingsystem.enums.WaitlistStatus;
-import com.codetest.bookingsystem.model.ClassSchedule;
-import com.codetest.bookingsystem.model.Waitlist;
-import com.codetest.bookingsystem.repository.ClassScheduleRepository;
-import com.codetest.bookingsystem.repository.WaitlistRepository;
+import com.codetest.bookingsystem.service.BookingMetrics;
+import com.codetest.bookingsystem.service.JobWatermarkService;
 import com.codetest.bookingsystem.service.SchedulerService;
+import io.micrometer.observation.Observation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Component
 public class ClassCompletionScheduler {
 
   private static final Logger logger = LoggerFactory.getLogger(ClassCompletionScheduler.class);
 
+  static final String JOB_NAME = "class-completion";
+
+  // How far back the very first run looks, matching the old fixed window
+  private static final Duration INITIAL_LOOKBACK = Duration.ofMinutes(15);
+
   @Autowired
-  private ClassScheduleRepository classScheduleRepository;
+  private SchedulerService schedulerService;
 
   @Autowired
-  private WaitlistRepository waitlistRepository;
+  private JobWatermarkService jobWatermarkService;
 
   @Autowired
-  private SchedulerService schedulerService;
+  private BookingMetrics bookingMetrics;
+
+  @Value("${app.scheduler.class-completion.lease-seconds:300}")
+  private long leaseSeconds;
+
+  @Value("${app.scheduler.class-completion.batch-window-minutes:60}")
+  private long batchWindowMinutes;
 
   /**
-   * This job runs every 15 minutes to process classes that have recently ended.
-   * It finds users who were still on the waitlist for these classes and refunds
-   * their credits.
+   * Fired by {@link ClassCompletionJob} (hourly by default) to process classes
+   * that have ended since the last committed watermark. Classes are normally
+   * refunded by their {@link ClassEndJob} trigger already, so this run is a
+   * safety net for timers that were missed or failed. It refunds users
+   * who were still on the waitlist for these classes, catching up in bounded
+   * windows after downtime. Only the node holding the job lease does the work.
    */
-  @Scheduled(cron = "0 0/15 * * * ?") // Runs every 15 minutes
   public void processEndedClassesAndWaitlists() {
+    Duration lease = Duration.ofSeconds(leaseSeconds);
     LocalDateTime now = LocalDateTime.now();
-    LocalDateTime fifteenMinutesAgo = now.minusMinutes(15);
-    logger.info("Running scheduled job to process ended classes between {} and {}", fifteenMinutesAgo, now);
-
-    List<ClassSchedule> endedClasses = classScheduleRepository.findByEndTimeBetween(fifteenMinutesAgo, now);
+    LocalDateTime watermark = jobWatermarkService.claim(JOB_NAME, lease, now.minus(INITIAL_LOOKBACK));
+    if (watermark == null) {
+      logger.debug("Skipping class completion run: another node holds the lease.");
+      return;
+    }
+    logger.info("Running scheduled job to process ended classes between {} and {}", watermark, now);
 
-    for (ClassSchedule classSchedule : endedClasses) {
-      List<Waitlist> waitingUsers = waitlistRepository.findByClassScheduleIdAndStatus(classSchedule.getId(),
-          WaitlistStatus.WAITING);
-      waitingUsers.forEach(schedulerService::refundCreditForWaitlist);
+    Observation observation = bookingMetrics.start(BookingMetrics.SCHEDULER_BATCH)
+        .lowCardinalityKeyValue("job", JOB_NAME);
+    String outcome = BookingMetrics.OUTCOME_ERROR;
+    int refunded = 0;
+    try {
+      while (watermark.isBefore(now)) {
+        LocalDateTime windowEnd = watermark.plusMinutes(batchWindowMinutes);
+        if (windowEnd.isAfter(now)) {
+          windowEnd = now;
+        }
+        // Refunds are idempotent, so a crash before the watermark moves only repeats no-op work
+        refunded += schedulerService.refundWaitlistsForClassesEndedBetween(watermark, windowEnd);
+        if (!jobWatermarkService.advance(JOB_NAME, windowEnd, lease)) {
+          logger.warn("Lost the class completion lease at watermark {}; stopping.", watermark);
+          break;
+        }
+        watermark = windowEnd;
+      }
+      outcome = BookingMetrics.OUTCOME_SUCCESS;
+    } finally {
+      jobWatermarkService.release(JOB_NAME);
+      bookingMetrics.countSchedulerItems(JOB_NAME, refunded);
+      bookingMetrics.stop(observation, outcome);
     }
   }
-}
\ No newline at end of file
+}
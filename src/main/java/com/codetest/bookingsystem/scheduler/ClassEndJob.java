@@ -0,0 +1,41 @@
+package com.codetest.bookingsystem.scheduler;
+
+import com.codetest.bookingsystem.service.BookingMetrics;
+import com.codetest.bookingsystem.service.SchedulerService;
+import org.quartz.JobExecutionContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * Fired by a one-shot trigger shortly after a single class ends. The class id
+ * comes from the trigger's job data and is bound to {@link #setClassScheduleId}
+ * by {@link QuartzJobBean}.
+ */
+public class ClassEndJob extends QuartzJobBean {
+
+  private static final Logger logger = LoggerFactory.getLogger(ClassEndJob.class);
+
+  static final String JOB_NAME = "class-end";
+
+  @Autowired
+  private SchedulerService schedulerService;
+
+  @Autowired
+  private BookingMetrics bookingMetrics;
+
+  private Long classScheduleId;
+
+  public void setClassScheduleId(Long classScheduleId) {
+    this.classScheduleId = classScheduleId;
+  }
+
+  @Override
+  protected void executeInternal(JobExecutionContext context) {
+    // A failure here is retried by the periodic class completion run, which refunds idempotently
+    int refunded = schedulerService.refundWaitlistsForClass(classScheduleId);
+    bookingMetrics.countSchedulerItems(JOB_NAME, refunded);
+    logger.info("Class {} ended; refunded {} waitlisted users.", classScheduleId, refunded);
+  }
+}
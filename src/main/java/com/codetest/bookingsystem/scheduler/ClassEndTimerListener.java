@@ -0,0 +1,54 @@
+package com.codetest.bookingsystem.scheduler;
+
+import com.codetest.bookingsystem.model.ClassSchedule;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity listener that keeps the end-of-class timers in step with the
+ * class schedule table. Timers are only touched once the transaction commits.
+ */
+@Component
+public class ClassEndTimerListener {
+
+  // Absent in slices that do not start Quartz
+  @Autowired(required = false)
+  private ClassEndTimers classEndTimers;
+
+  @PostPersist
+  @PostUpdate
+  public void onSaved(ClassSchedule classSchedule) {
+    Long id = classSchedule.getId();
+    LocalDateTime endTime = classSchedule.getEndTime();
+    afterCommit(() -> classEndTimers.schedule(id, endTime));
+  }
+
+  @PostRemove
+  public void onRemoved(ClassSchedule classSchedule) {
+    Long id = classSchedule.getId();
+    afterCommit(() -> classEndTimers.cancel(id));
+  }
+
+  private void afterCommit(Runnable action) {
+    if (classEndTimers == null) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+}
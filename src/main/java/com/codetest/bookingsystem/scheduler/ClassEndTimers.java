@@ -0,0 +1,112 @@
+package com.codetest.bookingsystem.scheduler;
+
+import com.codetest.bookingsystem.config.QuartzConfig;
+import com.codetest.bookingsystem.repository.ClassScheduleRepository;
+import com.codetest.bookingsystem.repository.ClassScheduleRepository.ClassEndTime;
+import org.quartz.ObjectAlreadyExistsException;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Keeps one Quartz trigger per upcoming class, set to fire just after the class
+ * ends, so waitlist refunds happen within seconds instead of waiting for the
+ * next polling run. Triggers live in the clustered job store: they survive
+ * restarts and fire on exactly one node.
+ */
+@Component
+public class ClassEndTimers {
+
+  private static final Logger logger = LoggerFactory.getLogger(ClassEndTimers.class);
+
+  static final String TRIGGER_GROUP = "classEnd";
+  static final String CLASS_SCHEDULE_ID = "classScheduleId";
+
+  @Autowired
+  private Scheduler scheduler;
+
+  @Autowired
+  private ClassScheduleRepository classScheduleRepository;
+
+  @Value("${app.scheduler.class-end.delay-seconds:5}")
+  private long delaySeconds;
+
+  /**
+   * Registers or moves the timer for a class. A class that has already ended
+   * fires immediately.
+   */
+  public void schedule(Long classScheduleId, LocalDateTime endTime) {
+    TriggerKey key = triggerKey(classScheduleId);
+    Trigger trigger = TriggerBuilder.newTrigger()
+        .withIdentity(key)
+        .forJob(QuartzConfig.CLASS_END_JOB)
+        .usingJobData(CLASS_SCHEDULE_ID, classScheduleId)
+        .startAt(Date.from(endTime.plusSeconds(delaySeconds).atZone(ZoneId.systemDefault()).toInstant()))
+        .withSchedule(SimpleScheduleBuilder.simpleSchedule().withMisfireHandlingInstructionFireNow())
+        .build();
+    try {
+      if (scheduler.checkExists(key)) {
+        scheduler.rescheduleJob(key, trigger);
+      } else {
+        try {
+          scheduler.scheduleJob(trigger);
+        } catch (ObjectAlreadyExistsException e) {
+          // Another node registered it in the meantime
+          scheduler.rescheduleJob(key, trigger);
+        }
+      }
+    } catch (SchedulerException e) {
+      // The periodic class completion run still refunds this class
+      logger.error("Could not schedule end-of-class timer for class {}: {}", classScheduleId, e.getMessage(), e);
+    }
+  }
+
+  public void cancel(Long classScheduleId) {
+    try {
+      scheduler.unscheduleJob(triggerKey(classScheduleId));
+    } catch (SchedulerException e) {
+      logger.error("Could not cancel end-of-class timer for class {}: {}", classScheduleId, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Registers timers for upcoming classes that do not have one yet, e.g. classes
+   * loaded from data.sql or written while the scheduler was down.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    List<ClassEndTime> upcoming = classScheduleRepository.findEndTimesAfter(LocalDateTime.now());
+    int registered = 0;
+    for (ClassEndTime classEnd : upcoming) {
+      try {
+        if (!scheduler.checkExists(triggerKey(classEnd.getId()))) {
+          schedule(classEnd.getId(), classEnd.getEndTime());
+          registered++;
+        }
+      } catch (SchedulerException e) {
+        logger.error("Could not check end-of-class timer for class {}: {}", classEnd.getId(), e.getMessage(), e);
+      }
+    }
+    logger.info("End-of-class timers rebuilt: {} upcoming classes, {} timers registered.", upcoming.size(),
+        registered);
+  }
+
+  static TriggerKey triggerKey(Long classScheduleId) {
+    return TriggerKey.triggerKey(String.valueOf(classScheduleId), TRIGGER_GROUP);
+  }
+}
@@ -0,0 +1,22 @@
+package com.codetest.bookingsystem.scheduler;
+
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobExecutionContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.quartz.QuartzJobBean;
+
+/**
+ * Quartz entry point for the credit ledger reconcile run; concurrent firings
+ * are disallowed across the whole cluster.
+ */
+@DisallowConcurrentExecution
+public class CreditLedgerJob extends QuartzJobBean {
+
+  @Autowired
+  private CreditLedgerScheduler creditLedgerScheduler;
+
+  @Override
+  protected void executeInternal(JobExecutionContext context) {
+    creditLedgerScheduler.reconcileCreditLedger();
+  }
+}
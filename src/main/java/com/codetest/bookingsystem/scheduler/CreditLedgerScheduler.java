@@ -0,0 +1,25 @@
+package com.codetest.bookingsystem.scheduler;
+
+import com.codetest.bookingsystem.service.BookingMetrics;
+import com.codetest.bookingsystem.service.CreditLedgerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CreditLedgerScheduler {
+
+  @Autowired
+  private CreditLedgerService creditLedgerService;
+
+  @Autowired
+  private BookingMetrics bookingMetrics;
+
+  /**
+   * Fired by {@link CreditLedgerJob} (hourly by default) to check every
+   * package's balance against its credit ledger. The first run, shortly after
+   * startup, also opens the ledger of packages bought before it existed.
+   */
+  public void reconcileCreditLedger() {
+    bookingMetrics.countSchedulerItems(CreditLedgerService.RECONCILE_JOB_NAME, creditLedgerService.reconcile());
+  }
+}
@@ -0,0 +1,26 @@
+package com.codetest.bookingsystem.scheduler;
+
+import com.codetest.bookingsystem.service.BookingMetrics;
+import com.codetest.bookingsystem.service.DomainEventService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DomainEventRelayScheduler {
+
+  @Autowired
+  private DomainEventService domainEventService;
+
+  @Autowired
+  private BookingMetrics bookingMetrics;
+
+  /**
+   * Publishes newly recorded domain events. Every instance polls, but only the
+   * one holding the relay lease publishes.
+   */
+  @Scheduled(fixedDelayString = "${app.events.relay.interval-ms:1000}")
+  public void relayDomainEvents() {
+    bookingMetrics.countSchedulerItems(DomainEventService.RELAY_JOB_NAME, domainEventService.relayPending());
+  }
+}
@@ -0,0 +1,28 @@
+package com.codetest.bookingsystem.scheduler;
+
+import com.codetest.bookingsystem.service.BookingMetrics;
+import com.codetest.bookingsystem.service.NotificationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class NotificationScheduler {
+
+  static final String JOB_NAME = "notification-dispatch";
+
+  @Autowired
+  private NotificationService notificationService;
+
+  @Autowired
+  private BookingMetrics bookingMetrics;
+
+  /**
+   * Drains the notification outbox. Runs on every instance; rows are claimed
+   * per batch so each one is sent by a single instance.
+   */
+  @Scheduled(fixedDelayString = "${app.notification.dispatch-interval-ms:2000}")
+  public void dispatchNotifications() {
+    bookingMetrics.countSchedulerItems(JOB_NAME, notificationService.dispatchDue());
+  }
+}
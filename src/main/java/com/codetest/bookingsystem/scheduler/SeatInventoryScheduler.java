@@ -0,0 +1,46 @@
+package com.codetest.bookingsystem.scheduler;
+
+import com.codetest.bookingsystem.service.SeatInventoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SeatInventoryScheduler {
+
+  private static final Logger logger = LoggerFactory.getLogger(SeatInventoryScheduler.class);
+
+  @Autowired
+  private SeatInventoryService seatInventoryService;
+
+  // Off by default, so a rolling start does not rewrite every upcoming class once per node
+  @Value("${app.booking.booked-count.recount-on-startup:false}")
+  private boolean recountOnStartup;
+
+  /**
+   * Primes the in-memory seat counters from the booking table once the
+   * application has started, after bringing {@code booked_count} up to date.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void primeSeatInventory() {
+    if (recountOnStartup) {
+      seatInventoryService.recountBookedSeats();
+    }
+    logger.info("Priming seat inventory from the database");
+    seatInventoryService.reconcile();
+  }
+
+  /**
+   * Periodically corrects any drift between the in-memory seat counters and the
+   * booking table (e.g. bookings written by another instance).
+   */
+  @Scheduled(fixedDelayString = "${app.booking.seat-inventory.reconcile-interval-ms:60000}", initialDelayString = "${app.booking.seat-inventory.reconcile-interval-ms:60000}")
+  public void reconcileSeatInventory() {
+    seatInventoryService.reconcile();
+  }
+}
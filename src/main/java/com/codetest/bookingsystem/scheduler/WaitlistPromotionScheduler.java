@@ -0,0 +1,28 @@
+package com.codetest.bookingsystem.scheduler;
+
+import com.codetest.bookingsystem.service.BookingMetrics;
+import com.codetest.bookingsystem.service.WaitlistPromotionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class WaitlistPromotionScheduler {
+
+  static final String JOB_NAME = "waitlist-promotion-sweep";
+
+  @Autowired
+  private WaitlistPromotionService waitlistPromotionService;
+
+  @Autowired
+  private BookingMetrics bookingMetrics;
+
+  /**
+   * Re-signals classes with free seats and waiting users, covering seats whose
+   * in-memory signal was lost to a restart or a full promotion queue.
+   */
+  @Scheduled(fixedDelayString = "${app.waitlist.promotion.sweep-interval-ms:30000}", initialDelayString = "${app.waitlist.promotion.sweep-interval-ms:30000}")
+  public void sweepWaitlistPromotions() {
+    bookingMetrics.countSchedulerItems(JOB_NAME, waitlistPromotionService.sweep());
+  }
+}
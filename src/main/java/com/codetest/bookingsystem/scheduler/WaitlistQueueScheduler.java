@@ -0,0 +1,44 @@
+package com.codetest.bookingsystem.scheduler;
+
+import com.codetest.bookingsystem.service.BookingMetrics;
+import com.codetest.bookingsystem.service.WaitlistQueueService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class WaitlistQueueScheduler {
+
+  private static final Logger logger = LoggerFactory.getLogger(WaitlistQueueScheduler.class);
+
+  static final String JOB_NAME = "waitlist-queue-rebuild";
+
+  @Autowired
+  private WaitlistQueueService waitlistQueueService;
+
+  @Autowired
+  private BookingMetrics bookingMetrics;
+
+  /**
+   * Rebuilds the Redis waitlist queues from the waitlist table on startup and
+   * then periodically, which restores them after Redis lost its data and picks
+   * up entries whose push failed.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(fixedDelayString = "${app.waitlist.queue.rebuild-interval-ms:300000}", initialDelayString = "${app.waitlist.queue.rebuild-interval-ms:300000}")
+  public void rebuildWaitlistQueues() {
+    if (!waitlistQueueService.isRedisEnabled()) {
+      return;
+    }
+    try {
+      bookingMetrics.countSchedulerItems(JOB_NAME, waitlistQueueService.rebuild());
+    } catch (DataAccessException e) {
+      logger.error("Rebuilding the waitlist queues failed: {}", e.getMessage(), e);
+    }
+  }
+}
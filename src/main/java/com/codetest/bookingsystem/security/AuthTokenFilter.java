@@ -7,6 +7,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,6 +24,13 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 	@Autowired
 	private UserDetailsServiceImpl userDetailsService;
 
+	@Autowired
+	private TokenVersionService tokenVersionService;
+
+	// Build the principal from token claims instead of loading the user on every request
+	@Value("${security.jwt.stateless:true}")
+	private boolean stateless;
+
 	private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
 	@Override
@@ -33,11 +41,18 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 			String jwt = parseJwt(request);
 			if (jwt != null) {
 				logger.debug("JWT found in Authorization header.");
-				if (tokenProvider.validateJwtToken(jwt)) {
-					String username = tokenProvider.getUserNameFromJwtToken(jwt);
+				// Verified once per request; repeat tokens are answered from the provider's cache
+				TokenClaims claims = tokenProvider.parseClaims(jwt);
+				if (claims != null) {
+					String username = claims.getSubject();
 					logger.debug("JWT validated successfully for user: {}", username);
 
-					UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+					UserDetails userDetails = loadUserDetails(claims);
+					if (userDetails == null) {
+						logger.warn("JWT has been revoked for user: {}", username);
+						filterChain.doFilter(request, response);
+						return;
+					}
 					UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
 							userDetails, null, userDetails.getAuthorities());
 					authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -57,6 +72,20 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 		filterChain.doFilter(request, response);
 	}
 
+	/**
+	 * Returns null if the token was revoked. Tokens issued before user claims
+	 * were embedded fall back to loading the user from the database.
+	 */
+	private UserDetails loadUserDetails(TokenClaims claims) {
+		if (!stateless || !claims.hasUserClaims()) {
+			return userDetailsService.loadUserByUsername(claims.getSubject());
+		}
+		if (!claims.getTokenVersion().equals(tokenVersionService.getTokenVersion(claims.getUserId()))) {
+			return null;
+		}
+		return UserDetailsImpl.build(claims);
+	}
+
 	private String parseJwt(HttpServletRequest request) {
 		String headerAuth = request.getHeader("Authorization");
 
@@ -3,13 +3,26 @@ package com.codetest.bookingsystem.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import com.codetest.bookingsystem.enums.Role;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 
 @Component
@@ -22,36 +35,128 @@ public class JwtTokenProvider {
 	@Value("${security.jwt.expiration-time}")
 	private int jwtExpirationMs;
 
+	// Claim names for the user details embedded for stateless authentication
+	static final String USER_ID_CLAIM = "uid";
+	static final String EMAIL_CLAIM = "email";
+	static final String ROLE_CLAIM = "role";
+	static final String ENABLED_CLAIM = "enabled";
+	static final String TOKEN_VERSION_CLAIM = "ver";
+
+	@Value("${security.jwt.validated-cache-size:10000}")
+	private long validatedCacheSize;
+
+	// Built once; the key and parser are immutable and safe to share between threads
+	private Key signingKey;
+	private JwtParser jwtParser;
+
+	// Recently verified tokens by SHA-256 of the token; each entry expires with its token
+	private Cache<String, TokenClaims> validatedTokens;
+
+	@PostConstruct
+	void init() {
+		signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+		jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+		validatedTokens = Caffeine.newBuilder().maximumSize(validatedCacheSize)
+				.expireAfter(new Expiry<String, TokenClaims>() {
+					@Override
+					public long expireAfterCreate(String key, TokenClaims claims, long currentTime) {
+						return Math.max(0, claims.getExpiresAt().toEpochMilli() - System.currentTimeMillis())
+								* 1_000_000L;
+					}
+
+					@Override
+					public long expireAfterUpdate(String key, TokenClaims claims, long currentTime,
+							long currentDuration) {
+						return currentDuration;
+					}
+
+					@Override
+					public long expireAfterRead(String key, TokenClaims claims, long currentTime,
+							long currentDuration) {
+						return currentDuration;
+					}
+				}).build();
+	}
+
 	public String generateJwtToken(Authentication authentication) {
 		UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
-		return Jwts.builder().setSubject((userPrincipal.getUsername())).setIssuedAt(new Date())
+		String role = userPrincipal.getAuthorities().stream().map(GrantedAuthority::getAuthority)
+				.map(authority -> authority.replace("ROLE_", "")).findFirst().orElse(null);
+		return Jwts.builder().setSubject((userPrincipal.getUsername())).claim(USER_ID_CLAIM, userPrincipal.getId())
+				.claim(EMAIL_CLAIM, userPrincipal.getEmail()).claim(ROLE_CLAIM, role)
+				.claim(ENABLED_CLAIM, userPrincipal.isEnabled())
+				.claim(TOKEN_VERSION_CLAIM, userPrincipal.getTokenVersion()).setIssuedAt(new Date())
 				.setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-				.signWith(key(), SignatureAlgorithm.HS256).compact();
+				.signWith(signingKey, SignatureAlgorithm.HS256).compact();
 	}
 
-	private Key key() {
-		return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+	/**
+	 * Verifies the token once and returns its claims, or null if it is invalid.
+	 * Tokens verified earlier are answered from the cache until they expire.
+	 */
+	public TokenClaims parseClaims(String token) {
+		if (token == null || token.isEmpty()) {
+			logger.error("JWT claims string is empty");
+			return null;
+		}
+		String tokenHash = sha256(token);
+		TokenClaims cached = validatedTokens.getIfPresent(tokenHash);
+		if (cached != null) {
+			// Entries can outlive their token by up to one cache maintenance cycle
+			return cached.getExpiresAt().isAfter(Instant.now()) ? cached : null;
+		}
+		TokenClaims claims = verify(token);
+		if (claims != null && claims.getExpiresAt() != null) {
+			validatedTokens.put(tokenHash, claims);
+		}
+		return claims;
 	}
 
 	public String getUserNameFromJwtToken(String token) {
-		return Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(token).getBody().getSubject();
+		TokenClaims claims = parseClaims(token);
+		return claims != null ? claims.getSubject() : null;
 	}
 
 	public boolean validateJwtToken(String authToken) {
+		return parseClaims(authToken) != null;
+	}
+
+	private TokenClaims verify(String token) {
 		try {
-			Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-			return true;
+			Claims claims = jwtParser.parseClaimsJws(token).getBody();
+			Date expiration = claims.getExpiration();
+			Number userId = claims.get(USER_ID_CLAIM, Number.class);
+			String role = claims.get(ROLE_CLAIM, String.class);
+			Number tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Number.class);
+			return new TokenClaims(claims.getSubject(), expiration != null ? expiration.toInstant() : null,
+					userId != null ? userId.longValue() : null, claims.get(EMAIL_CLAIM, String.class),
+					role != null ? Role.valueOf(role) : null,
+					Boolean.TRUE.equals(claims.get(ENABLED_CLAIM, Boolean.class)),
+					tokenVersion != null ? tokenVersion.intValue() : null);
 		} catch (MalformedJwtException e) {
 			logger.error("Invalid JWT token: {}", e.getMessage());
 		} catch (ExpiredJwtException e) {
 			logger.error("JWT token is expired: {}", e.getMessage());
 		} catch (UnsupportedJwtException e) {
 			logger.error("JWT token is unsupported: {}", e.getMessage());
+		} catch (SignatureException e) {
+			logger.error("Invalid JWT signature: {}", e.getMessage());
+		} catch (RequiredTypeException e) {
+			logger.error("JWT claims have unexpected types: {}", e.getMessage());
 		} catch (IllegalArgumentException e) {
-			logger.error("JWT claims string is empty: {}", e.getMessage());
+			logger.error("JWT claims string is empty or invalid: {}", e.getMessage());
 		}
 
-		return false;
+		return null;
+	}
+
+	private static String sha256(String token) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().encodeToString(digest);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
 	}
-}
\ No newline at end of file
+}
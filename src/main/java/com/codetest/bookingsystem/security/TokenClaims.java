@@ -0,0 +1,68 @@
+package com.codetest.bookingsystem.security;
+
+import java.time.Instant;
+
+import com.codetest.bookingsystem.enums.Role;
+
+/**
+ * The parts of a verified JWT the application uses. Immutable so a single
+ * instance can be shared through the validated-token cache. Tokens issued
+ * before user claims were added carry only the subject and expiry.
+ */
+public final class TokenClaims {
+
+	private final String subject;
+	private final Instant expiresAt;
+	private final Long userId;
+	private final String email;
+	private final Role role;
+	private final boolean enabled;
+	private final Integer tokenVersion;
+
+	public TokenClaims(String subject, Instant expiresAt, Long userId, String email, Role role, boolean enabled,
+			Integer tokenVersion) {
+		this.subject = subject;
+		this.expiresAt = expiresAt;
+		this.userId = userId;
+		this.email = email;
+		this.role = role;
+		this.enabled = enabled;
+		this.tokenVersion = tokenVersion;
+	}
+
+	public String getSubject() {
+		return subject;
+	}
+
+	public Instant getExpiresAt() {
+		return expiresAt;
+	}
+
+	public Long getUserId() {
+		return userId;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public Role getRole() {
+		return role;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public Integer getTokenVersion() {
+		return tokenVersion;
+	}
+
+	/**
+	 * Whether the token carries enough to build the principal without a user
+	 * lookup.
+	 */
+	public boolean hasUserClaims() {
+		return userId != null && role != null && tokenVersion != null;
+	}
+}
@@ -0,0 +1,62 @@
+package com.codetest.bookingsystem.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.codetest.bookingsystem.config.CacheConfig;
+import com.codetest.bookingsystem.model.AppUser;
+import com.codetest.bookingsystem.repository.AppUserRepository;
+
+/**
+ * Current token version per user, served from the two-tier cache so stateless
+ * authentication does not read the user table on every request. A token is
+ * accepted only while its version matches.
+ */
+@Service
+public class TokenVersionService {
+
+	// Never matches a token, so tokens of deleted users are rejected
+	static final int UNKNOWN_USER = -1;
+
+	@Autowired
+	private AppUserRepository userRepository;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Cacheable(cacheNames = CacheConfig.TOKEN_VERSIONS, key = "#userId.toString()", sync = true)
+	public Integer getTokenVersion(Long userId) {
+		return userRepository.findTokenVersionById(userId).orElse(UNKNOWN_USER);
+	}
+
+	/**
+	 * Revokes every token issued to the user so far. The cached version is
+	 * evicted on all instances once the surrounding transaction commits.
+	 */
+	public void revokeTokens(AppUser user) {
+		user.setTokenVersion(user.getTokenVersion() + 1);
+		String key = user.getId().toString();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evict(key);
+				}
+			});
+		} else {
+			evict(key);
+		}
+	}
+
+	private void evict(String key) {
+		Cache cache = cacheManager.getCache(CacheConfig.TOKEN_VERSIONS);
+		if (cache != null) {
+			cache.evict(key);
+		}
+	}
+}
@@ -20,15 +20,22 @@ public class UserDetailsImpl implements UserDetails {
 	@JsonIgnore
 	private String password;
 	private boolean enabled;
+	private int tokenVersion;
 	private Collection<? extends GrantedAuthority> authorities;
 
 	public UserDetailsImpl(Long id, String username, String email, String password, boolean enabled,
 			Collection<? extends GrantedAuthority> authorities) {
+		this(id, username, email, password, enabled, 0, authorities);
+	}
+
+	public UserDetailsImpl(Long id, String username, String email, String password, boolean enabled,
+			int tokenVersion, Collection<? extends GrantedAuthority> authorities) {
 		this.id = id;
 		this.username = username;
 		this.email = email;
 		this.password = password;
 		this.enabled = enabled;
+		this.tokenVersion = tokenVersion;
 		this.authorities = authorities;
 	}
 
@@ -36,7 +43,19 @@ public class UserDetailsImpl implements UserDetails {
 		List<GrantedAuthority> authorities = Collections
 				.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())); // Add "ROLE_" prefix
 		return new UserDetailsImpl(user.getId(), user.getUsername(), user.getEmail(), user.getPassword(),
-				user.isEnabled(), authorities);
+				user.isEnabled(), user.getTokenVersion(), authorities);
+	}
+
+	/**
+	 * Builds the principal from verified token claims without touching the
+	 * database. There is no password because the token already authenticated
+	 * the request.
+	 */
+	public static UserDetailsImpl build(TokenClaims claims) {
+		List<GrantedAuthority> authorities = Collections
+				.singletonList(new SimpleGrantedAuthority("ROLE_" + claims.getRole().name()));
+		return new UserDetailsImpl(claims.getUserId(), claims.getSubject(), claims.getEmail(), null,
+				claims.isEnabled(), claims.getTokenVersion(), authorities);
 	}
 
 	@Override
@@ -52,6 +71,10 @@ public class UserDetailsImpl implements UserDetails {
 		return email;
 	}
 
+	public int getTokenVersion() {
+		return tokenVersion;
+	}
+
 	@Override
 	public String getPassword() {
 		return password;
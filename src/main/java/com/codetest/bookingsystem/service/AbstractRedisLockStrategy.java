@@ -0,0 +1,39 @@
+package com.codetest.bookingsystem.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * Key layout and ownership-checked release shared by the Redis lock
+ * strategies. The lock key holds the owner token of the current holder, so a
+ * caller whose lease has expired can never delete someone else's lock.
+ */
+public abstract class AbstractRedisLockStrategy implements LockStrategy {
+
+	protected static final String LOCK_PREFIX = "lock:class:";
+	protected static final String FENCE_KEY = "lock:fence";
+
+	private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+			"if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+			Long.class);
+
+	@Autowired
+	protected StringRedisTemplate redisTemplate;
+
+	@Value("${app.lock.lease-ms:10000}")
+	protected long leaseMs;
+
+	@Override
+	public void release(LockHandle handle) {
+		redisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey(handle.getClassScheduleId())), handle.getOwnerToken());
+	}
+
+	protected String lockKey(Long classScheduleId) {
+		return LOCK_PREFIX + classScheduleId;
+	}
+}
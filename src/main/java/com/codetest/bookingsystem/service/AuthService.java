@@ -13,6 +13,7 @@ import com.codetest.bookingsystem.model.AppUser;
 import com.codetest.bookingsystem.model.PasswordResetToken;
 import com.codetest.bookingsystem.repository.AppUserRepository;
 import com.codetest.bookingsystem.security.JwtTokenProvider;
+import com.codetest.bookingsystem.security.TokenVersionService;
 import com.codetest.bookingsystem.security.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -42,11 +43,14 @@ public class AuthService {
 	private JwtTokenProvider jwtTokenProvider;
 
 	@Autowired
-	private MockEmailService mockEmailService;
+	private NotificationService notificationService;
 
 	@Autowired
 	private com.codetest.bookingsystem.repository.PasswordResetTokenRepository passwordResetTokenRepository;
 
+	@Autowired
+	private TokenVersionService tokenVersionService;
+
 	@Transactional
 	public MessageResponse registerUser(RegistrationRequest registrationRequest) {
 		if (userRepository.existsByUsername(registrationRequest.getUsername())) {
@@ -64,12 +68,9 @@ public class AuthService {
 		user.setRole(Role.USER);
 		user.setEnabled(true); // Temporarily set to true for testing, as email verification is mocked
 		userRepository.save(user);
-		boolean emailSent = mockEmailService.sendVerifyEmail(user.getEmail(), "Please verify your registration",
-				"Verification link: http://yourapi.com/api/auth/verify?token=some_token");
-		if (!emailSent) {
-			throw new BadRequestException(
-					"User registered successfully, but failed to send verification email. Please contact support.");
-		}
+		notificationService.enqueue(user.getEmail(), "Please verify your registration",
+				"Verification link: http://yourapi.com/api/auth/verify?token=some_token",
+				"verify-email:" + user.getUsername());
 		return new MessageResponse("User registered successfully! Please check your email to verify your account.");
 	}
 
@@ -100,6 +101,7 @@ public class AuthService {
 			throw new BadRequestException("Incorrect old password.");
 		}
 		user.setPassword(passwordEncoder.encode(changePasswordRequest.getNewPassword()));
+		tokenVersionService.revokeTokens(user); // Log out every existing session
 		userRepository.save(user);
 		return new MessageResponse("Password changed successfully.");
 	}
@@ -129,13 +131,11 @@ public class AuthService {
 		resetToken.setUser(user);
 		resetToken.setExpiryDate(Instant.now().plusSeconds(3600)); // Token valid for 1 hour
 		passwordResetTokenRepository.save(resetToken);
-		boolean emailSent = mockEmailService.sendVerifyEmail(user.getEmail(), "Password Reset Request",
+		notificationService.enqueue(user.getEmail(), "Password Reset Request",
 				"To reset your password, use the following token: " + token + "\n"
 						+ "Or click the link: http://yourapi.com/api/auth/reset-password?token=" + token + "&email="
-						+ user.getEmail());
-		if (!emailSent) {
-			throw new BadRequestException("Failed to send password reset email. Please try again later.");
-		}
+						+ user.getEmail(),
+				"password-reset:" + resetToken.getId()); // The token itself is a secret, so it must not be the key
 		return new MessageResponse("Password reset link has been sent to your email.");
 	}
 
@@ -148,6 +148,7 @@ public class AuthService {
 		}
 		AppUser user = resetToken.getUser();
 		user.setPassword(passwordEncoder.encode(newPassword));
+		tokenVersionService.revokeTokens(user);
 		userRepository.save(user);
 		passwordResetTokenRepository.delete(resetToken); // Invalidate token after use
 		return new MessageResponse("Password has been reset successfully.");
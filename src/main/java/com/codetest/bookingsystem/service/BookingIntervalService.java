@@ -0,0 +1,311 @@
+package com.codetest.bookingsystem.service;
+
+import com.codetest.bookingsystem.config.SchedulingConfig;
+import com.codetest.bookingsystem.enums.BookingStatus;
+import com.codetest.bookingsystem.model.ClassSchedule;
+import com.codetest.bookingsystem.repository.BookingRepository;
+import com.codetest.bookingsystem.repository.BookingRepository.BookingInterval;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Answers "does this user already have a booking at that time?" from memory.
+ * The BOOKED intervals of recently active users are kept as sorted start and
+ * end arrays, so a check is two binary searches instead of a join over the
+ * user's bookings. While a user is not indexed, checks run the overlap query in
+ * the caller's transaction, and the user's intervals are loaded on the
+ * {@link SchedulingConfig#INTERVAL_INDEX_EXECUTOR} pool once that transaction
+ * completes, so a booking never holds a second connection. From then on they
+ * are kept in step after each booking, cancellation and check-in commits.
+ * Other instances are told over Redis to drop their copy, and every copy is
+ * re-read after {@code app.booking.interval-index.ttl-seconds} at the latest.
+ * Checks for a time before the loaded range go to the database.
+ */
+@Service
+public class BookingIntervalService {
+
+	private static final Logger logger = LoggerFactory.getLogger(BookingIntervalService.class);
+
+	static final String INVALIDATION_CHANNEL = "booking:intervals:invalidate";
+
+	// Separates instance id and user id in an invalidation message
+	private static final String SEPARATOR = "|";
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	@Qualifier(SchedulingConfig.INTERVAL_INDEX_EXECUTOR)
+	private Executor loadExecutor;
+
+	@Autowired(required = false)
+	private StringRedisTemplate redisTemplate;
+
+	@Autowired(required = false)
+	private RedisMessageListenerContainer listenerContainer;
+
+	@Value("${app.booking.interval-index.enabled:true}")
+	private boolean enabled;
+
+	@Value("${app.booking.interval-index.max-users:10000}")
+	private long maxUsers;
+
+	@Value("${app.booking.interval-index.ttl-seconds:300}")
+	private long ttlSeconds;
+
+	private final String instanceId = UUID.randomUUID().toString();
+
+	private Cache<Long, UserIntervals> intervals;
+
+	// Users with a load queued or running, so a burst of cold checks queues one load each
+	private final Set<Long> loading = ConcurrentHashMap.newKeySet();
+
+	@PostConstruct
+	void init() {
+		long ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+		// Updates keep the expiry of the load, so a busy user's intervals are still re-read every ttl
+		intervals = Caffeine.newBuilder().maximumSize(maxUsers).expireAfter(new Expiry<Long, UserIntervals>() {
+			@Override
+			public long expireAfterCreate(Long userId, UserIntervals value, long currentTime) {
+				return ttlNanos;
+			}
+
+			@Override
+			public long expireAfterUpdate(Long userId, UserIntervals value, long currentTime, long currentDuration) {
+				return currentDuration;
+			}
+
+			@Override
+			public long expireAfterRead(Long userId, UserIntervals value, long currentTime, long currentDuration) {
+				return currentDuration;
+			}
+		}).build();
+		if (enabled && listenerContainer != null) {
+			listenerContainer.addMessageListener(
+					(message, pattern) -> handleInvalidation(new String(message.getBody())),
+					new ChannelTopic(INVALIDATION_CHANNEL));
+		}
+	}
+
+	/**
+	 * Whether the user has a BOOKED class that overlaps the given time, with the
+	 * same semantics as {@link BookingRepository#findOverlappingBookings}.
+	 */
+	public boolean hasOverlappingBooking(Long userId, LocalDateTime startTime, LocalDateTime endTime) {
+		if (!enabled) {
+			return !bookingRepository.findOverlappingBookings(userId, startTime, endTime).isEmpty();
+		}
+		UserIntervals userIntervals = intervals.getIfPresent(userId);
+		if (userIntervals == null) {
+			loadAfterCompletion(userId);
+			return !bookingRepository.findOverlappingBookings(userId, startTime, endTime).isEmpty();
+		}
+		long start = toKey(startTime);
+		if (start < userIntervals.loadedFrom) {
+			// Bookings that ended before the load are not indexed
+			return !bookingRepository.findOverlappingBookings(userId, startTime, endTime).isEmpty();
+		}
+		return userIntervals.overlaps(start, toKey(endTime));
+	}
+
+	/**
+	 * Adds a booking to its user's intervals once the surrounding transaction
+	 * commits.
+	 */
+	public void recordBooked(Long userId, Long bookingId, ClassSchedule classSchedule) {
+		long start = toKey(classSchedule.getStartTime());
+		long end = toKey(classSchedule.getEndTime());
+		afterCommit(userId, () -> intervals.asMap().computeIfPresent(userId,
+				(id, current) -> current.with(bookingId, start, end)));
+	}
+
+	/**
+	 * Removes a booking that left the BOOKED status once the surrounding
+	 * transaction commits.
+	 */
+	public void release(Long userId, Long bookingId) {
+		afterCommit(userId,
+				() -> intervals.asMap().computeIfPresent(userId, (id, current) -> current.without(bookingId)));
+	}
+
+	void handleInvalidation(String message) {
+		String[] parts = message.split("\\|", 2);
+		if (parts.length == 2 && !instanceId.equals(parts[0])) {
+			intervals.invalidate(Long.valueOf(parts[1]));
+		}
+	}
+
+	private void loadAfterCompletion(Long userId) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					submitLoad(userId);
+				}
+			});
+		} else {
+			submitLoad(userId);
+		}
+	}
+
+	private void submitLoad(Long userId) {
+		if (!loading.add(userId)) {
+			return;
+		}
+		try {
+			loadExecutor.execute(() -> {
+				try {
+					// An update of the same user waits for the load and is applied on top of it
+					intervals.get(userId, this::load);
+				} catch (RuntimeException e) {
+					logger.warn("Loading the booking intervals of user {} failed: {}", userId, e.getMessage());
+				} finally {
+					loading.remove(userId);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			loading.remove(userId);
+		}
+	}
+
+	private UserIntervals load(Long userId) {
+		LocalDateTime from = LocalDateTime.now();
+		// Runs on a loader thread, outside any booking transaction
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(true);
+		List<BookingInterval> rows = transactionTemplate
+				.execute(status -> bookingRepository.findIntervalsByUserId(userId, BookingStatus.BOOKED, from));
+		Map<Long, long[]> byBooking = new HashMap<>();
+		rows.forEach(row -> byBooking.put(row.getBookingId(),
+				new long[] { toKey(row.getStartTime()), toKey(row.getEndTime()) }));
+		return new UserIntervals(toKey(from), byBooking);
+	}
+
+	private void afterCommit(Long userId, Runnable update) {
+		if (!enabled) {
+			return;
+		}
+		Runnable action = () -> {
+			update.run();
+			publishInvalidation(userId);
+		};
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
+
+	private void publishInvalidation(Long userId) {
+		if (redisTemplate == null) {
+			return;
+		}
+		try {
+			redisTemplate.convertAndSend(INVALIDATION_CHANNEL, instanceId + SEPARATOR + userId);
+		} catch (RuntimeException e) {
+			logger.warn("Failed to broadcast booking interval invalidation for user {}: {}", userId, e.getMessage());
+		}
+	}
+
+	// Order-preserving and exact down to the nanosecond
+	private static long toKey(LocalDateTime time) {
+		return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+	}
+
+	/**
+	 * Immutable snapshot of one user's BOOKED intervals; updates return a copy so
+	 * readers never see a half-applied change. Every booking of a class ending
+	 * after {@code loadedFrom} is held.
+	 */
+	static final class UserIntervals {
+
+		private final long loadedFrom;
+		private final Map<Long, long[]> byBooking;
+		private final long[] starts;
+		private final long[] ends;
+
+		UserIntervals(long loadedFrom, Map<Long, long[]> byBooking) {
+			this.loadedFrom = loadedFrom;
+			this.byBooking = byBooking;
+			this.starts = byBooking.values().stream().mapToLong(interval -> interval[0]).sorted().toArray();
+			this.ends = byBooking.values().stream().mapToLong(interval -> interval[1]).sorted().toArray();
+		}
+
+		/**
+		 * Every interval that ends at or before {@code start} also starts before
+		 * {@code end}, so the difference of the two counts is the number of
+		 * intervals overlapping [start, end).
+		 */
+		boolean overlaps(long start, long end) {
+			return countBelow(starts, end) > countBelow(ends, start + 1);
+		}
+
+		UserIntervals with(Long bookingId, long start, long end) {
+			if (byBooking.containsKey(bookingId)) {
+				return this;
+			}
+			Map<Long, long[]> copy = new HashMap<>(byBooking);
+			copy.put(bookingId, new long[] { start, end });
+			return new UserIntervals(loadedFrom, copy);
+		}
+
+		UserIntervals without(Long bookingId) {
+			if (!byBooking.containsKey(bookingId)) {
+				return this;
+			}
+			Map<Long, long[]> copy = new HashMap<>(byBooking);
+			copy.remove(bookingId);
+			return new UserIntervals(loadedFrom, copy);
+		}
+
+		// Number of values strictly below the bound
+		private static int countBelow(long[] sorted, long bound) {
+			int low = 0;
+			int high = sorted.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (sorted[mid] < bound) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.codetest.bookingsystem.service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+/**
+ * Meters for the booking hot paths. Whole operations are recorded as
+ * observations, so they show up as {@code booking.*} timers tagged with an
+ * {@code outcome} and as spans once a tracing bridge is on the classpath.
+ * Lock timings are plain timers because they are recorded on every booking
+ * attempt. Percentile histograms are switched on through
+ * {@code management.metrics.distribution.*}.
+ */
+@Component
+public class BookingMetrics {
+
+	public static final String BOOK = "booking.book";
+	public static final String BULK_BOOK = "booking.book.bulk";
+	public static final String CANCEL = "booking.cancel";
+	public static final String WAITLIST_PROMOTION = "booking.waitlist.promotion";
+	public static final String SCHEDULER_BATCH = "booking.scheduler.batch";
+	public static final String LOCK_WAIT = "booking.lock.wait";
+	public static final String LOCK_HOLD = "booking.lock.hold";
+	public static final String WAITLIST_WAIT = "booking.waitlist.wait";
+	public static final String SCHEDULER_ITEMS = "booking.scheduler.items";
+
+	public static final String OUTCOME_SUCCESS = "success";
+	public static final String OUTCOME_FULL = "full";
+	public static final String OUTCOME_LOCK_CONTENDED = "lock_contended";
+	public static final String OUTCOME_NO_PACKAGE = "no_package";
+	public static final String OUTCOME_REJECTED = "rejected";
+	public static final String OUTCOME_ERROR = "error";
+	public static final String OUTCOME_REFUNDED = "refunded";
+	public static final String OUTCOME_LATE = "late";
+	public static final String OUTCOME_PROMOTED = "promoted";
+	public static final String OUTCOME_EMPTY = "empty";
+	public static final String OUTCOME_PARTIAL = "partial";
+
+	private final MeterRegistry meterRegistry;
+	private final ObservationRegistry observationRegistry;
+
+	public BookingMetrics(MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+		this.meterRegistry = meterRegistry;
+		this.observationRegistry = observationRegistry;
+	}
+
+	public Observation start(String name) {
+		return Observation.start(name, observationRegistry);
+	}
+
+	/**
+	 * Stops an observation started with {@link #start(String)}, tagging it with the
+	 * outcome of the operation.
+	 */
+	public void stop(Observation observation, String outcome) {
+		observation.lowCardinalityKeyValue("outcome", outcome);
+		observation.stop();
+	}
+
+	public void recordLockWait(String strategy, boolean acquired, long nanos) {
+		Timer.builder(LOCK_WAIT).tag("strategy", strategy)
+				.tag("outcome", acquired ? OUTCOME_SUCCESS : OUTCOME_LOCK_CONTENDED).register(meterRegistry)
+				.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	public void recordLockHold(String strategy, long nanos) {
+		Timer.builder(LOCK_HOLD).tag("strategy", strategy).register(meterRegistry).record(nanos,
+				TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Time a promoted user spent on the waitlist before getting a seat.
+	 */
+	public void recordWaitlistWait(Duration waited) {
+		Timer.builder(WAITLIST_WAIT).register(meterRegistry).record(waited);
+	}
+
+	public void countSchedulerItems(String job, int items) {
+		Counter.builder(SCHEDULER_ITEMS).tag("job", job).register(meterRegistry).increment(items);
+	}
+}
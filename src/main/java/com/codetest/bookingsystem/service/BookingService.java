@@ -1,28 +1,61 @@
 package com.codetest.bookingsystem.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.codetest.bookingsystem.dto.request.BookingRequest;
+import com.codetest.bookingsystem.dto.request.BulkBookingRequest;
 import com.codetest.bookingsystem.dto.request.WaitlistRequest;
 import com.codetest.bookingsystem.dto.response.BookingResponse;
+import com.codetest.bookingsystem.dto.response.BulkBookingItemResponse;
+import com.codetest.bookingsystem.dto.response.BulkBookingResponse;
 import com.codetest.bookingsystem.dto.response.ClassScheduleResponse;
 import com.codetest.bookingsystem.dto.response.CreditPackageResponse;
+import com.codetest.bookingsystem.dto.response.CursorPage;
 import com.codetest.bookingsystem.dto.response.MessageResponse;
 import com.codetest.bookingsystem.dto.response.UserPackageResponse;
 import com.codetest.bookingsystem.dto.response.UserResponse;
 import com.codetest.bookingsystem.dto.response.WaitlistResponse;
 import com.codetest.bookingsystem.enums.BookingStatus;
+import com.codetest.bookingsystem.enums.BulkBookingMode;
 import com.codetest.bookingsystem.enums.Country;
+import com.codetest.bookingsystem.enums.DomainEventType;
 import com.codetest.bookingsystem.enums.WaitlistStatus;
 import com.codetest.bookingsystem.exception.BadRequestException;
 import com.codetest.bookingsystem.exception.ResourceNotFoundException;
@@ -38,6 +71,14 @@ import com.codetest.bookingsystem.repository.ClassScheduleRepository;
 import com.codetest.bookingsystem.repository.UserPackageRepository;
 import com.codetest.bookingsystem.repository.WaitlistRepository;
 import com.codetest.bookingsystem.security.UserDetailsImpl;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.micrometer.observation.Observation;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 @Service
 public class BookingService {
@@ -51,13 +92,98 @@ public class BookingService {
 	@Autowired
 	private WaitlistRepository waitlistRepository;
 	@Autowired
+	private WaitlistQueueService waitlistQueueService;
+	@Autowired
+	private WaitlistPromotionService waitlistPromotionService;
+	@Autowired
 	private AppUserRepository appUserRepository;
 	@Autowired
 	private DistributedLockService distributedLockService;
+	@Autowired
+	private SeatInventoryService seatInventoryService;
+	@Autowired
+	private BookingIntervalService bookingIntervalService;
+	@Autowired
+	private NotificationService notificationService;
+	@Autowired
+	private DomainEventService domainEventService;
+	@Autowired
+	private CreditLedgerService creditLedgerService;
+	@Autowired
+	private ScheduleCatalogueService scheduleCatalogueService;
+	@Autowired
+	private BookingMetrics bookingMetrics;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	public static final String ENGINE_LOCK = "lock";
+	public static final String ENGINE_CONDITIONAL_UPDATE = "conditional-update";
+
+	// "lock" serialises bookings per class on the distributed lock; "conditional-update" takes the
+	// seat with one atomic UPDATE on class_schedule.booked_count and needs no lock
+	@Value("${app.booking.engine:lock}")
+	private String bookingEngine;
+
+	@Value("${app.booking.bulk.max-classes:20}")
+	private int maxBulkBookings;
+
+	@Value("${app.pagination.max-page-size:200}")
+	private int maxPageSize;
+
+	// Rows written (and detached) per batch when streaming schedules
+	private static final int STREAM_CHUNK_SIZE = 500;
+
+	public CursorPage<ClassScheduleResponse> getAvailableSchedules(Country country, String cursor, int size) {
+		validatePageSize(size);
+		CursorPage<ClassScheduleResponse> page = scheduleCatalogueService.getUpcomingPage(country, cursor, size);
+		// A cached page may still list classes that have started since it was built
+		LocalDateTime now = LocalDateTime.now();
+		List<ClassScheduleResponse> upcoming = page.getItems().stream()
+				.filter(schedule -> schedule.getStartTime().isAfter(now)).toList();
+		Map<Long, Integer> bookedCounts = seatInventoryService
+				.getBookedCounts(upcoming.stream().map(ClassScheduleResponse::getId).toList());
+		return new CursorPage<>(upcoming.stream()
+				.map(schedule -> withBookedCount(schedule, bookedCounts.getOrDefault(schedule.getId(), 0)))
+				.collect(Collectors.toList()), page.getNextCursor());
+	}
 
-	public List<ClassScheduleResponse> getAvailableSchedules(Country country) {
-		return classScheduleRepository.findByCountryAndStartTimeAfter(country, LocalDateTime.now()).stream()
-				.map(this::convertToClassScheduleResponse).collect(Collectors.toList());
+	/**
+	 * Writes every upcoming class for a country as a JSON array, reading rows off
+	 * a database cursor in chunks so memory stays flat regardless of catalogue
+	 * size. Runs in its own read-only transaction because it is called from the
+	 * async response thread.
+	 */
+	public void streamAvailableSchedules(Country country, OutputStream outputStream) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(true);
+		ObjectWriter writer = objectMapper.writerFor(ClassScheduleResponse.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		transactionTemplate.executeWithoutResult(status -> {
+			try (Stream<ClassSchedule> rows = classScheduleRepository.streamUpcoming(country, LocalDateTime.now());
+					JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+				generator.writeStartArray();
+				List<ClassSchedule> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+				Iterator<ClassSchedule> iterator = rows.iterator();
+				while (iterator.hasNext()) {
+					chunk.add(iterator.next());
+					if (chunk.size() == STREAM_CHUNK_SIZE || !iterator.hasNext()) {
+						for (ClassScheduleResponse response : convertToClassScheduleResponses(chunk)) {
+							writer.writeValue(generator, response);
+						}
+						generator.flush();
+						chunk.clear();
+						entityManager.clear();
+					}
+				}
+				generator.writeEndArray();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
 	}
 
 	@Transactional
@@ -65,9 +191,14 @@ public class BookingService {
 		UserDetailsImpl userDetails = getCurrentUserDetails();
 		Long userId = userDetails.getId();
 		Long classScheduleId = request.getClassScheduleId();
-
-		// Acquire lock to prevent race conditions on booking
-		if (!distributedLockService.acquireLock(classScheduleId)) {
+		Observation observation = bookingMetrics.start(BookingMetrics.BOOK);
+		// Validation failures that are not tagged more specifically below count as rejected
+		String outcome = BookingMetrics.OUTCOME_REJECTED;
+		boolean lockFree = ENGINE_CONDITIONAL_UPDATE.equals(bookingEngine);
+
+		// Acquire lock to prevent race conditions on booking; the conditional update engine takes the seat atomically instead
+		if (!lockFree && !distributedLockService.acquireLock(classScheduleId)) {
+			bookingMetrics.stop(observation, BookingMetrics.OUTCOME_LOCK_CONTENDED);
 			throw new BadRequestException(
 					"The class is currently being booked by another user. Please try again shortly.");
 		}
@@ -80,65 +211,200 @@ public class BookingService {
 			validateUserNotAlreadyBookedOrWaitlisted(userId, classScheduleId);
 			validateNoOverlappingBookings(userId, classSchedule.getStartTime(), classSchedule.getEndTime());
 
-			int currentBookings = bookingRepository.countByClassScheduleIdAndStatus(classScheduleId,
-					BookingStatus.BOOKED);
-			if (currentBookings >= classSchedule.getCapacity()) {
+			// The in-memory count only sees this instance's bookings, so it is a fast reject for full classes and
+			// reserveSeat below is authoritative in both engines. A seat taken here is handed back on rollback
+			boolean full = lockFree ? seatInventoryService.getBookedCount(classScheduleId) >= classSchedule.getCapacity()
+					: !seatInventoryService.tryReserve(classScheduleId, classSchedule.getCapacity());
+			if (full) {
+				outcome = BookingMetrics.OUTCOME_FULL;
 				throw new BadRequestException("Class is full. You can join the waitlist.");
 			}
 
-			UserPackage packageToUse = findAndValidatePackageForBooking(userId, classSchedule);
+			outcome = BookingMetrics.OUTCOME_NO_PACKAGE;
+			UserPackage packageToUse = deductCreditsForBooking(userId, classSchedule);
+			outcome = BookingMetrics.OUTCOME_ERROR;
 
 			// Perform booking
-			packageToUse.setRemainingCredits(packageToUse.getRemainingCredits() - classSchedule.getRequiredCredits());
-			userPackageRepository.save(packageToUse);
-
 			Booking booking = new Booking();
 			booking.setUser(appUserRepository.getReferenceById(userId));
 			booking.setClassSchedule(classSchedule);
 			booking.setUserPackage(packageToUse);
 			booking.setStatus(BookingStatus.BOOKED);
-			Booking savedBooking = bookingRepository.save(booking);
+			Booking savedBooking;
+			try {
+				savedBooking = bookingRepository.save(booking);
+			} catch (DataIntegrityViolationException e) {
+				// A concurrent request by the same user won the unique (user, class) constraint
+				outcome = BookingMetrics.OUTCOME_REJECTED;
+				throw new BadRequestException("You have already booked this class.");
+			}
+			creditLedgerService.recordBooking(packageToUse.getId(), classSchedule.getRequiredCredits(),
+					savedBooking.getId());
+			domainEventService.record(DomainEventType.BOOKED, classScheduleId, userId, savedBooking.getId(),
+					Map.of("userPackageId", packageToUse.getId(), "credits", classSchedule.getRequiredCredits()));
+			bookingIntervalService.recordBooked(userId, savedBooking.getId(), classSchedule);
+
+			// Taken last, so the class row stays locked only until the commit that follows. Other instances
+			// may have filled the class since this one last reconciled its counter
+			if (classScheduleRepository.reserveSeat(classScheduleId) == 0) {
+				outcome = BookingMetrics.OUTCOME_FULL;
+				throw new BadRequestException("Class is full. You can join the waitlist.");
+			}
+			if (lockFree) {
+				seatInventoryService.recordBooked(classScheduleId);
+			}
 
-			return convertToBookingResponse(savedBooking);
+			BookingResponse response = convertToBookingResponse(savedBooking);
+			outcome = BookingMetrics.OUTCOME_SUCCESS;
+			return response;
 
 		} finally {
 			// Always release the lock
-			distributedLockService.releaseLock(classScheduleId);
+			if (!lockFree) {
+				distributedLockService.releaseLock(classScheduleId);
+			}
+			bookingMetrics.stop(observation, outcome);
 		}
 	}
 
-	@Transactional // Add Transactional to keep session open for lazy loading
-	public MessageResponse cancelBooking(Long bookingId) {
-		UserDetailsImpl userDetails = getCurrentUserDetails();
-		Long userId = userDetails.getId();
-		Booking booking = bookingRepository.findById(bookingId)
-				.orElseThrow(() -> new ResourceNotFoundException("Booking not found."));
-
-		if (!booking.getUser().getId().equals(userId)) {
-			throw new BadRequestException("You are not authorized to cancel this booking.");
+	/**
+	 * Books several classes for the current user in one call. Class locks are
+	 * taken in ascending id order, so two bulk requests cannot deadlock, and are
+	 * held until the bookings have committed. The duplicate and overlap checks run
+	 * once over the whole set and credits are spent in one pass over the user's
+	 * packages. {@link BulkBookingMode#ALL_OR_NOTHING} books every class in one
+	 * transaction and fails the request on the first class that cannot be booked;
+	 * {@link BulkBookingMode#BEST_EFFORT} books each class in its own transaction
+	 * and reports the ones that failed.
+	 */
+	public BulkBookingResponse bookClasses(BulkBookingRequest request) {
+		Long userId = getCurrentUserDetails().getId();
+		BulkBookingMode mode = request.getMode() != null ? request.getMode() : BulkBookingMode.ALL_OR_NOTHING;
+		boolean allOrNothing = mode == BulkBookingMode.ALL_OR_NOTHING;
+		List<Long> classScheduleIds = request.getBookings().stream().map(BookingRequest::getClassScheduleId).toList();
+		if (classScheduleIds.size() > maxBulkBookings) {
+			throw new BadRequestException("A bulk booking can hold at most " + maxBulkBookings + " classes.");
 		}
+		Observation observation = bookingMetrics.start(BookingMetrics.BULK_BOOK);
+		String outcome = BookingMetrics.OUTCOME_REJECTED;
+		boolean lockFree = ENGINE_CONDITIONAL_UPDATE.equals(bookingEngine);
+		Deque<Long> lockedIds = new ArrayDeque<>();
 
-		if (booking.getStatus() != BookingStatus.BOOKED) {
-			throw new BadRequestException("This booking cannot be cancelled.");
-		}
+		try {
+			Set<Long> contendedIds = new HashSet<>();
+			if (!lockFree) {
+				for (Long classScheduleId : new TreeSet<>(classScheduleIds)) {
+					if (distributedLockService.acquireLock(classScheduleId)) {
+						lockedIds.push(classScheduleId);
+					} else if (allOrNothing) {
+						outcome = BookingMetrics.OUTCOME_LOCK_CONTENDED;
+						throw new BadRequestException("Class " + classScheduleId
+								+ " is currently being booked by another user. Please try again shortly.");
+					} else {
+						contendedIds.add(classScheduleId);
+					}
+				}
+			}
 
-		// Refund logic: 4 hours before class start time
-		boolean isRefundable = LocalDateTime.now().isBefore(booking.getClassSchedule().getStartTime().minusHours(4));
-		if (isRefundable) {
-			UserPackage userPackage = booking.getUserPackage();
-			userPackage.setRemainingCredits(
-					userPackage.getRemainingCredits() + booking.getClassSchedule().getRequiredCredits());
-			userPackageRepository.save(userPackage);
+			BulkBookingItemResponse[] results = new BulkBookingItemResponse[classScheduleIds.size()];
+			// Packages read for the first class of a country are spent from by the later ones
+			Map<Country, List<UserPackage>> packagesByCountry = new HashMap<>();
+			Map<Country, Integer> fewestCreditsByCountry = new HashMap<>();
+			TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+			if (allOrNothing) {
+				try {
+					transactionTemplate.executeWithoutResult(status -> {
+						Map<Integer, ClassSchedule> accepted = validateBulkBookings(userId, classScheduleIds,
+								contendedIds, results);
+						throwIfRejected(results);
+						fewestCreditsByCountry.putAll(fewestCreditsByCountry(accepted.values()));
+						accepted.forEach((index, classSchedule) -> {
+							results[index] = bookValidatedClass(userId, classSchedule, lockFree, packagesByCountry,
+									fewestCreditsByCountry, status);
+							throwIfRejected(results);
+						});
+					});
+				} catch (DataIntegrityViolationException e) {
+					throw new BadRequestException("You have already booked one of these classes.");
+				}
+			} else {
+				Map<Integer, ClassSchedule> accepted = validateBulkBookings(userId, classScheduleIds, contendedIds,
+						results);
+				fewestCreditsByCountry.putAll(fewestCreditsByCountry(accepted.values()));
+				accepted.forEach((index, classSchedule) -> {
+					try {
+						results[index] = transactionTemplate.execute(status -> bookValidatedClass(userId,
+								classSchedule, lockFree, packagesByCountry, fewestCreditsByCountry, status));
+					} catch (DataIntegrityViolationException e) {
+						// A concurrent request by the same user won the unique (user, class) constraint
+						results[index] = rejected(classSchedule.getId(), "You have already booked this class.");
+					} catch (TransientDataAccessException e) {
+						results[index] = rejected(classSchedule.getId(),
+								"The class could not be booked right now. Please try again.");
+					}
+				});
+			}
+
+			List<BulkBookingItemResponse> items = List.of(results);
+			int bookedCount = (int) items.stream().filter(BulkBookingItemResponse::isBooked).count();
+			outcome = bookedCount == items.size() ? BookingMetrics.OUTCOME_SUCCESS
+					: bookedCount > 0 ? BookingMetrics.OUTCOME_PARTIAL : BookingMetrics.OUTCOME_REJECTED;
+			return new BulkBookingResponse(mode, bookedCount, items.size() - bookedCount, items);
+
+		} finally {
+			while (!lockedIds.isEmpty()) {
+				distributedLockService.releaseLock(lockedIds.pop());
+			}
+			bookingMetrics.stop(observation, outcome);
 		}
+	}
 
-		booking.setStatus(BookingStatus.CANCELLED);
-		bookingRepository.save(booking);
+	@Transactional // Add Transactional to keep session open for lazy loading
+	public MessageResponse cancelBooking(Long bookingId) {
+		Observation observation = bookingMetrics.start(BookingMetrics.CANCEL);
+		String outcome = BookingMetrics.OUTCOME_REJECTED;
+		try {
+			UserDetailsImpl userDetails = getCurrentUserDetails();
+			Long userId = userDetails.getId();
+			Booking booking = bookingRepository.findById(bookingId)
+					.orElseThrow(() -> new ResourceNotFoundException("Booking not found."));
+
+			if (!booking.getUser().getId().equals(userId)) {
+				throw new BadRequestException("You are not authorized to cancel this booking.");
+			}
 
-		// After cancellation, try to promote someone from the waitlist
-		processWaitlistPromotion(booking.getClassSchedule());
-		String message = "Booking cancelled successfully." + (isRefundable ? " Credits have been refunded."
-				: " No credits were refunded due to late cancellation.");
-		return new MessageResponse(message);
+			if (booking.getStatus() != BookingStatus.BOOKED) {
+				throw new BadRequestException("This booking cannot be cancelled.");
+			}
+			outcome = BookingMetrics.OUTCOME_ERROR;
+
+			// Refund logic: 4 hours before class start time
+			boolean isRefundable = LocalDateTime.now()
+					.isBefore(booking.getClassSchedule().getStartTime().minusHours(4));
+			if (isRefundable) {
+				userPackageRepository.refundCredits(booking.getUserPackage().getId(),
+						booking.getClassSchedule().getRequiredCredits(), Instant.now());
+				creditLedgerService.recordBookingRefund(booking.getUserPackage().getId(),
+						booking.getClassSchedule().getRequiredCredits(), bookingId);
+			}
+
+			booking.setStatus(BookingStatus.CANCELLED);
+			bookingRepository.save(booking);
+			classScheduleRepository.releaseSeat(booking.getClassSchedule().getId());
+			seatInventoryService.release(booking.getClassSchedule().getId());
+			bookingIntervalService.release(userId, bookingId);
+			domainEventService.record(DomainEventType.CANCELLED, booking.getClassSchedule().getId(), userId,
+					bookingId, Map.of("refunded", isRefundable));
+
+			// Someone from the waitlist is promoted into the seat by a worker once this commits
+			waitlistPromotionService.seatFreed(booking.getClassSchedule().getId());
+			String message = "Booking cancelled successfully." + (isRefundable ? " Credits have been refunded."
+					: " No credits were refunded due to late cancellation.");
+			outcome = isRefundable ? BookingMetrics.OUTCOME_REFUNDED : BookingMetrics.OUTCOME_LATE;
+			return new MessageResponse(message);
+		} finally {
+			bookingMetrics.stop(observation, outcome);
+		}
 	}
 
 	@Transactional
@@ -150,31 +416,47 @@ public class BookingService {
 				.orElseThrow(() -> new ResourceNotFoundException("Class schedule not found."));
 
 		// Validations
-		int currentBookings = bookingRepository.countByClassScheduleIdAndStatus(classScheduleId, BookingStatus.BOOKED);
-		if (currentBookings < classSchedule.getCapacity()) {
+		if (seatInventoryService.getBookedCount(classScheduleId) < classSchedule.getCapacity()) {
 			throw new BadRequestException("Class is not full yet. You can book it directly.");
 		}
 		validateUserNotAlreadyBookedOrWaitlisted(userId, classScheduleId);
-		UserPackage packageToUse = findAndValidatePackageForBooking(userId, classSchedule);
 
 		// Deduct credits for waitlist spot
-		packageToUse.setRemainingCredits(packageToUse.getRemainingCredits() - classSchedule.getRequiredCredits());
-		userPackageRepository.save(packageToUse);
+		UserPackage packageToUse = deductCreditsForBooking(userId, classSchedule);
 		Waitlist waitlist = new Waitlist();
 		waitlist.setUser(appUserRepository.getReferenceById(userId));
 		waitlist.setClassSchedule(classSchedule);
 		waitlist.setUserPackage(packageToUse); // Store the package used for credit deduction
 		waitlist.setStatus(WaitlistStatus.WAITING);
 		Waitlist savedWaitlist = waitlistRepository.save(waitlist);
+		creditLedgerService.recordWaitlistJoin(packageToUse.getId(), classSchedule.getRequiredCredits(),
+				savedWaitlist.getId());
+		waitlistQueueService.enqueue(classScheduleId, savedWaitlist.getId());
+		domainEventService.record(DomainEventType.WAITLIST_JOINED, classScheduleId, userId, savedWaitlist.getId(),
+				Map.of("userPackageId", packageToUse.getId(), "credits", classSchedule.getRequiredCredits()));
 		return convertToWaitlistResponse(savedWaitlist);
 	}
 
 	@Transactional(readOnly = true)
-	public List<BookingResponse> getMyBookings() {
+	public CursorPage<BookingResponse> getMyBookings(String cursor, int size) {
+		validatePageSize(size);
 		UserDetailsImpl userDetails = getCurrentUserDetails();
 		Long userId = userDetails.getId();
-		return bookingRepository.findByUserId(userId).stream().map(this::convertToBookingResponse)
-				.collect(Collectors.toList());
+		PageCursor after = PageCursor.decode(cursor);
+		// One fetch-join query for the bookings and one batched lookup for the booked counts
+		List<Booking> bookings = bookingRepository.findPageWithDetailsByUserId(userId,
+				after != null ? after.getStartTime() : null, after != null ? after.getId() : null,
+				Limit.of(size + 1));
+		String nextCursor = null;
+		if (bookings.size() > size) {
+			bookings = bookings.subList(0, size);
+			Booking last = bookings.get(size - 1);
+			nextCursor = new PageCursor(last.getClassSchedule().getStartTime(), last.getId()).encode();
+		}
+		Map<Long, Integer> bookedCounts = seatInventoryService
+				.getBookedCounts(bookings.stream().map(booking -> booking.getClassSchedule().getId()).toList());
+		return new CursorPage<>(bookings.stream().map(booking -> convertToBookingResponse(booking, bookedCounts))
+				.collect(Collectors.toList()), nextCursor);
 	}
 
 	@Transactional
@@ -200,48 +482,185 @@ public class BookingService {
 		}
 		booking.setStatus(BookingStatus.CHECKED_IN);
 		bookingRepository.save(booking);
+		domainEventService.record(DomainEventType.CHECKED_IN, booking.getClassSchedule().getId(), userId, bookingId,
+				null);
+		// Capacity is counted over BOOKED bookings only, so checking in frees the seat counter
+		classScheduleRepository.releaseSeat(booking.getClassSchedule().getId());
+		seatInventoryService.release(booking.getClassSchedule().getId());
+		// Overlaps are checked against BOOKED bookings only, for the same reason
+		bookingIntervalService.release(userId, bookingId);
 		return new MessageResponse("Successfully checked into the class.");
 	}
 
-	private void processWaitlistPromotion(ClassSchedule classSchedule) {
-		waitlistRepository
-				.findFirstByClassScheduleIdAndStatusOrderByCreatedAtAsc(classSchedule.getId(), WaitlistStatus.WAITING)
-				.ifPresent(waitlistEntry -> {
-					// Note: This promotion logic is simplified. In a real-world scenario, you'd want to handle cases
-					// where the promoted user's package might have expired in the meantime.
-					// The userPackageId is now stored in the Waitlist entity, but for promotion,
-					// we still need to find an active package for the user.
-					UserPackage packageToAssociate = userPackageRepository
-							.findActivePackagesForBooking(waitlistEntry.getUser().getId(), classSchedule.getCountry(),
-									0, LocalDate.now())
-							.stream().findFirst().orElse(null);
-
-					if (packageToAssociate != null) {
-						Booking newBooking = new Booking();
-						newBooking.setUser(waitlistEntry.getUser());
-						newBooking.setClassSchedule(classSchedule);
-						newBooking.setUserPackage(packageToAssociate);
-						newBooking.setStatus(BookingStatus.BOOKED);
-						bookingRepository.save(newBooking);
-
-						waitlistEntry.setStatus(WaitlistStatus.PROMOTED_TO_BOOKING);
-						waitlistRepository.save(waitlistEntry);
-
-						// Here you would typically send a notification (e.g., email, push notification) to the promoted user.
-					}
-				});
+	// Validation and Helper Methods 
+	/**
+	 * Checks a bulk booking as a whole: one query each for the classes, the user's
+	 * existing bookings and waitlist entries of them, and the user's bookings over
+	 * the span of the batch. A class that overlaps an earlier class of the same
+	 * request is rejected, so the first one asked for wins. Rejections are written
+	 * to {@code results}; the classes left to book are returned by position.
+	 */
+	private Map<Integer, ClassSchedule> validateBulkBookings(Long userId, List<Long> classScheduleIds,
+			Set<Long> contendedIds, BulkBookingItemResponse[] results) {
+		Map<Long, ClassSchedule> classSchedules = classScheduleRepository.findAllById(new HashSet<>(classScheduleIds))
+				.stream().collect(Collectors.toMap(ClassSchedule::getId, Function.identity()));
+		Map<Integer, ClassSchedule> accepted = new LinkedHashMap<>();
+		if (classSchedules.isEmpty()) {
+			for (int i = 0; i < results.length; i++) {
+				results[i] = rejected(classScheduleIds.get(i), "Class schedule not found.");
+			}
+			return accepted;
+		}
+		Set<Long> bookedIds = new HashSet<>(bookingRepository.findClassIdsBookedByUser(userId, classSchedules.keySet()));
+		Set<Long> waitlistedIds = new HashSet<>(
+				waitlistRepository.findClassIdsWaitlistedByUser(userId, classSchedules.keySet()));
+		LocalDateTime from = classSchedules.values().stream().map(ClassSchedule::getStartTime)
+				.min(Comparator.naturalOrder()).orElseThrow();
+		LocalDateTime to = classSchedules.values().stream().map(ClassSchedule::getEndTime)
+				.max(Comparator.naturalOrder()).orElseThrow();
+		List<ClassSchedule> alreadyBooked = bookingRepository.findBookedClassesOverlapping(userId, from, to);
+
+		Set<Long> seenIds = new HashSet<>();
+		for (int i = 0; i < classScheduleIds.size(); i++) {
+			Long classScheduleId = classScheduleIds.get(i);
+			ClassSchedule classSchedule = classSchedules.get(classScheduleId);
+			String rejection;
+			if (!seenIds.add(classScheduleId)) {
+				rejection = "This class appears more than once in the request.";
+			} else if (contendedIds.contains(classScheduleId)) {
+				rejection = "The class is currently being booked by another user. Please try again shortly.";
+			} else if (classSchedule == null) {
+				rejection = "Class schedule not found.";
+			} else if (bookedIds.contains(classScheduleId)) {
+				rejection = "You have already booked this class.";
+			} else if (waitlistedIds.contains(classScheduleId)) {
+				rejection = "You are already on the waitlist for this class.";
+			} else if (overlapsAny(classSchedule, alreadyBooked)) {
+				rejection = "You have another booking that overlaps with this class time.";
+			} else if (overlapsAny(classSchedule, accepted.values())) {
+				rejection = "This class overlaps with another class in the request.";
+			} else {
+				accepted.put(i, classSchedule);
+				continue;
+			}
+			results[i] = rejected(classScheduleId, rejection);
+		}
+		return accepted;
 	}
 
-	// Validation and Helper Methods 
-	private UserPackage findAndValidatePackageForBooking(Long userId, ClassSchedule classSchedule) {
-		List<UserPackage> activePackages = userPackageRepository.findActivePackagesForBooking(userId,
-				classSchedule.getCountry(), classSchedule.getRequiredCredits(), LocalDate.now());
+	/**
+	 * Books one class that passed {@link #validateBulkBookings} inside the given
+	 * transaction, or returns why it could not be booked.
+	 */
+	private BulkBookingItemResponse bookValidatedClass(Long userId, ClassSchedule classSchedule, boolean lockFree,
+			Map<Country, List<UserPackage>> packagesByCountry, Map<Country, Integer> fewestCreditsByCountry,
+			TransactionStatus status) {
+		Long classScheduleId = classSchedule.getId();
+		boolean full = lockFree ? seatInventoryService.getBookedCount(classScheduleId) >= classSchedule.getCapacity()
+				: !seatInventoryService.tryReserve(classScheduleId, classSchedule.getCapacity());
+		if (full) {
+			return rejected(classScheduleId, "Class is full. You can join the waitlist.");
+		}
+		UserPackage packageToUse;
+		try {
+			packageToUse = deductCreditsForBooking(userId, classSchedule, packagesByCountry,
+					fewestCreditsByCountry.get(classSchedule.getCountry()));
+		} catch (BadRequestException e) {
+			// Rolling back hands the counter seat taken by tryReserve back
+			status.setRollbackOnly();
+			return rejected(classScheduleId, e.getMessage());
+		}
+		if (classScheduleRepository.reserveSeat(classScheduleId) == 0) {
+			// The class filled up after the fast check; rolling back hands the credits and counter seat back
+			status.setRollbackOnly();
+			return rejected(classScheduleId, "Class is full. You can join the waitlist.");
+		}
+
+		Booking booking = new Booking();
+		booking.setUser(appUserRepository.getReferenceById(userId));
+		booking.setClassSchedule(classSchedule);
+		booking.setUserPackage(packageToUse);
+		booking.setStatus(BookingStatus.BOOKED);
+		Booking savedBooking = bookingRepository.save(booking);
+		creditLedgerService.recordBooking(packageToUse.getId(), classSchedule.getRequiredCredits(),
+				savedBooking.getId());
+		domainEventService.record(DomainEventType.BOOKED, classScheduleId, userId, savedBooking.getId(),
+				Map.of("userPackageId", packageToUse.getId(), "credits", classSchedule.getRequiredCredits()));
+		bookingIntervalService.recordBooked(userId, savedBooking.getId(), classSchedule);
+		if (lockFree) {
+			seatInventoryService.recordBooked(classScheduleId);
+		}
+		return new BulkBookingItemResponse(classScheduleId, true, convertToBookingResponse(savedBooking), null);
+	}
+
+	private static void throwIfRejected(BulkBookingItemResponse[] results) {
+		for (BulkBookingItemResponse result : results) {
+			if (result != null && !result.isBooked()) {
+				throw new BadRequestException(
+						"Class " + result.getClassScheduleId() + " cannot be booked: " + result.getMessage());
+			}
+		}
+	}
+
+	// The package list of a country is read once, so it must cover the cheapest class of that country
+	private static Map<Country, Integer> fewestCreditsByCountry(Collection<ClassSchedule> classSchedules) {
+		return classSchedules.stream().collect(
+				Collectors.toMap(ClassSchedule::getCountry, ClassSchedule::getRequiredCredits, Math::min));
+	}
+
+	private static BulkBookingItemResponse rejected(Long classScheduleId, String message) {
+		return new BulkBookingItemResponse(classScheduleId, false, null, message);
+	}
+
+	private static boolean overlapsAny(ClassSchedule classSchedule, Collection<ClassSchedule> others) {
+		return others.stream().anyMatch(other -> other.getStartTime().isBefore(classSchedule.getEndTime())
+				&& other.getEndTime().isAfter(classSchedule.getStartTime()));
+	}
+
+	private UserPackage deductCreditsForBooking(Long userId, ClassSchedule classSchedule) {
+		return deductCreditsForBooking(userId, classSchedule, new HashMap<>(), classSchedule.getRequiredCredits());
+	}
+
+	/**
+	 * Spends the class's credits from the soonest-expiring package that still has
+	 * enough. The class lock does not cover a user booking two classes at once, so
+	 * the loaded balances may be stale and the conditional UPDATE is the only
+	 * check; a package drained in the meantime is skipped. {@code packagesByCountry}
+	 * keeps the packages read for earlier classes of a bulk booking, loaded with
+	 * {@code loadCredits}, the fewest credits any class of that country needs.
+	 */
+	private UserPackage deductCreditsForBooking(Long userId, ClassSchedule classSchedule,
+			Map<Country, List<UserPackage>> packagesByCountry, int loadCredits) {
+		int requiredCredits = classSchedule.getRequiredCredits();
+		List<UserPackage> candidates = packagesByCountry.get(classSchedule.getCountry());
+		if (candidates == null) {
+			candidates = findActivePackagesForBooking(userId, classSchedule.getCountry(), loadCredits);
+			packagesByCountry.put(classSchedule.getCountry(), candidates);
+		}
+		// The query already sorts by expiry date, so the first one is the one that expires soonest.
+		boolean anyCovered = false;
+		for (UserPackage candidate : candidates) {
+			anyCovered |= candidate.getRemainingCredits() >= requiredCredits;
+			if (userPackageRepository.deductCredits(candidate.getId(), requiredCredits, Instant.now()) == 1) {
+				// The column is not updatable through the entity, so the response reads the balance back
+				candidate.setRemainingCredits(userPackageRepository.findRemainingCreditsById(candidate.getId()));
+				return candidate;
+			}
+		}
+		if (!anyCovered) {
+			throw new BadRequestException("No active package with sufficient credits found for this country.");
+		}
+		throw new BadRequestException("Your credits changed while booking. Please try again.");
+	}
+
+	private List<UserPackage> findActivePackagesForBooking(Long userId, Country country, int requiredCredits) {
+		List<UserPackage> activePackages = userPackageRepository.findActivePackagesForBooking(userId, country,
+				requiredCredits, LocalDate.now());
 
 		if (activePackages.isEmpty()) {
 			throw new BadRequestException("No active package with sufficient credits found for this country.");
 		}
-		// The query already sorts by expiry date, so the first one is the one that expires soonest.
-		return activePackages.get(0);
+		return activePackages;
 	}
 
 	private void validateUserNotAlreadyBookedOrWaitlisted(Long userId, Long classScheduleId) {
@@ -254,11 +673,17 @@ public class BookingService {
 	}
 
 	private void validateNoOverlappingBookings(Long userId, LocalDateTime newStartTime, LocalDateTime newEndTime) {
-		if (!bookingRepository.findOverlappingBookings(userId, newStartTime, newEndTime).isEmpty()) {
+		if (bookingIntervalService.hasOverlappingBooking(userId, newStartTime, newEndTime)) {
 			throw new BadRequestException("You have another booking that overlaps with this class time.");
 		}
 	}
 
+	private void validatePageSize(int size) {
+		if (size < 1 || size > maxPageSize) {
+			throw new BadRequestException("Page size must be between 1 and " + maxPageSize + ".");
+		}
+	}
+
 	private UserDetailsImpl getCurrentUserDetails() {
 		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 		if (authentication == null || !authentication.isAuthenticated()
@@ -278,8 +703,29 @@ public class BookingService {
 	}
 
 	private ClassScheduleResponse convertToClassScheduleResponse(ClassSchedule schedule) {
-		int currentBookedCount = bookingRepository.countByClassScheduleIdAndStatus(schedule.getId(),
-				BookingStatus.BOOKED);
+		return convertToClassScheduleResponse(schedule, seatInventoryService.getBookedCount(schedule.getId()));
+	}
+
+	private List<ClassScheduleResponse> convertToClassScheduleResponses(List<ClassSchedule> schedules) {
+		Map<Long, Integer> bookedCounts = seatInventoryService
+				.getBookedCounts(schedules.stream().map(ClassSchedule::getId).toList());
+		return schedules.stream().map(schedule -> convertToClassScheduleResponse(schedule, bookedCounts))
+				.collect(Collectors.toList());
+	}
+
+	private ClassScheduleResponse convertToClassScheduleResponse(ClassSchedule schedule,
+			Map<Long, Integer> bookedCounts) {
+		return convertToClassScheduleResponse(schedule, bookedCounts.getOrDefault(schedule.getId(), 0));
+	}
+
+	private ClassScheduleResponse convertToClassScheduleResponse(ClassSchedule schedule, int currentBookedCount) {
+		return new ClassScheduleResponse(schedule.getId(), schedule.getClassName(), schedule.getStartTime(),
+				schedule.getEndTime(), schedule.getCapacity(), schedule.getCountry(), schedule.getRequiredCredits(),
+				currentBookedCount);
+	}
+
+	// Copies a cached response so the shared cache entry is never mutated
+	private ClassScheduleResponse withBookedCount(ClassScheduleResponse schedule, int currentBookedCount) {
 		return new ClassScheduleResponse(schedule.getId(), schedule.getClassName(), schedule.getStartTime(),
 				schedule.getEndTime(), schedule.getCapacity(), schedule.getCountry(), schedule.getRequiredCredits(),
 				currentBookedCount);
@@ -304,8 +750,16 @@ public class BookingService {
 	}
 
 	private BookingResponse convertToBookingResponse(Booking booking) {
-		return new BookingResponse(booking.getId(), convertToUserResponse(booking.getUser()),
-				convertToClassScheduleResponse(booking.getClassSchedule()),
+		return convertToBookingResponse(booking, convertToClassScheduleResponse(booking.getClassSchedule()));
+	}
+
+	private BookingResponse convertToBookingResponse(Booking booking, Map<Long, Integer> bookedCounts) {
+		return convertToBookingResponse(booking,
+				convertToClassScheduleResponse(booking.getClassSchedule(), bookedCounts));
+	}
+
+	private BookingResponse convertToBookingResponse(Booking booking, ClassScheduleResponse classSchedule) {
+		return new BookingResponse(booking.getId(), convertToUserResponse(booking.getUser()), classSchedule,
 				convertToUserPackageResponse(booking.getUserPackage()), booking.getStatus(), booking.getCreatedAt(),
 				booking.getUpdatedAt());
 	}
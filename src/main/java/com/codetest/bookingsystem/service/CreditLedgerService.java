@@ -0,0 +1,159 @@
+package com.codetest.bookingsystem.service;
+
+import com.codetest.bookingsystem.enums.CreditEntryType;
+import com.codetest.bookingsystem.model.CreditLedgerEntry;
+import com.codetest.bookingsystem.repository.CreditLedgerRepository;
+import com.codetest.bookingsystem.repository.CreditLedgerRepository.PackageBalance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Append-only ledger of the credits moving in and out of user packages. Every
+ * change to a package's {@code remainingCredits} also inserts an entry in the
+ * same transaction, linked to the booking or waitlist entry that caused it, so
+ * the stored balance is a materialized sum of the ledger. The stored balance
+ * stays the guard against overspending; the ledger is what audits read and what
+ * a balance is rebuilt from. {@link #reconcile()}, run by a Quartz job, scans
+ * every package for a balance that disagrees with its ledger.
+ */
+@Service
+public class CreditLedgerService {
+
+	private static final Logger logger = LoggerFactory.getLogger(CreditLedgerService.class);
+
+	public static final String RECONCILE_JOB_NAME = "credit-ledger-reconcile";
+
+	private static final String INSERT_SQL = "INSERT INTO credit_ledger_entry "
+			+ "(user_package_id, entry_type, credits, booking_id, waitlist_id, occurred_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+	// Packages from before the ledger get one entry making up the difference between their balance and their entries
+	private static final String OPENING_BALANCE_SQL = "INSERT INTO credit_ledger_entry "
+			+ "(user_package_id, entry_type, credits, occurred_at) "
+			+ "SELECT up.id, ?, up.remaining_credits - COALESCE((SELECT SUM(e.credits) FROM credit_ledger_entry e "
+			+ "WHERE e.user_package_id = up.id), 0), ? FROM user_package up WHERE NOT EXISTS (SELECT 1 "
+			+ "FROM credit_ledger_entry e WHERE e.user_package_id = up.id AND e.entry_type IN (?, ?))";
+
+	@Autowired
+	private CreditLedgerRepository creditLedgerRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Value("${app.credits.ledger.reconcile.batch-size:1000}")
+	private int batchSize;
+
+	// Off by default: a mismatch is reported, and only rewritten from the ledger when asked to
+	@Value("${app.credits.ledger.reconcile.rebuild-balances:false}")
+	private boolean rebuildBalances;
+
+	public CreditLedgerEntry entry(CreditEntryType type, Long userPackageId, int credits, Long bookingId,
+			Long waitlistId) {
+		return new CreditLedgerEntry(null, userPackageId, type, credits, bookingId, waitlistId, Instant.now());
+	}
+
+	@Transactional
+	public void recordPurchase(Long userPackageId, int credits) {
+		creditLedgerRepository.save(entry(CreditEntryType.PURCHASE, userPackageId, credits, null, null));
+	}
+
+	@Transactional
+	public void recordBooking(Long userPackageId, int credits, Long bookingId) {
+		creditLedgerRepository.save(entry(CreditEntryType.BOOKING, userPackageId, -credits, bookingId, null));
+	}
+
+	@Transactional
+	public void recordBookingRefund(Long userPackageId, int credits, Long bookingId) {
+		creditLedgerRepository.save(entry(CreditEntryType.BOOKING_REFUND, userPackageId, credits, bookingId, null));
+	}
+
+	@Transactional
+	public void recordWaitlistJoin(Long userPackageId, int credits, Long waitlistId) {
+		creditLedgerRepository.save(entry(CreditEntryType.WAITLIST_JOIN, userPackageId, -credits, null, waitlistId));
+	}
+
+	/**
+	 * Records many entries with one JDBC batch, for callers that already work in
+	 * batches such as the waitlist refund job.
+	 */
+	@Transactional
+	public void recordAll(List<CreditLedgerEntry> entries) {
+		if (entries.isEmpty()) {
+			return;
+		}
+		jdbcTemplate.batchUpdate(INSERT_SQL, entries, entries.size(), (ps, entry) -> {
+			ps.setLong(1, entry.getUserPackageId());
+			ps.setString(2, entry.getEntryType().name());
+			ps.setInt(3, entry.getCredits());
+			ps.setObject(4, entry.getBookingId(), Types.BIGINT);
+			ps.setObject(5, entry.getWaitlistId(), Types.BIGINT);
+			ps.setTimestamp(6, Timestamp.from(entry.getOccurredAt()));
+		});
+	}
+
+	/**
+	 * Gives packages that have no purchase or opening entry yet an opening entry,
+	 * so their ledger adds up to their current balance.
+	 *
+	 * @return the number of packages opened
+	 */
+	@Transactional
+	public int openBalances() {
+		return jdbcTemplate.update(OPENING_BALANCE_SQL, CreditEntryType.OPENING_BALANCE.name(),
+				Timestamp.from(Instant.now()), CreditEntryType.OPENING_BALANCE.name(),
+				CreditEntryType.PURCHASE.name());
+	}
+
+	/**
+	 * Opens packages from before the ledger, then compares every package's stored
+	 * balance with the sum of its ledger entries, one keyset page at a time.
+	 * Mismatches are logged and, with
+	 * {@code app.credits.ledger.reconcile.rebuild-balances}, rebuilt from the
+	 * ledger.
+	 *
+	 * @return the number of packages whose balance disagreed with the ledger
+	 */
+	public int reconcile() {
+		int opened = openBalances();
+		if (opened > 0) {
+			logger.info("Opened the credit ledger of {} packages.", opened);
+		}
+		int mismatched = 0;
+		Long afterId = 0L;
+		List<PackageBalance> page;
+		do {
+			page = creditLedgerRepository.findBalancesAfter(afterId, Limit.of(batchSize));
+			for (PackageBalance balance : page) {
+				if (balance.getBalance().longValue() != balance.getLedgerBalance()) {
+					mismatched++;
+					repair(balance);
+				}
+			}
+			if (!page.isEmpty()) {
+				afterId = page.get(page.size() - 1).getUserPackageId();
+			}
+		} while (page.size() == batchSize);
+		return mismatched;
+	}
+
+	private void repair(PackageBalance balance) {
+		if (!rebuildBalances) {
+			logger.warn("Package {} holds {} credits but its ledger adds up to {}.", balance.getUserPackageId(),
+					balance.getBalance(), balance.getLedgerBalance());
+			return;
+		}
+		creditLedgerRepository.rebuildBalance(balance.getUserPackageId(), Instant.now());
+		logger.warn("Rebuilt the balance of package {} from {} to {} credits from its ledger.",
+				balance.getUserPackageId(), balance.getBalance(), balance.getLedgerBalance());
+	}
+}
@@ -1,28 +1,69 @@
 package com.codetest.bookingsystem.service;
 
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Per-class lock used to serialise bookings. The locking behaviour is chosen
+ * with {@code app.lock.mode}; the handle of each acquisition is remembered for
+ * the calling thread so {@link #releaseLock(Long)} only ever releases a lock
+ * this thread still owns. Wait and hold times are recorded per strategy.
+ */
 @Service
 public class DistributedLockService {
 
-	private static final String LOCK_PREFIX = "lock:class:";
-	private static final long LOCK_TIMEOUT_SECONDS = 10; // Lock timeout to prevent deadlocks
+	@Autowired
+	private List<LockStrategy> lockStrategies;
 
 	@Autowired
-	private StringRedisTemplate redisTemplate;
+	private BookingMetrics bookingMetrics;
+
+	@Value("${app.lock.mode:fair}")
+	private String lockMode;
+
+	private LockStrategy lockStrategy;
+
+	private final ThreadLocal<Map<Long, HeldLock>> heldLocks = ThreadLocal.withInitial(HashMap::new);
+
+	@PostConstruct
+	void selectStrategy() {
+		lockStrategy = lockStrategies.stream().filter(strategy -> strategy.name().equals(lockMode)).findFirst()
+				.orElseThrow(() -> new IllegalStateException("Unknown lock mode: " + lockMode));
+	}
 
 	public boolean acquireLock(Long classScheduleId) {
-		String lockKey = LOCK_PREFIX + classScheduleId;
-		return Boolean.TRUE.equals(
-				redisTemplate.opsForValue().setIfAbsent(lockKey, "locked", Duration.ofSeconds(LOCK_TIMEOUT_SECONDS)));
+		long startNanos = System.nanoTime();
+		LockHandle handle = lockStrategy.tryAcquire(classScheduleId);
+		long acquiredNanos = System.nanoTime();
+		bookingMetrics.recordLockWait(lockStrategy.name(), handle != null, acquiredNanos - startNanos);
+		if (handle == null) {
+			return false;
+		}
+		heldLocks.get().put(classScheduleId, new HeldLock(handle, acquiredNanos));
+		return true;
 	}
 
 	public void releaseLock(Long classScheduleId) {
-		String lockKey = LOCK_PREFIX + classScheduleId;
-		redisTemplate.delete(lockKey);
+		HeldLock held = heldLocks.get().remove(classScheduleId);
+		if (held != null) {
+			lockStrategy.release(held.handle);
+			bookingMetrics.recordLockHold(lockStrategy.name(), System.nanoTime() - held.acquiredNanos);
+		}
+	}
+
+	private static final class HeldLock {
+		private final LockHandle handle;
+		private final long acquiredNanos;
+
+		private HeldLock(LockHandle handle, long acquiredNanos) {
+			this.handle = handle;
+			this.acquiredNanos = acquiredNanos;
+		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,229 @@
+package com.codetest.bookingsystem.service;
+
+import com.codetest.bookingsystem.enums.DomainEventType;
+import com.codetest.bookingsystem.model.DomainEvent;
+import com.codetest.bookingsystem.repository.DomainEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Domain event outbox for booking state changes. Events are recorded in the
+ * transaction that makes the change, numbered per class by
+ * {@link DomainEvent#getSequenceNumber()}, and {@link #relayPending()} later
+ * publishes them to the in-process event bus (as {@link DomainEvent}
+ * application events) and, when enabled, to a Redis stream. Consumers receive
+ * each event at least once, and each class's events in sequence order; a
+ * redelivered event repeats a sequence number they have already seen.
+ */
+@Service
+public class DomainEventService {
+
+	private static final Logger logger = LoggerFactory.getLogger(DomainEventService.class);
+
+	public static final String RELAY_JOB_NAME = "domain-event-relay";
+
+	private static final String INSERT_SQL = "INSERT INTO domain_event (event_type, class_schedule_id, sequence_number, "
+			+ "user_id, aggregate_id, payload, occurred_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+	private static final String BUMP_SEQUENCE_SQL = "UPDATE domain_event_sequence SET last_sequence = last_sequence + ? "
+			+ "WHERE class_schedule_id = ?";
+
+	private static final String INSERT_SEQUENCE_SQL = "INSERT INTO domain_event_sequence (class_schedule_id, last_sequence) "
+			+ "VALUES (?, ?)";
+
+	private static final String READ_SEQUENCE_SQL = "SELECT last_sequence FROM domain_event_sequence WHERE class_schedule_id = ?";
+
+	@Autowired
+	private DomainEventRepository domainEventRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private JobWatermarkService jobWatermarkService;
+
+	@Autowired
+	private ApplicationEventPublisher applicationEventPublisher;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired(required = false)
+	private StringRedisTemplate redisTemplate;
+
+	@Value("${app.events.relay.batch-size:200}")
+	private int batchSize;
+
+	@Value("${app.events.relay.lease-seconds:10}")
+	private long leaseSeconds;
+
+	@Value("${app.events.redis-stream.enabled:false}")
+	private boolean redisStreamEnabled;
+
+	@Value("${app.events.redis-stream.key:booking-events}")
+	private String redisStreamKey;
+
+	@Value("${app.events.redis-stream.max-length:100000}")
+	private long redisStreamMaxLength;
+
+	public DomainEvent event(DomainEventType type, Long classScheduleId, Long userId, Long aggregateId,
+			Map<String, Object> payload) {
+		DomainEvent event = new DomainEvent();
+		event.setEventType(type);
+		event.setClassScheduleId(classScheduleId);
+		event.setUserId(userId);
+		event.setAggregateId(aggregateId);
+		event.setPayload(toJson(payload));
+		event.setOccurredAt(Instant.now());
+		return event;
+	}
+
+	@Transactional
+	public void record(DomainEventType type, Long classScheduleId, Long userId, Long aggregateId,
+			Map<String, Object> payload) {
+		DomainEvent event = event(type, classScheduleId, userId, aggregateId, payload);
+		event.setSequenceNumber(reserveSequenceNumbers(classScheduleId, 1));
+		domainEventRepository.save(event);
+	}
+
+	/**
+	 * Records many events with one JDBC batch, for callers that already work in
+	 * batches such as the waitlist refund job.
+	 */
+	@Transactional
+	public void recordAll(List<DomainEvent> events) {
+		if (events.isEmpty()) {
+			return;
+		}
+		// Counters are locked in class id order, so two batches cannot deadlock on each other
+		Map<Long, List<DomainEvent>> eventsByClass = events.stream()
+				.collect(Collectors.groupingBy(DomainEvent::getClassScheduleId, TreeMap::new, Collectors.toList()));
+		for (Map.Entry<Long, List<DomainEvent>> entry : eventsByClass.entrySet()) {
+			long sequenceNumber = reserveSequenceNumbers(entry.getKey(), entry.getValue().size());
+			for (DomainEvent event : entry.getValue()) {
+				event.setSequenceNumber(sequenceNumber++);
+			}
+		}
+		jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+			ps.setString(1, event.getEventType().name());
+			ps.setLong(2, event.getClassScheduleId());
+			ps.setLong(3, event.getSequenceNumber());
+			ps.setLong(4, event.getUserId());
+			ps.setLong(5, event.getAggregateId());
+			ps.setString(6, event.getPayload());
+			ps.setTimestamp(7, Timestamp.from(event.getOccurredAt()));
+		});
+	}
+
+	/**
+	 * Takes the next {@code count} sequence numbers of a class and returns the
+	 * first. The counter row stays locked until the caller's transaction ends,
+	 * so the class's next event cannot be inserted before this one commits, and
+	 * a rollback hands the numbers back.
+	 */
+	private long reserveSequenceNumbers(Long classScheduleId, int count) {
+		if (jdbcTemplate.update(BUMP_SEQUENCE_SQL, count, classScheduleId) == 0) {
+			try {
+				jdbcTemplate.update(INSERT_SEQUENCE_SQL, classScheduleId, count);
+				return 1;
+			} catch (DuplicateKeyException e) {
+				// Another transaction created the counter first; this bump waits for it to commit
+				jdbcTemplate.update(BUMP_SEQUENCE_SQL, count, classScheduleId);
+			}
+		}
+		return jdbcTemplate.queryForObject(READ_SEQUENCE_SQL, Long.class, classScheduleId) - count + 1;
+	}
+
+	/**
+	 * Publishes unpublished events in id order, which is sequence order within
+	 * each class. Every node polls, but only the one holding the relay lease
+	 * publishes; it keeps the lease between runs and renews it per batch, so
+	 * the other nodes' polls stop at the lease check. A failed publish stops
+	 * the run at that event so nothing behind it overtakes it.
+	 *
+	 * @return the number of events published
+	 */
+	public int relayPending() {
+		Duration lease = Duration.ofSeconds(leaseSeconds);
+		if (jobWatermarkService.claim(RELAY_JOB_NAME, lease, LocalDateTime.now()) == null) {
+			return 0;
+		}
+		int published = 0;
+		try {
+			List<DomainEvent> batch;
+			do {
+				batch = domainEventRepository.findUnpublished(Limit.of(batchSize));
+				List<Long> done = new ArrayList<>();
+				try {
+					for (DomainEvent event : batch) {
+						publish(event);
+						done.add(event.getId());
+					}
+				} finally {
+					if (!done.isEmpty()) {
+						domainEventRepository.markPublished(done, Instant.now());
+						published += done.size();
+					}
+				}
+				if (!jobWatermarkService.advance(RELAY_JOB_NAME, LocalDateTime.now(), lease)) {
+					logger.warn("Lost the domain event relay lease after {} events; stopping.", published);
+					break;
+				}
+			} while (batch.size() == batchSize);
+		} catch (RuntimeException e) {
+			logger.error("Domain event relay stopped after {} events: {}", published, e.getMessage(), e);
+		}
+		return published;
+	}
+
+	private void publish(DomainEvent event) {
+		applicationEventPublisher.publishEvent(event);
+		if (redisStreamEnabled && redisTemplate != null) {
+			Map<String, String> fields = new LinkedHashMap<>();
+			fields.put("id", String.valueOf(event.getId()));
+			fields.put("type", event.getEventType().name());
+			fields.put("classScheduleId", String.valueOf(event.getClassScheduleId()));
+			fields.put("sequenceNumber", String.valueOf(event.getSequenceNumber()));
+			fields.put("userId", String.valueOf(event.getUserId()));
+			fields.put("aggregateId", String.valueOf(event.getAggregateId()));
+			fields.put("occurredAt", event.getOccurredAt().toString());
+			fields.put("payload", event.getPayload() != null ? event.getPayload() : "{}");
+			redisTemplate.opsForStream().add(StreamRecords.string(fields).withStreamKey(redisStreamKey));
+			redisTemplate.opsForStream().trim(redisStreamKey, redisStreamMaxLength, true);
+		}
+	}
+
+	private String toJson(Map<String, Object> payload) {
+		if (payload == null || payload.isEmpty()) {
+			return null;
+		}
+		try {
+			return objectMapper.writeValueAsString(payload);
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("Domain event payload is not serializable", e);
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package com.codetest.bookingsystem.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fair Redis lock: callers that find the lock held join a FIFO queue for the
+ * class and wait (bounded by {@code app.lock.wait-timeout-ms}) until they reach
+ * the head and the lock is free. While held, a watchdog keeps extending the
+ * lease so long-running work does not lose the lock, and every acquisition gets
+ * a fencing token from a monotonic counter (see {@link LockHandle}).
+ */
+@Component
+public class FairRedisLockStrategy extends AbstractRedisLockStrategy {
+
+	private static final Logger logger = LoggerFactory.getLogger(FairRedisLockStrategy.class);
+
+	private static final String TICKET_KEY = "lock:ticket";
+	private static final long MIN_POLL_INTERVAL_MS = 2;
+	private static final long MAX_POLL_INTERVAL_MS = 50;
+	// A queued caller that has not polled for this long is considered gone and removed from the queue
+	private static final long WAITER_TIMEOUT_MS = 10 * MAX_POLL_INTERVAL_MS;
+
+	// KEYS: lock, queue, waiter deadlines, fence counter, ticket counter
+	// ARGV: owner token, lease ms, waiter timeout ms
+	private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>("""
+			local t = redis.call('TIME')
+			local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+			local stale = redis.call('ZRANGEBYSCORE', KEYS[3], '-inf', now)
+			for _, waiter in ipairs(stale) do
+			  redis.call('ZREM', KEYS[2], waiter)
+			end
+			redis.call('ZREMRANGEBYSCORE', KEYS[3], '-inf', now)
+			if redis.call('EXISTS', KEYS[1]) == 0 then
+			  local head = redis.call('ZRANGE', KEYS[2], 0, 0)
+			  if head[1] == nil or head[1] == ARGV[1] then
+			    redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+			    redis.call('ZREM', KEYS[2], ARGV[1])
+			    redis.call('ZREM', KEYS[3], ARGV[1])
+			    return redis.call('INCR', KEYS[4])
+			  end
+			end
+			if redis.call('ZSCORE', KEYS[2], ARGV[1]) == false then
+			  redis.call('ZADD', KEYS[2], redis.call('INCR', KEYS[5]), ARGV[1])
+			end
+			redis.call('ZADD', KEYS[3], now + tonumber(ARGV[3]), ARGV[1])
+			redis.call('PEXPIRE', KEYS[2], ARGV[3])
+			redis.call('PEXPIRE', KEYS[3], ARGV[3])
+			return -1
+			""", Long.class);
+
+	private static final RedisScript<Long> LEAVE_QUEUE_SCRIPT = new DefaultRedisScript<>(
+			"redis.call('ZREM', KEYS[1], ARGV[1]) return redis.call('ZREM', KEYS[2], ARGV[1])", Long.class);
+
+	private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+			"if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('PEXPIRE', KEYS[1], ARGV[2]) end return 0",
+			Long.class);
+
+	@Value("${app.lock.wait-timeout-ms:2000}")
+	private long waitTimeoutMs;
+
+	private final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "lock-watchdog");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final Map<String, ScheduledFuture<?>> renewals = new ConcurrentHashMap<>();
+
+	@Override
+	public String name() {
+		return "fair";
+	}
+
+	@Override
+	public LockHandle tryAcquire(Long classScheduleId) {
+		String ownerToken = UUID.randomUUID().toString();
+		List<String> keys = List.of(lockKey(classScheduleId), queueKey(classScheduleId), waitersKey(classScheduleId),
+				FENCE_KEY, TICKET_KEY);
+		long deadline = System.currentTimeMillis() + waitTimeoutMs;
+		long pollInterval = MIN_POLL_INTERVAL_MS;
+
+		while (true) {
+			Long fencingToken = redisTemplate.execute(ACQUIRE_SCRIPT, keys, ownerToken, String.valueOf(leaseMs),
+					String.valueOf(WAITER_TIMEOUT_MS));
+			if (fencingToken != null && fencingToken >= 0) {
+				LockHandle handle = new LockHandle(classScheduleId, ownerToken, fencingToken);
+				scheduleRenewal(handle);
+				return handle;
+			}
+			long remaining = deadline - System.currentTimeMillis();
+			if (remaining <= 0) {
+				leaveQueue(classScheduleId, ownerToken);
+				return null;
+			}
+			try {
+				Thread.sleep(Math.min(pollInterval, remaining));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				leaveQueue(classScheduleId, ownerToken);
+				return null;
+			}
+			pollInterval = Math.min(pollInterval * 2, MAX_POLL_INTERVAL_MS);
+		}
+	}
+
+	@Override
+	public void release(LockHandle handle) {
+		cancelRenewal(handle.getOwnerToken());
+		super.release(handle);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		watchdog.shutdownNow();
+	}
+
+	private void scheduleRenewal(LockHandle handle) {
+		long period = Math.max(1, leaseMs / 3);
+		String lockKey = lockKey(handle.getClassScheduleId());
+		ScheduledFuture<?> renewal = watchdog.scheduleAtFixedRate(() -> {
+			try {
+				Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(lockKey), handle.getOwnerToken(),
+						String.valueOf(leaseMs));
+				if (renewed == null || renewed == 0) {
+					logger.warn("Lost lease on {} (fencing token {}), stopping renewal.", lockKey,
+							handle.getFencingToken());
+					cancelRenewal(handle.getOwnerToken());
+				}
+			} catch (RuntimeException e) {
+				logger.warn("Failed to renew lease on {}: {}", lockKey, e.getMessage());
+			}
+		}, period, period, TimeUnit.MILLISECONDS);
+		renewals.put(handle.getOwnerToken(), renewal);
+	}
+
+	private void cancelRenewal(String ownerToken) {
+		ScheduledFuture<?> renewal = renewals.remove(ownerToken);
+		if (renewal != null) {
+			renewal.cancel(false);
+		}
+	}
+
+	private void leaveQueue(Long classScheduleId, String ownerToken) {
+		redisTemplate.execute(LEAVE_QUEUE_SCRIPT, List.of(queueKey(classScheduleId), waitersKey(classScheduleId)),
+				ownerToken);
+	}
+
+	private String queueKey(Long classScheduleId) {
+		return lockKey(classScheduleId) + ":queue";
+	}
+
+	private String waitersKey(Long classScheduleId) {
+		return lockKey(classScheduleId) + ":waiters";
+	}
+}
@@ -0,0 +1,66 @@
+package com.codetest.bookingsystem.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Takes the local stripe for the class first and only then goes to Redis, so
+ * at most one request per node competes for the Redis key while the others
+ * queue in memory. The Redis strategy is chosen with
+ * {@code app.lock.hybrid.remote-mode}.
+ */
+@Component
+public class HybridLockStrategy implements LockStrategy {
+
+	@Autowired
+	private LocalLockStrategy localLockStrategy;
+
+	@Autowired
+	private RedisLockStrategy redisLockStrategy;
+
+	@Autowired
+	private FairRedisLockStrategy fairRedisLockStrategy;
+
+	@Value("${app.lock.hybrid.remote-mode:fair}")
+	private String remoteMode;
+
+	@Override
+	public String name() {
+		return "hybrid";
+	}
+
+	@Override
+	public LockHandle tryAcquire(Long classScheduleId) {
+		LockHandle localHandle = localLockStrategy.tryAcquire(classScheduleId);
+		if (localHandle == null) {
+			return null;
+		}
+		LockHandle remoteHandle;
+		try {
+			remoteHandle = remoteStrategy().tryAcquire(classScheduleId);
+		} catch (RuntimeException e) {
+			localLockStrategy.release(localHandle);
+			throw e;
+		}
+		if (remoteHandle == null) {
+			localLockStrategy.release(localHandle);
+			return null;
+		}
+		// The Redis handle carries the cluster-wide owner and fencing tokens
+		return remoteHandle;
+	}
+
+	@Override
+	public void release(LockHandle handle) {
+		try {
+			remoteStrategy().release(handle);
+		} finally {
+			localLockStrategy.release(handle);
+		}
+	}
+
+	private LockStrategy remoteStrategy() {
+		return "simple".equals(remoteMode) ? redisLockStrategy : fairRedisLockStrategy;
+	}
+}
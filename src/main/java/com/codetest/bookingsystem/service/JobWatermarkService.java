@@ -0,0 +1,65 @@
+package com.codetest.bookingsystem.service;
+
+import com.codetest.bookingsystem.model.JobWatermark;
+import com.codetest.bookingsystem.repository.JobWatermarkRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Persisted high-watermarks for recurring jobs, guarded by a lease so that only
+ * one node advances a job at a time. A node that dies mid-run simply lets its
+ * lease expire; the next claimant resumes from the last committed watermark.
+ */
+@Service
+public class JobWatermarkService {
+
+	private static final Logger logger = LoggerFactory.getLogger(JobWatermarkService.class);
+
+	// Identifies this node as the lease owner
+	private final String ownerId = UUID.randomUUID().toString();
+
+	@Autowired
+	private JobWatermarkRepository jobWatermarkRepository;
+
+	/**
+	 * Claims the job for this node.
+	 *
+	 * @param initialWatermark where the job starts the first time it ever runs
+	 * @return the committed watermark, or null if another node holds the lease
+	 */
+	public LocalDateTime claim(String jobName, Duration lease, LocalDateTime initialWatermark) {
+		if (!jobWatermarkRepository.existsById(jobName)) {
+			try {
+				jobWatermarkRepository.insert(jobName, initialWatermark);
+			} catch (DataIntegrityViolationException e) {
+				logger.debug("Watermark for job '{}' was created by another node.", jobName);
+			}
+		}
+		LocalDateTime now = LocalDateTime.now();
+		if (jobWatermarkRepository.claimLease(jobName, ownerId, now, now.plus(lease)) == 0) {
+			return null;
+		}
+		return jobWatermarkRepository.findById(jobName).map(JobWatermark::getWatermark).orElse(null);
+	}
+
+	/**
+	 * Commits progress up to {@code watermark} and renews the lease.
+	 *
+	 * @return false if the lease was lost, in which case the caller must stop
+	 */
+	public boolean advance(String jobName, LocalDateTime watermark, Duration lease) {
+		LocalDateTime now = LocalDateTime.now();
+		return jobWatermarkRepository.advance(jobName, ownerId, watermark, now, now.plus(lease)) == 1;
+	}
+
+	public void release(String jobName) {
+		jobWatermarkRepository.releaseLease(jobName, ownerId);
+	}
+}
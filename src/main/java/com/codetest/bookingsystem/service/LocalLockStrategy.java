@@ -0,0 +1,74 @@
+package com.codetest.bookingsystem.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-JVM lock for single-instance deployments: class IDs are hashed onto a
+ * fixed array of fair {@link ReentrantLock}s, so no Redis round trip is needed.
+ * It does not protect against other instances and must not be used when more
+ * than one node serves bookings.
+ */
+@Component
+public class LocalLockStrategy implements LockStrategy {
+
+	private static final String LOCAL_OWNER = "local";
+
+	@Value("${app.lock.stripes:1024}")
+	private int stripeCount;
+
+	@Value("${app.lock.wait-timeout-ms:2000}")
+	private long waitTimeoutMs;
+
+	private ReentrantLock[] stripes;
+
+	private final AtomicLong fencingCounter = new AtomicLong();
+
+	@PostConstruct
+	void initStripes() {
+		// Round up to a power of two so the stripe can be picked with a mask
+		int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+		stripes = new ReentrantLock[size];
+		for (int i = 0; i < size; i++) {
+			stripes[i] = new ReentrantLock(true);
+		}
+	}
+
+	@Override
+	public String name() {
+		return "local";
+	}
+
+	@Override
+	public LockHandle tryAcquire(Long classScheduleId) {
+		try {
+			if (!stripeFor(classScheduleId).tryLock(waitTimeoutMs, TimeUnit.MILLISECONDS)) {
+				return null;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+		return new LockHandle(classScheduleId, LOCAL_OWNER, fencingCounter.incrementAndGet());
+	}
+
+	@Override
+	public void release(LockHandle handle) {
+		ReentrantLock stripe = stripeFor(handle.getClassScheduleId());
+		if (stripe.isHeldByCurrentThread()) {
+			stripe.unlock();
+		}
+	}
+
+	private ReentrantLock stripeFor(Long classScheduleId) {
+		int hash = classScheduleId.hashCode();
+		// Spread the bits so sequential IDs do not cluster on neighbouring stripes
+		hash ^= (hash >>> 16);
+		return stripes[hash & (stripes.length - 1)];
+	}
+}
@@ -0,0 +1,32 @@
+package com.codetest.bookingsystem.service;
+
+/**
+ * Identifies one successful lock acquisition. The owner token guards release
+ * and renewal. The fencing token increases with every acquisition but is not
+ * checked by any write; it only tells acquisitions apart in logs. A holder whose
+ * lease expired is stopped by the conditional seat update, not by the token.
+ */
+public final class LockHandle {
+
+	private final Long classScheduleId;
+	private final String ownerToken;
+	private final long fencingToken;
+
+	public LockHandle(Long classScheduleId, String ownerToken, long fencingToken) {
+		this.classScheduleId = classScheduleId;
+		this.ownerToken = ownerToken;
+		this.fencingToken = fencingToken;
+	}
+
+	public Long getClassScheduleId() {
+		return classScheduleId;
+	}
+
+	public String getOwnerToken() {
+		return ownerToken;
+	}
+
+	public long getFencingToken() {
+		return fencingToken;
+	}
+}
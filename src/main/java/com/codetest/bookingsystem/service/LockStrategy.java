@@ -0,0 +1,28 @@
+package com.codetest.bookingsystem.service;
+
+/**
+ * A way of serialising work on a single class schedule. Implementations are
+ * selected with {@code app.lock.mode} and used through
+ * {@link DistributedLockService}.
+ */
+public interface LockStrategy {
+
+	/**
+	 * @return the mode name used to select this strategy in configuration
+	 */
+	String name();
+
+	/**
+	 * Tries to take the lock for the given class, waiting at most the configured
+	 * time.
+	 *
+	 * @return a handle identifying this acquisition, or {@code null} if the lock
+	 *         could not be taken
+	 */
+	LockHandle tryAcquire(Long classScheduleId);
+
+	/**
+	 * Releases the lock, but only if it is still held by the given handle.
+	 */
+	void release(LockHandle handle);
+}
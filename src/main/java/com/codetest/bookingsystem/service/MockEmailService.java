@@ -16,12 +16,16 @@ public class MockEmailService {
 	@Value("${app.mock.email.send-success:true}")
 	private boolean mockEmailSendSuccess;
 
-	public boolean sendVerifyEmail(String toEmail, String subject, String body) {
+	/**
+	 * Sends one email. Only called by the notification dispatcher; everything
+	 * else queues emails through {@link NotificationService}.
+	 */
+	public boolean sendEmail(String toEmail, String subject, String body) {
 		if (!mockEmailEnabled) {
 			logger.info("Real email sending logic would be here for: {}", toEmail);
 			// In a real application, integrate with an actual email service (e.g., SendGrid, JavaMailSender)
 		}
-		logger.info("Mock Email Service: Sending verification email to {} with subject '{}'. Body: '{}'. Success: {}",
+		logger.info("Mock Email Service: Sending email to {} with subject '{}'. Body: '{}'. Success: {}",
 				toEmail, subject, body, mockEmailSendSuccess);
 		return mockEmailSendSuccess;
 	}
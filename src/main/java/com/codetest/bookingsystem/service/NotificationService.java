@@ -0,0 +1,155 @@
+package com.codetest.bookingsystem.service;
+
+import com.codetest.bookingsystem.enums.NotificationStatus;
+import com.codetest.bookingsystem.model.Notification;
+import com.codetest.bookingsystem.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Notification outbox. Callers enqueue inside their own transaction, so a
+ * notification exists exactly when the change it announces was committed and
+ * no email I/O happens on the request thread. {@link #dispatchDue()} delivers
+ * queued emails in batches, retrying failures with exponential backoff. The
+ * body of a delivered email is redacted, since it may carry a one-time secret
+ * such as a password reset token.
+ */
+@Service
+public class NotificationService {
+
+	private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
+
+	// Written with plain JDBC so a duplicate key fails only this statement, not the caller's transaction
+	private static final String INSERT_SQL = "INSERT INTO notification "
+			+ "(recipient, subject, body, dedup_key, status, attempts, next_attempt_at, created_at, updated_at) "
+			+ "VALUES (?, ?, ?, ?, ?, 0, ?, ?, ?)";
+
+	static final String REDACTED_BODY = "[redacted after delivery]";
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MockEmailService mockEmailService;
+
+	@Value("${app.notification.batch-size:50}")
+	private int batchSize;
+
+	@Value("${app.notification.claim-seconds:60}")
+	private long claimSeconds;
+
+	@Value("${app.notification.max-attempts:5}")
+	private int maxAttempts;
+
+	@Value("${app.notification.backoff-base-seconds:30}")
+	private long backoffBaseSeconds;
+
+	@Value("${app.notification.backoff-max-seconds:3600}")
+	private long backoffMaxSeconds;
+
+	/**
+	 * Queues an email unless one with the same {@code dedupKey} was already
+	 * queued. The key names the event being announced, e.g.
+	 * {@code waitlist-promoted:42}, and is stored in clear, so it must never
+	 * contain a secret. A concurrent enqueue of the same event loses on the
+	 * unique key and is skipped without rolling back the caller's transaction.
+	 */
+	@Transactional
+	public void enqueue(String recipient, String subject, String body, String dedupKey) {
+		if (notificationRepository.existsByDedupKey(dedupKey)) {
+			logger.debug("Notification {} already queued, skipping.", dedupKey);
+			return;
+		}
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		try {
+			jdbcTemplate.update(INSERT_SQL, recipient, subject, body, dedupKey, NotificationStatus.PENDING.name(), now,
+					now, now);
+		} catch (DuplicateKeyException e) {
+			logger.debug("Notification {} was queued concurrently, skipping.", dedupKey);
+		}
+	}
+
+	/**
+	 * Sends every due notification, {@code app.notification.batch-size} at a
+	 * time. Each batch is claimed with one conditional update, so several
+	 * instances can dispatch side by side without sending the same row twice. A
+	 * batch whose instance dies mid-send is picked up again once its claim
+	 * expires, which makes delivery at-least-once.
+	 *
+	 * @return the number of notifications sent
+	 */
+	public int dispatchDue() {
+		int sent = 0;
+		List<Long> due;
+		do {
+			LocalDateTime now = LocalDateTime.now();
+			due = notificationRepository.findDueIds(NotificationStatus.PENDING, now, Limit.of(batchSize));
+			if (due.isEmpty()) {
+				break;
+			}
+			String batchId = UUID.randomUUID().toString();
+			if (notificationRepository.claim(due, NotificationStatus.PENDING, batchId, now,
+					now.plusSeconds(claimSeconds)) > 0) {
+				sent += sendBatch(notificationRepository.findByClaimedByOrderById(batchId));
+			}
+		} while (due.size() == batchSize);
+		return sent;
+	}
+
+	private int sendBatch(List<Notification> batch) {
+		List<Long> delivered = new ArrayList<>();
+		List<Notification> failed = new ArrayList<>();
+		for (Notification notification : batch) {
+			try {
+				if (mockEmailService.sendEmail(notification.getRecipient(), notification.getSubject(),
+						notification.getBody())) {
+					delivered.add(notification.getId());
+				} else {
+					failed.add(scheduleRetry(notification, "Email service rejected the message"));
+				}
+			} catch (RuntimeException e) {
+				failed.add(scheduleRetry(notification, e.getMessage()));
+			}
+		}
+		if (!delivered.isEmpty()) {
+			notificationRepository.markSent(delivered, NotificationStatus.SENT, REDACTED_BODY);
+		}
+		if (!failed.isEmpty()) {
+			notificationRepository.saveAll(failed);
+		}
+		logger.debug("Notification batch done: {} sent, {} failed.", delivered.size(), failed.size());
+		return delivered.size();
+	}
+
+	private Notification scheduleRetry(Notification notification, String error) {
+		notification.setClaimedBy(null);
+		notification.setLastError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+		if (notification.getAttempts() >= maxAttempts) {
+			notification.setStatus(NotificationStatus.FAILED);
+			logger.warn("Giving up on notification {} to {} after {} attempts: {}", notification.getId(),
+					notification.getRecipient(), notification.getAttempts(), error);
+		} else {
+			// 30s, 60s, 120s, ... capped at backoff-max-seconds
+			long backoff = Math.min(backoffBaseSeconds << Math.min(notification.getAttempts() - 1, 20),
+					backoffMaxSeconds);
+			notification.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+		}
+		return notification;
+	}
+}
@@ -1,5 +1,6 @@
 package com.codetest.bookingsystem.service;
 
+import com.codetest.bookingsystem.config.CacheConfig;
 import com.codetest.bookingsystem.dto.request.PackagePurchaseRequest;
 import com.codetest.bookingsystem.dto.response.CreditPackageResponse;
 import com.codetest.bookingsystem.dto.response.UserPackageResponse;
@@ -14,6 +15,7 @@ import com.codetest.bookingsystem.repository.CreditPackageRepository;
 import com.codetest.bookingsystem.repository.UserPackageRepository;
 import com.codetest.bookingsystem.security.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -40,6 +42,10 @@ public class PackageService {
 	@Autowired
 	private MockPaymentService mockPaymentService;
 
+	@Autowired
+	private CreditLedgerService creditLedgerService;
+
+	@Cacheable(cacheNames = CacheConfig.CREDIT_PACKAGES, key = "#country.name()", sync = true)
 	public List<CreditPackageResponse> getAvailablePackages(Country country) {
 		return creditPackageRepository.findByCountry(country).stream().map(this::convertToCreditPackageResponse)
 				.collect(Collectors.toList());
@@ -72,6 +78,7 @@ public class PackageService {
 		userPackage.setPurchaseDate(LocalDate.now());
 		userPackage.setExpiryDate(LocalDate.now().plusDays(creditPackage.getValidityInDays()));
 		UserPackage savedUserPackage = userPackageRepository.save(userPackage);
+		creditLedgerService.recordPurchase(savedUserPackage.getId(), creditPackage.getCredits());
 		return convertToUserPackageResponse(savedUserPackage);
 	}
 
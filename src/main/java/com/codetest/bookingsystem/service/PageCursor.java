@@ -0,0 +1,53 @@
+package com.codetest.bookingsystem.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.codetest.bookingsystem.exception.BadRequestException;
+
+/**
+ * Opaque keyset cursor pointing just past the last row of a page, ordered by
+ * class start time and then id.
+ */
+final class PageCursor {
+
+	private final LocalDateTime startTime;
+	private final Long id;
+
+	PageCursor(LocalDateTime startTime, Long id) {
+		this.startTime = startTime;
+		this.id = id;
+	}
+
+	LocalDateTime getStartTime() {
+		return startTime;
+	}
+
+	Long getId() {
+		return id;
+	}
+
+	String encode() {
+		String raw = startTime + "|" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Returns null for a missing cursor, meaning the first page.
+	 */
+	static PageCursor decode(String cursor) {
+		if (cursor == null || cursor.isBlank()) {
+			return null;
+		}
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			int separator = raw.indexOf('|');
+			return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+					Long.parseLong(raw.substring(separator + 1)));
+		} catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+			throw new BadRequestException("Invalid page cursor.");
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package com.codetest.bookingsystem.service;
+
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Single SET NX attempt with a fixed lease. Fails immediately when the lock is
+ * held, which is the original behaviour of {@link DistributedLockService}.
+ */
+@Component
+public class RedisLockStrategy extends AbstractRedisLockStrategy {
+
+	private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+			"if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then return redis.call('INCR', KEYS[2]) end return -1",
+			Long.class);
+
+	@Override
+	public String name() {
+		return "simple";
+	}
+
+	@Override
+	public LockHandle tryAcquire(Long classScheduleId) {
+		String ownerToken = UUID.randomUUID().toString();
+		Long fencingToken = redisTemplate.execute(ACQUIRE_SCRIPT, List.of(lockKey(classScheduleId), FENCE_KEY),
+				ownerToken, String.valueOf(leaseMs));
+		if (fencingToken == null || fencingToken < 0) {
+			return null;
+		}
+		return new LockHandle(classScheduleId, ownerToken, fencingToken);
+	}
+}
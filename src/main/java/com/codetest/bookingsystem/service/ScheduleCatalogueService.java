@@ -0,0 +1,51 @@
+package com.codetest.bookingsystem.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import com.codetest.bookingsystem.config.CacheConfig;
+import com.codetest.bookingsystem.dto.response.ClassScheduleResponse;
+import com.codetest.bookingsystem.dto.response.CursorPage;
+import com.codetest.bookingsystem.enums.Country;
+import com.codetest.bookingsystem.model.ClassSchedule;
+import com.codetest.bookingsystem.repository.ClassScheduleRepository;
+
+/**
+ * Cached, count-free pages of the upcoming class catalogue. Booked counts change
+ * with every booking, so they are not cached here; callers overlay live counts
+ * from {@link SeatInventoryService}. Pages are cleared when a schedule changes.
+ */
+@Service
+public class ScheduleCatalogueService {
+
+	@Autowired
+	private ClassScheduleRepository classScheduleRepository;
+
+	@Cacheable(cacheNames = CacheConfig.SCHEDULE_CATALOGUE, key = "#country.name() + ':' + #cursor + ':' + #size", sync = true)
+	public CursorPage<ClassScheduleResponse> getUpcomingPage(Country country, String cursor, int size) {
+		PageCursor after = PageCursor.decode(cursor);
+		// Fetch one extra row to find out whether another page follows
+		List<ClassSchedule> schedules = classScheduleRepository.findUpcomingPage(country, LocalDateTime.now(),
+				after != null ? after.getStartTime() : null, after != null ? after.getId() : null,
+				Limit.of(size + 1));
+		String nextCursor = null;
+		if (schedules.size() > size) {
+			schedules = schedules.subList(0, size);
+			ClassSchedule last = schedules.get(size - 1);
+			nextCursor = new PageCursor(last.getStartTime(), last.getId()).encode();
+		}
+		return new CursorPage<>(schedules.stream().map(this::convertToClassScheduleResponse)
+				.collect(Collectors.toList()), nextCursor);
+	}
+
+	private ClassScheduleResponse convertToClassScheduleResponse(ClassSchedule schedule) {
+		return new ClassScheduleResponse(schedule.getId(), schedule.getClassName(), schedule.getStartTime(),
+				schedule.getEndTime(), schedule.getCapacity(), schedule.getCountry(), schedule.getRequiredCredits(), 0);
+	}
+}
@@ -1,40 +1,208 @@
 package com.codetest.bookingsystem.service;
 
+import com.codetest.bookingsystem.config.SchedulingConfig;
+import com.codetest.bookingsystem.enums.CreditEntryType;
+import com.codetest.bookingsystem.enums.DomainEventType;
+import com.codetest.bookingsystem.enums.NotificationStatus;
 import com.codetest.bookingsystem.enums.WaitlistStatus;
-import com.codetest.bookingsystem.model.ClassSchedule;
-import com.codetest.bookingsystem.model.UserPackage;
-import com.codetest.bookingsystem.model.Waitlist;
-import com.codetest.bookingsystem.repository.UserPackageRepository;
 import com.codetest.bookingsystem.repository.WaitlistRepository;
+import com.codetest.bookingsystem.repository.WaitlistRepository.RefundCandidate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 @Service
 public class SchedulerService {
 
 	private static final Logger logger = LoggerFactory.getLogger(SchedulerService.class);
 
+	// The status guard makes a chunk safe to replay: entries already refunded or promoted are skipped
+	private static final String MARK_REFUNDED_SQL = "UPDATE waitlist SET status = ?, updated_at = ? "
+			+ "WHERE id = ? AND status = ?";
+	// Entries this chunk moved, for drivers that answer a batch with SUCCESS_NO_INFO instead of row counts
+	private static final String FIND_MARKED_SQL = "SELECT id FROM waitlist WHERE status = ? AND updated_at = ? "
+			+ "AND id IN (%s)";
+	private static final String REFUND_CREDITS_SQL = "UPDATE user_package "
+			+ "SET remaining_credits = remaining_credits + ?, updated_at = ? WHERE id = ?";
+	// Outbox rows for the refund emails, written in the chunk's transaction (see NotificationService)
+	private static final String QUEUE_NOTIFICATION_SQL = "INSERT INTO notification "
+			+ "(recipient, subject, body, dedup_key, status, attempts, next_attempt_at, created_at, updated_at) "
+			+ "VALUES (?, ?, ?, ?, ?, 0, ?, ?, ?)";
+
 	@Autowired
 	private WaitlistRepository waitlistRepository;
 
 	@Autowired
-	private UserPackageRepository userPackageRepository;
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DomainEventService domainEventService;
+
+	@Autowired
+	private CreditLedgerService creditLedgerService;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
 
-	@Transactional
-	public void refundCreditForWaitlist(Waitlist waitlistEntry) {
-		UserPackage userPackage = waitlistEntry.getUserPackage();
-		ClassSchedule classSchedule = waitlistEntry.getClassSchedule();
+	@Autowired
+	@Qualifier(SchedulingConfig.CLASS_COMPLETION_EXECUTOR)
+	private Executor classCompletionExecutor;
+
+	@Value("${app.scheduler.refund-chunk-size:500}")
+	private int refundChunkSize;
+
+	/**
+	 * Refunds every user still waiting on a class that ended after {@code from}
+	 * and no later than {@code to}. Consecutive windows therefore never overlap.
+	 * Classes are refunded in parallel on the class completion executor; a class
+	 * that fails does not stop the others, but the run as a whole fails so the
+	 * caller does not move past the window.
+	 *
+	 * @return the number of waitlist entries refunded
+	 */
+	public int refundWaitlistsForClassesEndedBetween(LocalDateTime from, LocalDateTime to) {
+		List<Long> classScheduleIds = waitlistRepository.findClassIdsEndedBetween(WaitlistStatus.WAITING, from, to);
+		Map<Long, CompletableFuture<Integer>> results = new LinkedHashMap<>();
+		for (Long classScheduleId : classScheduleIds) {
+			results.put(classScheduleId,
+					CompletableFuture.supplyAsync(() -> refundWaitlistsForClass(classScheduleId), classCompletionExecutor));
+		}
+
+		int refunded = 0;
+		List<Long> failed = new ArrayList<>();
+		for (Map.Entry<Long, CompletableFuture<Integer>> result : results.entrySet()) {
+			try {
+				refunded += result.getValue().join();
+			} catch (CompletionException e) {
+				failed.add(result.getKey());
+				logger.error("Refunding waitlist for class {} failed: {}", result.getKey(), e.getCause().getMessage(),
+						e.getCause());
+			}
+		}
+		logger.info("Refunded credits for {} waitlist entries across {} classes ended between {} and {}.", refunded,
+				classScheduleIds.size() - failed.size(), from, to);
+		if (!failed.isEmpty()) {
+			throw new IllegalStateException("Waitlist refunds failed for classes " + failed);
+		}
+		return refunded;
+	}
+
+	/**
+	 * Refunds one class's waiting entries in chunks of
+	 * {@code app.scheduler.refund-chunk-size}, each committed in its own
+	 * transaction with two JDBC batch updates, so a failure only rolls back the
+	 * chunk in flight and a rerun picks up the remaining WAITING entries.
+	 */
+	public int refundWaitlistsForClass(Long classScheduleId) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		int refunded = 0;
+		long afterId = 0;
+		List<RefundCandidate> chunk;
+		do {
+			chunk = waitlistRepository.findRefundChunk(classScheduleId, WaitlistStatus.WAITING, afterId,
+					Limit.of(refundChunkSize));
+			if (chunk.isEmpty()) {
+				break;
+			}
+			List<RefundCandidate> candidates = chunk;
+			refunded += transactionTemplate.execute(status -> refundChunk(classScheduleId, candidates));
+			afterId = chunk.get(chunk.size() - 1).getId();
+		} while (chunk.size() == refundChunkSize);
+		return refunded;
+	}
 
-		userPackage.setRemainingCredits(userPackage.getRemainingCredits() + classSchedule.getRequiredCredits());
-		userPackageRepository.save(userPackage);
+	private int refundChunk(Long classScheduleId, List<RefundCandidate> chunk) {
+		// Microseconds, so the stored value compares equal when the marked rows are read back
+		Timestamp now = Timestamp.from(Instant.now().truncatedTo(ChronoUnit.MICROS));
+		int[] updated = jdbcTemplate.batchUpdate(MARK_REFUNDED_SQL, chunk, chunk.size(), (ps, candidate) -> {
+			ps.setString(1, WaitlistStatus.CREDIT_REFUNDED.name());
+			ps.setTimestamp(2, now);
+			ps.setLong(3, candidate.getId());
+			ps.setString(4, WaitlistStatus.WAITING.name());
+		})[0];
 
-		waitlistEntry.setStatus(WaitlistStatus.CREDIT_REFUNDED);
-		waitlistRepository.save(waitlistEntry);
+		// Only refund entries this chunk actually moved out of WAITING; one package may cover several entries.
+		// SUCCESS_NO_INFO says nothing about the status guard, so those rows are read back rather than trusted
+		Set<Long> marked = new HashSet<>();
+		List<Long> unknown = new ArrayList<>();
+		for (int i = 0; i < chunk.size(); i++) {
+			if (updated[i] > 0) {
+				marked.add(chunk.get(i).getId());
+			} else if (updated[i] == Statement.SUCCESS_NO_INFO) {
+				unknown.add(chunk.get(i).getId());
+			}
+		}
+		if (!unknown.isEmpty()) {
+			List<Object> args = new ArrayList<>(List.of(WaitlistStatus.CREDIT_REFUNDED.name(), now));
+			args.addAll(unknown);
+			marked.addAll(jdbcTemplate.queryForList(
+					String.format(FIND_MARKED_SQL, String.join(", ", Collections.nCopies(unknown.size(), "?"))),
+					Long.class, args.toArray()));
+		}
+		Map<Long, Integer> creditsByPackage = new LinkedHashMap<>();
+		List<RefundCandidate> refundedEntries = new ArrayList<>();
+		for (RefundCandidate candidate : chunk) {
+			if (marked.contains(candidate.getId())) {
+				creditsByPackage.merge(candidate.getUserPackageId(), candidate.getCredits(), Integer::sum);
+				refundedEntries.add(candidate);
+			}
+		}
+		int refunded = refundedEntries.size();
+		if (refunded == 0) {
+			return 0;
+		}
+		List<Map.Entry<Long, Integer>> refunds = new ArrayList<>(creditsByPackage.entrySet());
+		jdbcTemplate.batchUpdate(REFUND_CREDITS_SQL, refunds, refunds.size(), (ps, refund) -> {
+			ps.setInt(1, refund.getValue());
+			ps.setTimestamp(2, now);
+			ps.setLong(3, refund.getKey());
+		});
+		creditLedgerService.recordAll(refundedEntries.stream()
+				.map(entry -> creditLedgerService.entry(CreditEntryType.WAITLIST_REFUND, entry.getUserPackageId(),
+						entry.getCredits(), null, entry.getId()))
+				.toList());
+		Timestamp dueAt = Timestamp.valueOf(LocalDateTime.now());
+		jdbcTemplate.batchUpdate(QUEUE_NOTIFICATION_SQL, refundedEntries, refundedEntries.size(), (ps, entry) -> {
+			ps.setString(1, entry.getEmail());
+			ps.setString(2, "Waitlist credits refunded for " + entry.getClassName());
+			ps.setString(3, entry.getClassName() + " has ended without a seat opening up. " + entry.getCredits()
+					+ " credits have been returned to your package.");
+			ps.setString(4, "waitlist-refunded:" + entry.getId());
+			ps.setString(5, NotificationStatus.PENDING.name());
+			ps.setTimestamp(6, dueAt);
+			ps.setTimestamp(7, now);
+			ps.setTimestamp(8, now);
+		});
+		domainEventService.recordAll(refundedEntries.stream()
+				.map(entry -> domainEventService.event(DomainEventType.WAITLIST_REFUNDED, classScheduleId,
+						entry.getUserId(), entry.getId(),
+						Map.of("userPackageId", entry.getUserPackageId(), "credits", entry.getCredits())))
+				.toList());
 
-		logger.info("Refunded {} credits to user {} for waitlisted class '{}'.", classSchedule.getRequiredCredits(),
-				waitlistEntry.getUser().getId(), classSchedule.getClassName());
+		logger.debug("Refunded {} waitlist entries across {} packages.", refunded, refunds.size());
+		return refunded;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,226 @@
+package com.codetest.bookingsystem.service;
+
+import com.codetest.bookingsystem.enums.BookingStatus;
+import com.codetest.bookingsystem.repository.BookingRepository;
+import com.codetest.bookingsystem.repository.ClassScheduleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the number of BOOKED seats per class in memory so capacity checks do
+ * not need a COUNT query. Counters are primed from the database on startup,
+ * loaded lazily for classes that are not tracked yet and periodically
+ * reconciled against the booking table to correct any drift.
+ */
+@Service
+public class SeatInventoryService {
+
+	private static final Logger logger = LoggerFactory.getLogger(SeatInventoryService.class);
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private ClassScheduleRepository classScheduleRepository;
+
+	private final Map<Long, SeatCounter> counters = new ConcurrentHashMap<>();
+
+	public int getBookedCount(Long classScheduleId) {
+		return counterFor(classScheduleId).reserved.get();
+	}
+
+	/**
+	 * Booked counts for a batch of classes. Classes that are not tracked yet are
+	 * loaded together with a single grouped count query.
+	 */
+	public Map<Long, Integer> getBookedCounts(Collection<Long> classScheduleIds) {
+		Map<Long, Integer> bookedCounts = new HashMap<>();
+		List<Long> untracked = new ArrayList<>();
+		for (Long id : new LinkedHashSet<>(classScheduleIds)) {
+			SeatCounter counter = counters.get(id);
+			if (counter != null) {
+				bookedCounts.put(id, counter.reserved.get());
+			} else {
+				untracked.add(id);
+			}
+		}
+		if (untracked.isEmpty()) {
+			return bookedCounts;
+		}
+
+		Map<Long, Integer> loaded = new HashMap<>();
+		untracked.forEach(id -> loaded.put(id, 0));
+		bookingRepository.countByClassScheduleIdsAndStatus(untracked, BookingStatus.BOOKED)
+				.forEach(row -> loaded.put(row.getClassScheduleId(), (int) row.getBookedCount()));
+		loaded.forEach((id, booked) -> {
+			SeatCounter existing = counters.putIfAbsent(id, new SeatCounter(booked));
+			bookedCounts.put(id, existing != null ? existing.reserved.get() : booked);
+		});
+		return bookedCounts;
+	}
+
+	/**
+	 * Atomically takes a seat if the class is below capacity. When called inside a
+	 * transaction the seat is handed back automatically if the transaction rolls
+	 * back.
+	 */
+	public boolean tryReserve(Long classScheduleId, int capacity) {
+		SeatCounter counter = counterFor(classScheduleId);
+		boolean transactional = TransactionSynchronizationManager.isSynchronizationActive();
+		// Mark the reservation as in flight before touching the count so a concurrent
+		// reconcile never overwrites it with a database snapshot that misses it
+		if (transactional) {
+			counter.inFlight.incrementAndGet();
+		}
+		counter.version.incrementAndGet();
+
+		int current;
+		do {
+			current = counter.reserved.get();
+			if (current >= capacity) {
+				if (transactional) {
+					counter.inFlight.decrementAndGet();
+				}
+				return false;
+			}
+		} while (!counter.reserved.compareAndSet(current, current + 1));
+
+		if (transactional) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					counter.version.incrementAndGet();
+					if (status != STATUS_COMMITTED) {
+						counter.reserved.updateAndGet(value -> Math.max(0, value - 1));
+					}
+					counter.inFlight.decrementAndGet();
+				}
+			});
+		}
+		return true;
+	}
+
+	/**
+	 * Records a booking that was admitted without a capacity check (e.g. a
+	 * waitlist promotion). Applied once the surrounding transaction commits.
+	 */
+	public void recordBooked(Long classScheduleId) {
+		afterCommit(() -> adjust(classScheduleId, 1));
+	}
+
+	/**
+	 * Gives a seat back after a booking leaves the BOOKED status. Applied once the
+	 * surrounding transaction commits.
+	 */
+	public void release(Long classScheduleId) {
+		afterCommit(() -> adjust(classScheduleId, -1));
+	}
+
+	/**
+	 * Re-reads booked counts for every class that has not ended yet and drops
+	 * counters for classes that have. Counters touched while the snapshot was
+	 * being read are left alone and picked up by the next run.
+	 */
+	public void reconcile() {
+		Map<Long, Long> versionsBefore = new HashMap<>();
+		counters.forEach((id, counter) -> versionsBefore.put(id, counter.version.get()));
+
+		LocalDateTime now = LocalDateTime.now();
+		Set<Long> upcomingIds = new HashSet<>(classScheduleRepository.findIdsEndingAfter(now));
+		Map<Long, Integer> bookedCounts = new HashMap<>();
+		bookingRepository.countUpcomingByStatus(BookingStatus.BOOKED, now)
+				.forEach(row -> bookedCounts.put(row.getClassScheduleId(), (int) row.getBookedCount()));
+
+		int corrected = 0;
+		for (Long id : upcomingIds) {
+			int expected = bookedCounts.getOrDefault(id, 0);
+			SeatCounter counter = counters.get(id);
+			if (counter == null) {
+				counters.putIfAbsent(id, new SeatCounter(expected));
+				continue;
+			}
+			int observed = counter.reserved.get();
+			Long versionBefore = versionsBefore.get(id);
+			if (observed == expected || versionBefore == null || counter.version.get() != versionBefore
+					|| counter.inFlight.get() > 0) {
+				continue;
+			}
+			if (counter.reserved.compareAndSet(observed, expected)) {
+				corrected++;
+			}
+		}
+		counters.keySet().retainAll(upcomingIds);
+		logger.info("Seat inventory reconciled: {} classes tracked, {} counters corrected.", counters.size(),
+				corrected);
+	}
+
+	/**
+	 * Re-derives {@code class_schedule.booked_count} of upcoming classes from the
+	 * booking table, e.g. for classes booked before the column existed. The
+	 * conditional update booking engine relies on that column.
+	 */
+	public int recountBookedSeats() {
+		int updated = classScheduleRepository.recountBookedSeats(BookingStatus.BOOKED, LocalDateTime.now());
+		logger.info("Recounted booked seats for {} upcoming classes.", updated);
+		return updated;
+	}
+
+	private SeatCounter counterFor(Long classScheduleId) {
+		SeatCounter counter = counters.get(classScheduleId);
+		if (counter != null) {
+			return counter;
+		}
+		// Load outside the map so a slow query does not block other classes hashing to the same bin
+		int booked = bookingRepository.countByClassScheduleIdAndStatus(classScheduleId, BookingStatus.BOOKED);
+		SeatCounter loaded = new SeatCounter(booked);
+		SeatCounter existing = counters.putIfAbsent(classScheduleId, loaded);
+		return existing != null ? existing : loaded;
+	}
+
+	private void adjust(Long classScheduleId, int delta) {
+		SeatCounter counter = counterFor(classScheduleId);
+		counter.version.incrementAndGet();
+		counter.reserved.updateAndGet(value -> Math.max(0, value + delta));
+	}
+
+	private void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
+
+	private static final class SeatCounter {
+		// Committed BOOKED seats plus reservations whose transaction has not finished yet
+		private final AtomicInteger reserved;
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private final AtomicLong version = new AtomicLong();
+
+		private SeatCounter(int booked) {
+			this.reserved = new AtomicInteger(booked);
+		}
+	}
+}
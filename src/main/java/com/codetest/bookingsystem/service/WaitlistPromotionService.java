@@ -0,0 +1,277 @@
+package com.codetest.bookingsystem.service;
+
+import com.codetest.bookingsystem.config.SchedulingConfig;
+import com.codetest.bookingsystem.enums.BookingStatus;
+import com.codetest.bookingsystem.enums.DomainEventType;
+import com.codetest.bookingsystem.enums.WaitlistStatus;
+import com.codetest.bookingsystem.model.Booking;
+import com.codetest.bookingsystem.model.ClassSchedule;
+import com.codetest.bookingsystem.model.UserPackage;
+import com.codetest.bookingsystem.model.Waitlist;
+import com.codetest.bookingsystem.repository.BookingRepository;
+import com.codetest.bookingsystem.repository.ClassScheduleRepository;
+import com.codetest.bookingsystem.repository.UserPackageRepository;
+import com.codetest.bookingsystem.repository.WaitlistRepository;
+import io.micrometer.observation.Observation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Moves waiting users into seats that free up, off the cancelling request's
+ * thread and transaction. A cancellation only signals that a seat was freed
+ * once it has committed; a worker then promotes waiters one transaction at a
+ * time until the class is full again or nobody is left waiting. Signals for a
+ * class are coalesced so one worker drains a class at a time, which keeps
+ * promotions in waitlist order. An entry is claimed with a conditional status
+ * update, so it is never both promoted and refunded, and classes that have
+ * started take no promotions. Transient failures are retried with a backoff,
+ * and {@link #sweep()} re-signals classes that still have free seats and
+ * waiters, e.g. after a restart lost the in-memory signals.
+ */
+@Service
+public class WaitlistPromotionService {
+
+	private static final Logger logger = LoggerFactory.getLogger(WaitlistPromotionService.class);
+
+	private static final int IDLE = 0;
+	private static final int RUNNING = 1;
+	private static final int RERUN = 2;
+
+	@Autowired
+	private ClassScheduleRepository classScheduleRepository;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private UserPackageRepository userPackageRepository;
+
+	@Autowired
+	private WaitlistRepository waitlistRepository;
+
+	@Autowired
+	private WaitlistQueueService waitlistQueueService;
+
+	@Autowired
+	private SeatInventoryService seatInventoryService;
+
+	@Autowired
+	private BookingIntervalService bookingIntervalService;
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Autowired
+	private DomainEventService domainEventService;
+
+	@Autowired
+	private BookingMetrics bookingMetrics;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	@Qualifier(SchedulingConfig.WAITLIST_PROMOTION_EXECUTOR)
+	private Executor promotionExecutor;
+
+	@Value("${app.waitlist.promotion.max-attempts:3}")
+	private int maxAttempts;
+
+	@Value("${app.waitlist.promotion.retry-backoff-ms:100}")
+	private long retryBackoffMs;
+
+	// Per class: IDLE, RUNNING, or RERUN when a seat was freed while a worker was draining it
+	private final Map<Long, AtomicInteger> drains = new ConcurrentHashMap<>();
+
+	private enum Result {
+		// SKIPPED: the polled entry left WAITING concurrently, e.g. it was refunded; try the next one
+		PROMOTED, SKIPPED, FULL, EMPTY
+	}
+
+	/**
+	 * Signals a freed seat once the surrounding transaction commits, so a
+	 * cancellation that rolls back promotes nobody.
+	 */
+	public void seatFreed(Long classScheduleId) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					signal(classScheduleId);
+				}
+			});
+		} else {
+			signal(classScheduleId);
+		}
+	}
+
+	/**
+	 * Signals every class that has not started yet and still has both a free seat
+	 * and someone waiting, and forgets idle classes.
+	 *
+	 * @return the number of classes signalled
+	 */
+	public int sweep() {
+		// A signal racing this cleanup can start a second worker for a class; each promotion
+		// is still safe on its own, only the ordering between the two workers loosens
+		drains.values().removeIf(state -> state.get() == IDLE);
+		List<Long> classScheduleIds = waitlistRepository.findClassIdsWithFreeSeats(WaitlistStatus.WAITING,
+				LocalDateTime.now());
+		classScheduleIds.forEach(this::signal);
+		return classScheduleIds.size();
+	}
+
+	private void signal(Long classScheduleId) {
+		AtomicInteger state = drains.computeIfAbsent(classScheduleId, id -> new AtomicInteger());
+		while (true) {
+			int current = state.get();
+			if (current == IDLE) {
+				if (state.compareAndSet(IDLE, RUNNING)) {
+					submit(classScheduleId, state);
+					return;
+				}
+			} else if (current == RERUN || state.compareAndSet(RUNNING, RERUN)) {
+				return;
+			}
+		}
+	}
+
+	private void submit(Long classScheduleId, AtomicInteger state) {
+		try {
+			promotionExecutor.execute(() -> drain(classScheduleId, state));
+		} catch (RejectedExecutionException e) {
+			state.set(IDLE);
+			logger.warn("Promotion queue is full; class {} is left for the next sweep.", classScheduleId);
+		}
+	}
+
+	private void drain(Long classScheduleId, AtomicInteger state) {
+		do {
+			state.set(RUNNING);
+			try {
+				Result result;
+				do {
+					result = promoteWithRetry(classScheduleId);
+				} while (result == Result.PROMOTED || result == Result.SKIPPED);
+			} catch (RuntimeException e) {
+				logger.error("Promoting the waitlist of class {} failed: {}", classScheduleId, e.getMessage(), e);
+			}
+		} while (!state.compareAndSet(RUNNING, IDLE));
+	}
+
+	private Result promoteWithRetry(Long classScheduleId) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		for (int attempt = 1;; attempt++) {
+			try {
+				return transactionTemplate.execute(status -> {
+					Result result = promoteNext(classScheduleId);
+					if (result != Result.PROMOTED) {
+						// Hands a popped entry back to the queue and undoes a taken seat
+						status.setRollbackOnly();
+					}
+					return result;
+				});
+			} catch (TransientDataAccessException | DataIntegrityViolationException e) {
+				// A duplicate key means another worker promoted the same entry first; the next try sees that
+				if (attempt >= maxAttempts) {
+					throw e;
+				}
+				logger.debug("Promotion for class {} failed on attempt {}, retrying: {}", classScheduleId, attempt,
+						e.getMessage());
+				sleep(retryBackoffMs * attempt);
+			}
+		}
+	}
+
+	private Result promoteNext(Long classScheduleId) {
+		ClassSchedule classSchedule = classScheduleRepository.findById(classScheduleId).orElse(null);
+		if (classSchedule == null
+				|| seatInventoryService.getBookedCount(classScheduleId) >= classSchedule.getCapacity()) {
+			return Result.FULL;
+		}
+		// Nobody is moved into a class that has started; its waiters are refunded once it ends
+		if (!classSchedule.getStartTime().isAfter(LocalDateTime.now())) {
+			return Result.EMPTY;
+		}
+		Observation observation = bookingMetrics.start(BookingMetrics.WAITLIST_PROMOTION);
+		String outcome = BookingMetrics.OUTCOME_ERROR;
+		try {
+			Waitlist waitlistEntry = waitlistQueueService.pollNext(classScheduleId).orElse(null);
+			if (waitlistEntry == null) {
+				outcome = BookingMetrics.OUTCOME_EMPTY;
+				return Result.EMPTY;
+			}
+			// Claims the entry first: the refund job moves WAITING entries with the same guard
+			if (waitlistRepository.updateStatus(waitlistEntry.getId(), WaitlistStatus.WAITING,
+					WaitlistStatus.PROMOTED_TO_BOOKING, Instant.now()) == 0) {
+				outcome = BookingMetrics.OUTCOME_REJECTED;
+				return Result.SKIPPED;
+			}
+			// Same check as a direct booking, so a seat taken in the meantime is not double-booked
+			if (!seatInventoryService.tryReserve(classScheduleId, classSchedule.getCapacity())
+					|| classScheduleRepository.reserveSeat(classScheduleId) == 0) {
+				outcome = BookingMetrics.OUTCOME_FULL;
+				return Result.FULL;
+			}
+			// The credits were spent from the entry's package when joining; prefer a package that is still active
+			UserPackage packageToAssociate = userPackageRepository
+					.findActivePackagesForBooking(waitlistEntry.getUser().getId(), classSchedule.getCountry(), 0,
+							LocalDate.now())
+					.stream().findFirst().orElse(waitlistEntry.getUserPackage());
+
+			Booking newBooking = new Booking();
+			newBooking.setUser(waitlistEntry.getUser());
+			newBooking.setClassSchedule(classSchedule);
+			newBooking.setUserPackage(packageToAssociate);
+			newBooking.setStatus(BookingStatus.BOOKED);
+			Booking promotedBooking = bookingRepository.save(newBooking);
+			bookingIntervalService.recordBooked(waitlistEntry.getUser().getId(), promotedBooking.getId(), classSchedule);
+
+			domainEventService.record(DomainEventType.WAITLIST_PROMOTED, classScheduleId,
+					waitlistEntry.getUser().getId(), waitlistEntry.getId(),
+					Map.of("bookingId", promotedBooking.getId()));
+			if (waitlistEntry.getCreatedAt() != null) {
+				bookingMetrics.recordWaitlistWait(Duration.between(waitlistEntry.getCreatedAt(), Instant.now()));
+			}
+			notificationService.enqueue(waitlistEntry.getUser().getEmail(),
+					"You're booked into " + classSchedule.getClassName(),
+					"A seat opened up in " + classSchedule.getClassName() + " starting at "
+							+ classSchedule.getStartTime() + " and you have been moved off the waitlist.",
+					"waitlist-promoted:" + waitlistEntry.getId());
+			outcome = BookingMetrics.OUTCOME_PROMOTED;
+			return Result.PROMOTED;
+		} finally {
+			bookingMetrics.stop(observation, outcome);
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while retrying a waitlist promotion", e);
+		}
+	}
+}
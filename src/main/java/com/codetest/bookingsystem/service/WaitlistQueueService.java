@@ -0,0 +1,202 @@
+package com.codetest.bookingsystem.service;
+
+import com.codetest.bookingsystem.enums.WaitlistStatus;
+import com.codetest.bookingsystem.model.Waitlist;
+import com.codetest.bookingsystem.repository.WaitlistRepository;
+import com.codetest.bookingsystem.repository.WaitlistRepository.QueuedEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Picks the next user to promote off a class's waitlist. With
+ * {@code app.waitlist.engine=redis} each class's WAITING entries are mirrored
+ * in a Redis list, so a cancellation pops the next entry in O(1) instead of
+ * sorting the waitlist table. The table stays the durable record: ids are
+ * pushed once the joining transaction commits, a popped entry is pushed back
+ * if the promoting transaction rolls back, and popped ids are re-checked
+ * against the table, so a stale queue can delay a promotion but never promote
+ * an entry that is no longer waiting. While the queues are missing (e.g. after
+ * Redis lost its data) or Redis is unreachable, the table is queried instead
+ * until {@link #rebuild()} has run.
+ */
+@Service
+public class WaitlistQueueService {
+
+	private static final Logger logger = LoggerFactory.getLogger(WaitlistQueueService.class);
+
+	public static final String ENGINE_DATABASE = "database";
+	public static final String ENGINE_REDIS = "redis";
+
+	static final String KEY_PREFIX = "waitlist:class:";
+	// Written by every rebuild; its absence means the queues cannot be trusted
+	static final String BUILT_KEY = "waitlist:queues-built";
+
+	@Autowired
+	private WaitlistRepository waitlistRepository;
+
+	@Autowired(required = false)
+	private StringRedisTemplate redisTemplate;
+
+	@Value("${app.waitlist.engine:database}")
+	private String engine;
+
+	public boolean isRedisEnabled() {
+		return ENGINE_REDIS.equals(engine) && redisTemplate != null;
+	}
+
+	/**
+	 * Appends a new waitlist entry to its class's queue once the surrounding
+	 * transaction commits. A failed push is only logged; the next rebuild adds
+	 * the entry.
+	 */
+	public void enqueue(Long classScheduleId, Long waitlistId) {
+		if (!isRedisEnabled()) {
+			return;
+		}
+		afterCommit(() -> {
+			try {
+				redisTemplate.opsForList().rightPush(key(classScheduleId), String.valueOf(waitlistId));
+			} catch (DataAccessException e) {
+				logger.warn("Could not queue waitlist entry {} for class {}: {}", waitlistId, classScheduleId,
+						e.getMessage());
+			}
+		});
+	}
+
+	/**
+	 * Takes the longest waiting entry of a class off its queue.
+	 */
+	public Optional<Waitlist> pollNext(Long classScheduleId) {
+		if (!isRedisEnabled()) {
+			return findFirstWaiting(classScheduleId);
+		}
+		String key = key(classScheduleId);
+		try {
+			if (!Boolean.TRUE.equals(redisTemplate.hasKey(BUILT_KEY))) {
+				logger.warn("Waitlist queues are not built; reading the waitlist of class {} from the database.",
+						classScheduleId);
+				return findFirstWaiting(classScheduleId);
+			}
+			String id;
+			while ((id = redisTemplate.opsForList().leftPop(key)) != null) {
+				Optional<Waitlist> entry = waitlistRepository.findById(Long.valueOf(id))
+						.filter(waitlist -> waitlist.getStatus() == WaitlistStatus.WAITING);
+				if (entry.isPresent()) {
+					pushBackOnRollback(key, id);
+					return entry;
+				}
+				// Refunded or already promoted through the database fallback
+			}
+			return Optional.empty();
+		} catch (DataAccessException e) {
+			logger.warn("Waitlist queue of class {} is unavailable; reading it from the database: {}",
+					classScheduleId, e.getMessage());
+			return findFirstWaiting(classScheduleId);
+		}
+	}
+
+	/**
+	 * Recreates the queue of every class that has not ended from the waitlist
+	 * table and drops queues of classes nobody waits for any more. Each queue is
+	 * replaced atomically, so concurrent pops see either the old or the new one.
+	 * An entry that commits while the table is being read can be left out until
+	 * the next rebuild.
+	 *
+	 * @return the number of entries queued
+	 */
+	public int rebuild() {
+		if (!isRedisEnabled()) {
+			return 0;
+		}
+		Map<String, List<String>> queues = new LinkedHashMap<>();
+		List<QueuedEntry> entries = waitlistRepository.findQueuedEntries(WaitlistStatus.WAITING, LocalDateTime.now());
+		entries.forEach(entry -> queues.computeIfAbsent(key(entry.getClassScheduleId()), k -> new ArrayList<>())
+				.add(String.valueOf(entry.getId())));
+
+		Set<String> staleKeys = new HashSet<>();
+		try (Cursor<String> keys = redisTemplate.scan(ScanOptions.scanOptions().match(KEY_PREFIX + "*").build())) {
+			keys.forEachRemaining(staleKeys::add);
+		}
+		staleKeys.removeAll(queues.keySet());
+		if (!staleKeys.isEmpty()) {
+			redisTemplate.delete(staleKeys);
+		}
+		queues.forEach(this::replaceQueue);
+		redisTemplate.opsForValue().set(BUILT_KEY, LocalDateTime.now().toString());
+		logger.info("Rebuilt {} waitlist queues with {} entries.", queues.size(), entries.size());
+		return entries.size();
+	}
+
+	private Optional<Waitlist> findFirstWaiting(Long classScheduleId) {
+		return waitlistRepository.findFirstByClassScheduleIdAndStatusOrderByCreatedAtAsc(classScheduleId,
+				WaitlistStatus.WAITING);
+	}
+
+	private void replaceQueue(String key, List<String> ids) {
+		redisTemplate.execute(new SessionCallback<List<Object>>() {
+			@Override
+			@SuppressWarnings({ "unchecked", "rawtypes" })
+			public List<Object> execute(RedisOperations operations) {
+				operations.multi();
+				operations.delete(key);
+				operations.opsForList().rightPushAll(key, ids);
+				return operations.exec();
+			}
+		});
+	}
+
+	private void pushBackOnRollback(String key, String id) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status != STATUS_COMMITTED) {
+					try {
+						redisTemplate.opsForList().leftPush(key, id);
+					} catch (DataAccessException e) {
+						logger.warn("Could not requeue waitlist entry {}: {}", id, e.getMessage());
+					}
+				}
+			}
+		});
+	}
+
+	private void afterCommit(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
+
+	private static String key(Long classScheduleId) {
+		return KEY_PREFIX + classScheduleId;
+	}
+}
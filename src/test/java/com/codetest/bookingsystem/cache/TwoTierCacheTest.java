@@ -0,0 +1,142 @@
+package com.codetest.bookingsystem.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.codetest.bookingsystem.config.CacheConfig;
+import com.codetest.bookingsystem.dto.response.ClassScheduleResponse;
+import com.codetest.bookingsystem.dto.response.CursorPage;
+import com.codetest.bookingsystem.enums.Country;
+import com.codetest.bookingsystem.util.EmbeddedRedis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class TwoTierCacheTest {
+
+	private static EmbeddedRedis redis;
+
+	private final List<RedisMessageListenerContainer> containers = new ArrayList<>();
+
+	private TwoTierCacheManager instanceA;
+	private TwoTierCacheManager instanceB;
+
+	@BeforeAll
+	static void startRedis() throws Exception {
+		redis = EmbeddedRedis.start();
+	}
+
+	@AfterAll
+	static void stopRedis() throws Exception {
+		redis.stop();
+	}
+
+	@BeforeEach
+	void setUp() {
+		redis.flushAll();
+		instanceA = newInstance();
+		instanceB = newInstance();
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		for (RedisMessageListenerContainer container : containers) {
+			container.destroy();
+		}
+	}
+
+	// Simulates one application instance: its own local tier, sharing Redis with the others
+	private TwoTierCacheManager newInstance() {
+		CacheConfig cacheConfig = new CacheConfig();
+		ReflectionTestUtils.setField(cacheConfig, "localMaxSize", 100L);
+		ReflectionTestUtils.setField(cacheConfig, "localTtlSeconds", 60L);
+		ReflectionTestUtils.setField(cacheConfig, "redisTtlSeconds", 60L);
+		RedisConnectionFactory connectionFactory = redis.template().getConnectionFactory();
+		TwoTierCacheManager cacheManager = cacheConfig.cacheManager(connectionFactory, redis.template());
+		cacheManager.afterPropertiesSet();
+		RedisMessageListenerContainer container = cacheConfig.cacheInvalidationListenerContainer(connectionFactory,
+				cacheManager);
+		container.afterPropertiesSet();
+		container.start();
+		containers.add(container);
+		return cacheManager;
+	}
+
+	private TwoTierCache cache(TwoTierCacheManager cacheManager) {
+		return (TwoTierCache) cacheManager.getCache(CacheConfig.SCHEDULE_CATALOGUE);
+	}
+
+	private CursorPage<ClassScheduleResponse> samplePage() {
+		LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+		List<ClassScheduleResponse> items = new ArrayList<>();
+		items.add(new ClassScheduleResponse(1L, "Yoga", start, start.plusHours(1), 10, Country.SINGAPORE, 1, 0));
+		return new CursorPage<>(items, "next");
+	}
+
+	@Test
+	void get_shouldLoadOnceAndServeOtherInstancesFromRedis() {
+		AtomicInteger loads = new AtomicInteger();
+		CursorPage<ClassScheduleResponse> page = samplePage();
+
+		cache(instanceA).get("SINGAPORE:null:50", () -> {
+			loads.incrementAndGet();
+			return page;
+		});
+		Object fromRedis = cache(instanceB).get("SINGAPORE:null:50", () -> {
+			loads.incrementAndGet();
+			return page;
+		});
+
+		assertEquals(1, loads.get(), "Second instance should be served by Redis");
+		CursorPage<?> restored = assertInstanceOf(CursorPage.class, fromRedis);
+		assertEquals(page, restored, "Cached value should survive the Redis round trip");
+		assertEquals(1, cache(instanceB).getRemoteHits());
+		assertEquals(1L, cache(instanceB).getLocalCache().estimatedSize(), "Redis hit should fill the local tier");
+	}
+
+	@Test
+	void clear_shouldDropLocalCopiesOnOtherInstances() throws Exception {
+		cache(instanceA).put("SINGAPORE:null:50", samplePage());
+		assertTrue(cache(instanceB).get("SINGAPORE:null:50") != null);
+
+		cache(instanceA).clear();
+
+		long deadline = System.currentTimeMillis() + 2000;
+		while (cache(instanceB).getLocalCache().estimatedSize() > 0 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertEquals(0L, cache(instanceB).getLocalCache().estimatedSize());
+		assertNull(cache(instanceB).get("SINGAPORE:null:50"));
+	}
+
+	@Test
+	void metrics_shouldReportHitsAndMissesAcrossTiers() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		new TwoTierCacheMetrics(cache(instanceB), List.of()).bindTo(registry);
+
+		assertNull(cache(instanceB).get("missing"));
+		cache(instanceA).put("present", samplePage());
+		cache(instanceB).get("present"); // remote hit
+		cache(instanceB).get("present"); // local hit
+
+		assertEquals(2.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+		assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+		assertEquals(1.0,
+				registry.get("cache.tier.gets").tag("tier", "remote").tag("result", "hit").functionCounter().count());
+	}
+}
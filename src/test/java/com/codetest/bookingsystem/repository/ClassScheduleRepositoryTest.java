@@ -0,0 +1,93 @@
+package com.codetest.bookingsystem.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import com.codetest.bookingsystem.enums.BookingStatus;
+import com.codetest.bookingsystem.enums.Country;
+import com.codetest.bookingsystem.enums.Role;
+import com.codetest.bookingsystem.model.AppUser;
+import com.codetest.bookingsystem.model.Booking;
+import com.codetest.bookingsystem.model.ClassSchedule;
+import com.codetest.bookingsystem.model.CreditPackage;
+import com.codetest.bookingsystem.model.UserPackage;
+
+@DataJpaTest(properties = { "spring.sql.init.mode=never",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect" })
+public class ClassScheduleRepositoryTest {
+
+	@Autowired
+	private ClassScheduleRepository classScheduleRepository;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private AppUser user;
+	private UserPackage userPackage;
+	private ClassSchedule classSchedule;
+
+	@BeforeEach
+	void setUp() {
+		user = entityManager
+				.persist(new AppUser(null, "booker", "password", "booker@example.com", Role.USER, true, null, 0));
+		CreditPackage creditPackage = entityManager
+				.persist(new CreditPackage(null, "Basic", 5, BigDecimal.TEN, Country.SINGAPORE, 30));
+		userPackage = entityManager.persist(
+				new UserPackage(null, user, creditPackage, 5, LocalDate.now(), LocalDate.now().plusDays(30)));
+		LocalDateTime start = LocalDateTime.now().plusDays(1);
+		classSchedule = entityManager.persist(
+				new ClassSchedule(null, "Yoga", start, start.plusHours(1), 2, Country.SINGAPORE, 1, 0));
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void reserveSeat_shouldStopAtCapacity() {
+		assertEquals(1, classScheduleRepository.reserveSeat(classSchedule.getId()));
+		assertEquals(1, classScheduleRepository.reserveSeat(classSchedule.getId()));
+		assertEquals(0, classScheduleRepository.reserveSeat(classSchedule.getId()), "The class is full");
+
+		assertEquals(1, classScheduleRepository.releaseSeat(classSchedule.getId()));
+		assertEquals(1, classScheduleRepository.reserveSeat(classSchedule.getId()));
+		assertEquals(2, bookedCount());
+	}
+
+	@Test
+	void recountBookedSeats_shouldMatchTheBookingTable() {
+		classScheduleRepository.reserveSeat(classSchedule.getId());
+		classScheduleRepository.reserveSeat(classSchedule.getId());
+		entityManager.persist(new Booking(null, user, classSchedule, userPackage, BookingStatus.BOOKED));
+		entityManager.flush();
+
+		classScheduleRepository.recountBookedSeats(BookingStatus.BOOKED, LocalDateTime.now());
+
+		assertEquals(1, bookedCount());
+	}
+
+	@Test
+	void booking_shouldBeUniquePerUserAndClass() {
+		bookingRepository.saveAndFlush(new Booking(null, user, classSchedule, userPackage, BookingStatus.BOOKED));
+
+		assertThrows(DataIntegrityViolationException.class, () -> bookingRepository
+				.saveAndFlush(new Booking(null, user, classSchedule, userPackage, BookingStatus.BOOKED)));
+	}
+
+	private int bookedCount() {
+		entityManager.clear();
+		return entityManager.find(ClassSchedule.class, classSchedule.getId()).getBookedCount();
+	}
+}
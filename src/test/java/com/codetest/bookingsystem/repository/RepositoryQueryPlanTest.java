@@ -0,0 +1,141 @@
+package com.codetest.bookingsystem.repository;
+
+import static com.codetest.bookingsystem.util.QueryPlanChecker.assertNoFullScans;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.codetest.bookingsystem.enums.BookingStatus;
+import com.codetest.bookingsystem.enums.Country;
+import com.codetest.bookingsystem.enums.Role;
+import com.codetest.bookingsystem.enums.WaitlistStatus;
+import com.codetest.bookingsystem.model.AppUser;
+import com.codetest.bookingsystem.model.Booking;
+import com.codetest.bookingsystem.model.ClassSchedule;
+import com.codetest.bookingsystem.model.CreditPackage;
+import com.codetest.bookingsystem.model.UserPackage;
+import com.codetest.bookingsystem.model.Waitlist;
+
+/**
+ * Checks that the finders on the booking, waitlist and scheduler hot paths are
+ * served by an index on a seeded dataset, so a dropped or mistyped
+ * {@code @Index} fails the build instead of surfacing as slow queries.
+ */
+@DataJpaTest(properties = { "spring.sql.init.mode=never",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.codetest.bookingsystem.util.QueryPlanChecker" })
+public class RepositoryQueryPlanTest {
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private WaitlistRepository waitlistRepository;
+
+	@Autowired
+	private UserPackageRepository userPackageRepository;
+
+	@Autowired
+	private ClassScheduleRepository classScheduleRepository;
+
+	@Autowired
+	private CreditLedgerRepository creditLedgerRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private final LocalDateTime now = LocalDateTime.now();
+	private Long userId;
+	private Long classScheduleId;
+
+	@BeforeEach
+	void setUp() {
+		CreditPackage creditPackage = entityManager
+				.persist(new CreditPackage(null, "Basic", 10, BigDecimal.TEN, Country.SINGAPORE, 30));
+		List<ClassSchedule> classes = new ArrayList<>();
+		Country[] countries = Country.values();
+		for (int i = 0; i < 300; i++) {
+			LocalDateTime start = now.plusHours(i - 150);
+			classes.add(entityManager.persist(new ClassSchedule(null, "Class " + i, start, start.plusHours(1), 20,
+					countries[i % countries.length], 1, 0)));
+		}
+		for (int u = 0; u < 60; u++) {
+			AppUser user = entityManager.persist(
+					new AppUser(null, "user" + u, "password", "user" + u + "@example.com", Role.USER, true, null, 0));
+			UserPackage userPackage = entityManager.persist(new UserPackage(null, user, creditPackage, 10,
+					LocalDate.now().minusDays(u % 10), LocalDate.now().plusDays(u % 40)));
+			for (int c = 0; c < 10; c++) {
+				ClassSchedule classSchedule = classes.get((u * 7 + c * 31) % classes.size());
+				entityManager.persist(new Booking(null, user, classSchedule, userPackage,
+						c % 4 == 0 ? BookingStatus.CANCELLED : BookingStatus.BOOKED));
+				entityManager.persist(new Waitlist(null, user, classes.get((u * 11 + c * 17 + 3) % classes.size()),
+						c % 3 == 0 ? WaitlistStatus.CREDIT_REFUNDED : WaitlistStatus.WAITING, userPackage));
+			}
+			userId = user.getId();
+		}
+		classScheduleId = classes.get(200).getId();
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void bookingFinders_shouldUseIndexes() {
+		assertNoFullScans(jdbcTemplate, "countByClassScheduleIdAndStatus",
+				() -> bookingRepository.countByClassScheduleIdAndStatus(classScheduleId, BookingStatus.BOOKED));
+		assertNoFullScans(jdbcTemplate, "countByClassScheduleIdsAndStatus", () -> bookingRepository
+				.countByClassScheduleIdsAndStatus(List.of(classScheduleId, classScheduleId + 1), BookingStatus.BOOKED));
+		assertNoFullScans(jdbcTemplate, "findByUserIdAndClassScheduleId",
+				() -> bookingRepository.findByUserIdAndClassScheduleId(userId, classScheduleId));
+		assertNoFullScans(jdbcTemplate, "findOverlappingBookings",
+				() -> bookingRepository.findOverlappingBookings(userId, now, now.plusHours(1)));
+		assertNoFullScans(jdbcTemplate, "findClassIdsBookedByUser", () -> bookingRepository
+				.findClassIdsBookedByUser(userId, List.of(classScheduleId, classScheduleId + 1)));
+		assertNoFullScans(jdbcTemplate, "findBookedClassesOverlapping",
+				() -> bookingRepository.findBookedClassesOverlapping(userId, now, now.plusDays(7)));
+		assertNoFullScans(jdbcTemplate, "findIntervalsByUserId",
+				() -> bookingRepository.findIntervalsByUserId(userId, BookingStatus.BOOKED, now));
+		assertNoFullScans(jdbcTemplate, "findPageWithDetailsByUserId",
+				() -> bookingRepository.findPageWithDetailsByUserId(userId, null, null, Limit.of(20)));
+	}
+
+	@Test
+	void waitlistFinders_shouldUseIndexes() {
+		assertNoFullScans(jdbcTemplate, "findFirstByClassScheduleIdAndStatusOrderByCreatedAtAsc",
+				() -> waitlistRepository.findFirstByClassScheduleIdAndStatusOrderByCreatedAtAsc(classScheduleId,
+						WaitlistStatus.WAITING));
+		assertNoFullScans(jdbcTemplate, "findByUserIdAndClassScheduleId",
+				() -> waitlistRepository.findByUserIdAndClassScheduleId(userId, classScheduleId));
+		assertNoFullScans(jdbcTemplate, "findClassIdsWaitlistedByUser", () -> waitlistRepository
+				.findClassIdsWaitlistedByUser(userId, List.of(classScheduleId, classScheduleId + 1)));
+		assertNoFullScans(jdbcTemplate, "findRefundChunk", () -> waitlistRepository
+				.findRefundChunk(classScheduleId, WaitlistStatus.WAITING, 0L, Limit.of(500)));
+		assertNoFullScans(jdbcTemplate, "findClassIdsEndedBetween", () -> waitlistRepository
+				.findClassIdsEndedBetween(WaitlistStatus.WAITING, now.minusMinutes(15), now));
+	}
+
+	@Test
+	void packageAndScheduleFinders_shouldUseIndexes() {
+		assertNoFullScans(jdbcTemplate, "findActivePackagesForBooking", () -> userPackageRepository
+				.findActivePackagesForBooking(userId, Country.SINGAPORE, 1, LocalDate.now()));
+		assertNoFullScans(jdbcTemplate, "findUpcomingPage", () -> classScheduleRepository
+				.findUpcomingPage(Country.SINGAPORE, now, null, null, Limit.of(20)));
+		assertNoFullScans(jdbcTemplate, "findByEndTimeBetween",
+				() -> classScheduleRepository.findByEndTimeBetween(now.minusMinutes(15), now));
+		assertNoFullScans(jdbcTemplate, "findBalancesAfter",
+				() -> creditLedgerRepository.findBalancesAfter(0L, Limit.of(1000)));
+	}
+}
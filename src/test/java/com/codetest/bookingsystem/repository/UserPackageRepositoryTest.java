@@ -0,0 +1,85 @@
+package com.codetest.bookingsystem.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.codetest.bookingsystem.enums.Country;
+import com.codetest.bookingsystem.enums.Role;
+import com.codetest.bookingsystem.model.AppUser;
+import com.codetest.bookingsystem.model.CreditPackage;
+import com.codetest.bookingsystem.model.UserPackage;
+
+@DataJpaTest(properties = { "spring.sql.init.mode=never",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect" })
+public class UserPackageRepositoryTest {
+
+	@Autowired
+	private UserPackageRepository userPackageRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private Long packageId;
+
+	@BeforeEach
+	void setUp() {
+		AppUser user = entityManager
+				.persist(new AppUser(null, "spender", "password", "spender@example.com", Role.USER, true, null, 0));
+		CreditPackage creditPackage = entityManager
+				.persist(new CreditPackage(null, "Basic", 5, BigDecimal.TEN, Country.SINGAPORE, 30));
+		packageId = entityManager.persist(
+				new UserPackage(null, user, creditPackage, 5, LocalDate.now(), LocalDate.now().plusDays(30))).getId();
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void deductCredits_shouldNeverOverdrawThePackage() {
+		assertEquals(1, userPackageRepository.deductCredits(packageId, 3, Instant.now()));
+		assertEquals(0, userPackageRepository.deductCredits(packageId, 3, Instant.now()),
+				"A second spend that would go negative is refused");
+		assertEquals(1, userPackageRepository.deductCredits(packageId, 2, Instant.now()));
+
+		assertEquals(0, remainingCredits());
+	}
+
+	@Test
+	void remainingCredits_shouldNotBeOverwrittenByAStaleEntity() {
+		UserPackage stale = userPackageRepository.findById(packageId).orElseThrow();
+		userPackageRepository.deductCredits(packageId, 3, Instant.now());
+
+		// A booking that still holds the old balance saves the package for some other change
+		stale.setRemainingCredits(5);
+		stale.setExpiryDate(LocalDate.now().plusDays(60));
+		userPackageRepository.saveAndFlush(stale);
+		entityManager.clear();
+
+		assertEquals(2, remainingCredits());
+		userPackageRepository.refundCredits(packageId, 3, Instant.now());
+		assertEquals(5, remainingCredits());
+	}
+
+	@Test
+	void findRemainingCreditsById_shouldSeeTheSpendWhileTheManagedEntityIsStale() {
+		UserPackage managed = userPackageRepository.findById(packageId).orElseThrow();
+		userPackageRepository.deductCredits(packageId, 2, Instant.now());
+
+		assertEquals(5, userPackageRepository.findById(packageId).orElseThrow().getRemainingCredits(),
+				"The persistence context hands back the copy loaded before the spend");
+		assertEquals(3, userPackageRepository.findRemainingCreditsById(managed.getId()));
+	}
+
+	private int remainingCredits() {
+		entityManager.clear();
+		return entityManager.find(UserPackage.class, packageId).getRemainingCredits();
+	}
+}
@@ -0,0 +1,90 @@
+package com.codetest.bookingsystem.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import org.junit.jupiter.api.Test;
+import org.quartz.CronTrigger;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.Trigger;
+import org.quartz.TriggerKey;
+import org.quartz.impl.matchers.GroupMatcher;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.quartz.QuartzAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.scheduling.quartz.LocalDataSourceJobStore;
+
+import com.codetest.bookingsystem.config.QuartzConfig;
+
+/**
+ * Boots the Quartz configuration against an embedded H2 job store, the same way
+ * production runs it against MySQL.
+ */
+public class ClassCompletionJobTest {
+
+	private final ClassCompletionScheduler classCompletionScheduler = mock(ClassCompletionScheduler.class);
+
+	private final CreditLedgerScheduler creditLedgerScheduler = mock(CreditLedgerScheduler.class);
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+			.withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class,
+					DataSourceTransactionManagerAutoConfiguration.class, QuartzAutoConfiguration.class))
+			.withUserConfiguration(QuartzConfig.class)
+			// Registered as ready-made singletons so their @Autowired fields are left alone
+			.withInitializer(context -> {
+				context.getBeanFactory().registerSingleton("classCompletionScheduler", classCompletionScheduler);
+				context.getBeanFactory().registerSingleton("creditLedgerScheduler", creditLedgerScheduler);
+			})
+			.withPropertyValues("spring.datasource.url=jdbc:h2:mem:quartz;DB_CLOSE_DELAY=-1",
+					"spring.quartz.job-store-type=jdbc", "spring.quartz.jdbc.initialize-schema=always",
+					"spring.quartz.jdbc.schema=classpath:db/quartz/tables_h2.sql",
+					"spring.quartz.properties.org.quartz.scheduler.instanceId=AUTO",
+					"spring.quartz.properties.org.quartz.jobStore.isClustered=true",
+					"spring.quartz.properties.org.quartz.jobStore.driverDelegateClass=org.quartz.impl.jdbcjobstore.StdJDBCDelegate");
+
+	@Test
+	void classCompletionJob_shouldBeStoredInClusteredJdbcJobStore() {
+		contextRunner.run(context -> {
+			Scheduler scheduler = context.getBean(Scheduler.class);
+			assertEquals(LocalDataSourceJobStore.class, scheduler.getMetaData().getJobStoreClass());
+			assertTrue(scheduler.getMetaData().isJobStoreClustered());
+
+			CronTrigger trigger = (CronTrigger) scheduler
+					.getTrigger(TriggerKey.triggerKey("classCompletionTrigger", QuartzConfig.JOB_GROUP));
+			assertEquals("0 0 * * * ?", trigger.getCronExpression());
+			assertEquals(CronTrigger.MISFIRE_INSTRUCTION_FIRE_ONCE_NOW, trigger.getMisfireInstruction());
+			assertTrue(scheduler.getJobDetail(JobKey.jobKey("classCompletion", QuartzConfig.JOB_GROUP))
+					.requestsRecovery());
+		});
+	}
+
+	@Test
+	void classCompletionJob_shouldRunTheRefundWhenFired() {
+		contextRunner.run(context -> {
+			Scheduler scheduler = context.getBean(Scheduler.class);
+			scheduler.triggerJob(JobKey.jobKey("classCompletion", QuartzConfig.JOB_GROUP));
+
+			verify(classCompletionScheduler, timeout(10000)).processEndedClassesAndWaitlists();
+		});
+	}
+
+	@Test
+	void creditLedgerJob_shouldRunTheReconcileWhenFired() {
+		contextRunner.run(context -> {
+			Scheduler scheduler = context.getBean(Scheduler.class);
+			scheduler.triggerJob(JobKey.jobKey("creditLedgerReconcile", QuartzConfig.JOB_GROUP));
+
+			verify(creditLedgerScheduler, timeout(10000)).reconcileCreditLedger();
+			for (TriggerKey key : scheduler.getTriggerKeys(GroupMatcher.triggerGroupEquals(QuartzConfig.JOB_GROUP))) {
+				assertNotEquals(Trigger.TriggerState.ERROR, scheduler.getTriggerState(key), key.toString());
+			}
+		});
+	}
+}
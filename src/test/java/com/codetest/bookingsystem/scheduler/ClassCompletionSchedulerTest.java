@@ -0,0 +1,93 @@
+package com.codetest.bookingsystem.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.codetest.bookingsystem.service.BookingMetrics;
+import com.codetest.bookingsystem.service.JobWatermarkService;
+import com.codetest.bookingsystem.service.SchedulerService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class ClassCompletionSchedulerTest {
+
+	@Mock
+	private SchedulerService schedulerService;
+	@Mock
+	private JobWatermarkService jobWatermarkService;
+	@InjectMocks
+	private ClassCompletionScheduler scheduler;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(scheduler, "bookingMetrics",
+				new BookingMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP));
+		ReflectionTestUtils.setField(scheduler, "leaseSeconds", 300L);
+		ReflectionTestUtils.setField(scheduler, "batchWindowMinutes", 60L);
+	}
+
+	@Test
+	void processEndedClasses_shouldCatchUpInContiguousBoundedWindows() {
+		LocalDateTime watermark = LocalDateTime.now().minusMinutes(150);
+		when(jobWatermarkService.claim(eq(ClassCompletionScheduler.JOB_NAME), any(), any())).thenReturn(watermark);
+		when(jobWatermarkService.advance(eq(ClassCompletionScheduler.JOB_NAME), any(), any())).thenReturn(true);
+
+		scheduler.processEndedClassesAndWaitlists();
+
+		ArgumentCaptor<LocalDateTime> from = ArgumentCaptor.forClass(LocalDateTime.class);
+		ArgumentCaptor<LocalDateTime> to = ArgumentCaptor.forClass(LocalDateTime.class);
+		verify(schedulerService, times(3)).refundWaitlistsForClassesEndedBetween(from.capture(), to.capture());
+		List<LocalDateTime> starts = from.getAllValues();
+		List<LocalDateTime> ends = to.getAllValues();
+		assertEquals(watermark, starts.get(0));
+		for (int i = 0; i < 3; i++) {
+			assertTrue(Duration.between(starts.get(i), ends.get(i)).toMinutes() <= 60);
+			if (i > 0) {
+				assertEquals(ends.get(i - 1), starts.get(i), "Windows must be contiguous");
+			}
+		}
+		verify(jobWatermarkService).release(ClassCompletionScheduler.JOB_NAME);
+	}
+
+	@Test
+	void processEndedClasses_shouldSkipWhenAnotherNodeHoldsLease() {
+		when(jobWatermarkService.claim(eq(ClassCompletionScheduler.JOB_NAME), any(), any())).thenReturn(null);
+
+		scheduler.processEndedClassesAndWaitlists();
+
+		verify(schedulerService, never()).refundWaitlistsForClassesEndedBetween(any(), any());
+		verify(jobWatermarkService, never()).release(any());
+	}
+
+	@Test
+	void processEndedClasses_shouldStopWhenLeaseIsLost() {
+		when(jobWatermarkService.claim(eq(ClassCompletionScheduler.JOB_NAME), any(), any()))
+				.thenReturn(LocalDateTime.now().minusHours(5));
+		when(jobWatermarkService.advance(eq(ClassCompletionScheduler.JOB_NAME), any(), any())).thenReturn(false);
+
+		scheduler.processEndedClassesAndWaitlists();
+
+		verify(schedulerService, times(1)).refundWaitlistsForClassesEndedBetween(any(), any());
+	}
+}
@@ -0,0 +1,140 @@
+package com.codetest.bookingsystem.scheduler;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.quartz.JobBuilder;
+import org.quartz.JobDataMap;
+import org.quartz.JobExecutionContext;
+import org.quartz.Scheduler;
+import org.quartz.Trigger;
+import org.quartz.impl.StdSchedulerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.codetest.bookingsystem.config.QuartzConfig;
+import com.codetest.bookingsystem.repository.ClassScheduleRepository;
+import com.codetest.bookingsystem.repository.ClassScheduleRepository.ClassEndTime;
+import com.codetest.bookingsystem.service.BookingMetrics;
+import com.codetest.bookingsystem.service.SchedulerService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+
+public class ClassEndTimersTest {
+
+	private Scheduler scheduler;
+	private ClassScheduleRepository classScheduleRepository;
+	private ClassEndTimers classEndTimers;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		// In-memory scheduler that is never started, so triggers are stored but do not fire
+		Properties properties = new Properties();
+		properties.setProperty(StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, "class-end-timers-test");
+		properties.setProperty(StdSchedulerFactory.PROP_JOB_STORE_CLASS, "org.quartz.simpl.RAMJobStore");
+		properties.setProperty("org.quartz.threadPool.threadCount", "1");
+		scheduler = new StdSchedulerFactory(properties).getScheduler();
+		scheduler.addJob(JobBuilder.newJob(ClassEndJob.class).withIdentity(QuartzConfig.CLASS_END_JOB).storeDurably()
+				.build(), false);
+
+		classScheduleRepository = mock(ClassScheduleRepository.class);
+		classEndTimers = new ClassEndTimers();
+		ReflectionTestUtils.setField(classEndTimers, "scheduler", scheduler);
+		ReflectionTestUtils.setField(classEndTimers, "classScheduleRepository", classScheduleRepository);
+		ReflectionTestUtils.setField(classEndTimers, "delaySeconds", 5L);
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		scheduler.shutdown();
+	}
+
+	@Test
+	void schedule_shouldFireJustAfterTheClassEndsAndMoveWhenRescheduled() throws Exception {
+		LocalDateTime endTime = LocalDateTime.now().plusHours(2).withNano(0);
+		classEndTimers.schedule(7L, endTime);
+		classEndTimers.schedule(7L, endTime.plusHours(1));
+
+		Trigger trigger = scheduler.getTrigger(ClassEndTimers.triggerKey(7L));
+		assertEquals(date(endTime.plusHours(1).plusSeconds(5)), trigger.getStartTime());
+		assertEquals(QuartzConfig.CLASS_END_JOB, trigger.getJobKey());
+		assertEquals(7L, trigger.getJobDataMap().getLong(ClassEndTimers.CLASS_SCHEDULE_ID));
+		assertEquals(1, scheduler.getTriggersOfJob(QuartzConfig.CLASS_END_JOB).size());
+	}
+
+	@Test
+	void cancel_shouldRemoveTheTimer() throws Exception {
+		classEndTimers.schedule(7L, LocalDateTime.now().plusHours(2));
+		classEndTimers.cancel(7L);
+
+		assertNull(scheduler.getTrigger(ClassEndTimers.triggerKey(7L)));
+		assertFalse(scheduler.checkExists(ClassEndTimers.triggerKey(7L)));
+	}
+
+	@Test
+	void rebuild_shouldRegisterMissingTimersOnly() throws Exception {
+		LocalDateTime existingEnd = LocalDateTime.now().plusHours(1).withNano(0);
+		LocalDateTime missingEnd = LocalDateTime.now().plusHours(3).withNano(0);
+		classEndTimers.schedule(1L, existingEnd);
+		when(classScheduleRepository.findEndTimesAfter(any()))
+				.thenReturn(List.of(classEnd(1L, existingEnd.plusHours(5)), classEnd(2L, missingEnd)));
+
+		classEndTimers.rebuild();
+
+		assertEquals(date(existingEnd.plusSeconds(5)),
+				scheduler.getTrigger(ClassEndTimers.triggerKey(1L)).getStartTime());
+		assertEquals(date(missingEnd.plusSeconds(5)),
+				scheduler.getTrigger(ClassEndTimers.triggerKey(2L)).getStartTime());
+	}
+
+	@Test
+	void classEndJob_shouldRefundTheClassFromItsJobData() throws Exception {
+		SchedulerService schedulerService = mock(SchedulerService.class);
+		when(schedulerService.refundWaitlistsForClass(7L)).thenReturn(3);
+		ClassEndJob job = new ClassEndJob();
+		ReflectionTestUtils.setField(job, "schedulerService", schedulerService);
+		ReflectionTestUtils.setField(job, "bookingMetrics",
+				new BookingMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP));
+		JobExecutionContext context = mock(JobExecutionContext.class);
+		when(context.getMergedJobDataMap())
+				.thenReturn(new JobDataMap(Map.of(ClassEndTimers.CLASS_SCHEDULE_ID, 7L)));
+		when(context.getScheduler()).thenReturn(scheduler);
+
+		job.execute(context);
+
+		verify(schedulerService).refundWaitlistsForClass(7L);
+	}
+
+	private static ClassEndTime classEnd(Long id, LocalDateTime endTime) {
+		return new ClassEndTime() {
+			@Override
+			public Long getId() {
+				return id;
+			}
+
+			@Override
+			public LocalDateTime getEndTime() {
+				return endTime;
+			}
+		};
+	}
+
+	private static Date date(LocalDateTime dateTime) {
+		return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+	}
+}
@@ -0,0 +1,89 @@
+package com.codetest.bookingsystem.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.codetest.bookingsystem.enums.Role;
+import com.codetest.bookingsystem.model.AppUser;
+
+public class AuthTokenFilterTest {
+
+	private JwtTokenProvider jwtTokenProvider;
+	private UserDetailsServiceImpl userDetailsService;
+	private TokenVersionService tokenVersionService;
+	private AuthTokenFilter filter;
+	private String token;
+
+	@BeforeEach
+	void setUp() {
+		jwtTokenProvider = new JwtTokenProvider();
+		ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret",
+				"404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+		ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationMs", 60000);
+		ReflectionTestUtils.setField(jwtTokenProvider, "validatedCacheSize", 100L);
+		jwtTokenProvider.init();
+
+		userDetailsService = mock(UserDetailsServiceImpl.class);
+		tokenVersionService = mock(TokenVersionService.class);
+		filter = new AuthTokenFilter();
+		ReflectionTestUtils.setField(filter, "tokenProvider", jwtTokenProvider);
+		ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+		ReflectionTestUtils.setField(filter, "tokenVersionService", tokenVersionService);
+		ReflectionTestUtils.setField(filter, "stateless", true);
+
+		UserDetailsImpl principal = UserDetailsImpl
+				.build(new AppUser(7L, "testuser", "password", "test@example.com", Role.USER, true, null, 3));
+		token = jwtTokenProvider.generateJwtToken(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void doFilter_shouldAuthenticateFromClaimsWithoutLoadingUser() throws Exception {
+		when(tokenVersionService.getTokenVersion(7L)).thenReturn(3);
+
+		filter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		UserDetailsImpl principal = (UserDetailsImpl) authentication.getPrincipal();
+		assertEquals(7L, principal.getId());
+		assertEquals("testuser", principal.getUsername());
+		verify(userDetailsService, never()).loadUserByUsername(any());
+	}
+
+	@Test
+	void doFilter_shouldRejectTokenIssuedBeforeRevocation() throws Exception {
+		when(tokenVersionService.getTokenVersion(7L)).thenReturn(4);
+
+		filter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+		verify(userDetailsService, never()).loadUserByUsername(any());
+	}
+
+	private MockHttpServletRequest bearer(String jwt) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings");
+		request.addHeader("Authorization", "Bearer " + jwt);
+		return request;
+	}
+}
@@ -0,0 +1,88 @@
+package com.codetest.bookingsystem.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.codetest.bookingsystem.enums.Role;
+import com.codetest.bookingsystem.model.AppUser;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+public class JwtTokenProviderTest {
+
+	private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+	private JwtTokenProvider jwtTokenProvider;
+	private Authentication authentication;
+
+	@BeforeEach
+	void setUp() {
+		jwtTokenProvider = new JwtTokenProvider();
+		ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", SECRET);
+		ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpirationMs", 60000);
+		ReflectionTestUtils.setField(jwtTokenProvider, "validatedCacheSize", 100L);
+		jwtTokenProvider.init();
+
+		UserDetailsImpl principal = UserDetailsImpl
+				.build(new AppUser(1L, "testuser", "password", "test@example.com", Role.USER, true, null, 0));
+		authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+	}
+
+	@Test
+	void parseClaims_shouldReturnSubjectAndServeRepeatsFromCache() {
+		String token = jwtTokenProvider.generateJwtToken(authentication);
+
+		TokenClaims first = jwtTokenProvider.parseClaims(token);
+		TokenClaims second = jwtTokenProvider.parseClaims(token);
+
+		assertNotNull(first);
+		assertEquals("testuser", first.getSubject());
+		assertSame(first, second, "A repeated token should be answered from the cache");
+	}
+
+	@Test
+	void parseClaims_shouldCarryUserClaimsForStatelessAuthentication() {
+		TokenClaims claims = jwtTokenProvider.parseClaims(jwtTokenProvider.generateJwtToken(authentication));
+
+		assertTrue(claims.hasUserClaims());
+		assertEquals(1L, claims.getUserId());
+		assertEquals("test@example.com", claims.getEmail());
+		assertEquals(Role.USER, claims.getRole());
+		assertEquals(0, claims.getTokenVersion());
+		assertEquals("ROLE_USER", UserDetailsImpl.build(claims).getAuthorities().iterator().next().getAuthority());
+	}
+
+	@Test
+	void parseClaims_shouldRejectTamperedToken() {
+		String token = jwtTokenProvider.generateJwtToken(authentication);
+		String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+		assertNull(jwtTokenProvider.parseClaims(tampered));
+		assertFalse(jwtTokenProvider.validateJwtToken("not-a-jwt"));
+		assertFalse(jwtTokenProvider.validateJwtToken(""));
+	}
+
+	@Test
+	void parseClaims_shouldRejectExpiredToken() {
+		String expired = Jwts.builder().setSubject("testuser").setIssuedAt(new Date(System.currentTimeMillis() - 2000))
+				.setExpiration(new Date(System.currentTimeMillis() - 1000))
+				.signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), SignatureAlgorithm.HS256).compact();
+
+		assertNull(jwtTokenProvider.parseClaims(expired));
+	}
+}
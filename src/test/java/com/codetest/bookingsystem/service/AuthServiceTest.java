@@ -1,11 +1,15 @@
 package com.codetest.bookingsystem.service;
 
 import com.codetest.bookingsystem.dto.request.RegistrationRequest;
+import com.codetest.bookingsystem.dto.response.MessageResponse;
 import com.codetest.bookingsystem.enums.Role;
 import com.codetest.bookingsystem.exception.BadRequestException;
 import com.codetest.bookingsystem.model.AppUser;
+import com.codetest.bookingsystem.model.PasswordResetToken;
 import com.codetest.bookingsystem.repository.AppUserRepository;
+import com.codetest.bookingsystem.repository.PasswordResetTokenRepository;
 import com.codetest.bookingsystem.security.JwtTokenProvider;
+import com.codetest.bookingsystem.security.TokenVersionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,8 +20,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,7 +40,11 @@ public class AuthServiceTest {
 	@Mock
 	private JwtTokenProvider jwtTokenProvider;
 	@Mock
-	private MockEmailService mockEmailService;
+	private NotificationService notificationService;
+	@Mock
+	private TokenVersionService tokenVersionService;
+	@Mock
+	private PasswordResetTokenRepository passwordResetTokenRepository;
 	@InjectMocks
 	private AuthService authService;
 
@@ -49,7 +61,6 @@ public class AuthServiceTest {
 		when(userRepository.existsByUsername(registrationRequest.getUsername())).thenReturn(false);
 		when(userRepository.existsByEmail(registrationRequest.getEmail())).thenReturn(false);
 		when(passwordEncoder.encode(registrationRequest.getPassword())).thenReturn("encodedPassword");
-		when(mockEmailService.sendVerifyEmail(any(), any(), any())).thenReturn(true);
 
 		// Act
 		authService.registerUser(registrationRequest);
@@ -64,7 +75,7 @@ public class AuthServiceTest {
 		assertEquals("encodedPassword", savedUser.getPassword());
 		assertEquals(Role.USER, savedUser.getRole());
 		assertTrue(savedUser.isEnabled());
-		verify(mockEmailService, times(1)).sendVerifyEmail(any(), any(), any());
+		verify(notificationService, times(1)).enqueue(any(), any(), any(), any());
 	}
 
 	@Test
@@ -79,7 +90,7 @@ public class AuthServiceTest {
 
 		assertEquals("Error: Username is already taken!", exception.getMessage());
 		verify(userRepository, never()).save(any());
-		verify(mockEmailService, never()).sendVerifyEmail(any(), any(), any());
+		verify(notificationService, never()).enqueue(any(), any(), any(), any());
 	}
 
 	@Test
@@ -95,25 +106,46 @@ public class AuthServiceTest {
 
 		assertEquals("Error: Email is already in use!", exception.getMessage());
 		verify(userRepository, never()).save(any());
-		verify(mockEmailService, never()).sendVerifyEmail(any(), any(), any());
+		verify(notificationService, never()).enqueue(any(), any(), any(), any());
 	}
 
 	@Test
-	void registerUser_ThrowsExceptionWhenEmailSendingFails() {
+	void registerUser_QueuesVerificationEmailInsteadOfSendingIt() {
 		// Arrange
 		when(userRepository.existsByUsername(registrationRequest.getUsername())).thenReturn(false);
 		when(userRepository.existsByEmail(registrationRequest.getEmail())).thenReturn(false);
 		when(passwordEncoder.encode(registrationRequest.getPassword())).thenReturn("encodedPassword");
-		when(mockEmailService.sendVerifyEmail(any(), any(), any())).thenReturn(false);
 
-		// Act & Assert
-		BadRequestException exception = assertThrows(BadRequestException.class, () -> {
-			authService.registerUser(registrationRequest);
+		// Act
+		MessageResponse response = authService.registerUser(registrationRequest);
+
+		// Assert: delivery failures are retried by the dispatcher and no longer fail the registration
+		assertEquals("User registered successfully! Please check your email to verify your account.",
+				response.getMessage());
+		verify(notificationService).enqueue(eq("test@example.com"), eq("Please verify your registration"), any(),
+				eq("verify-email:testuser"));
+	}
+
+	@Test
+	void requestPasswordReset_KeysTheEmailOnTheTokenRowNotTheSecret() {
+		// Arrange
+		AppUser user = new AppUser();
+		user.setId(3L);
+		user.setEmail("test@example.com");
+		when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+		ArgumentCaptor<PasswordResetToken> tokenCaptor = ArgumentCaptor.forClass(PasswordResetToken.class);
+		when(passwordResetTokenRepository.save(tokenCaptor.capture())).thenAnswer(invocation -> {
+			PasswordResetToken token = invocation.getArgument(0);
+			token.setId(7L);
+			return token;
 		});
 
-		assertEquals("User registered successfully, but failed to send verification email. Please contact support.",
-				exception.getMessage());
-		verify(userRepository, times(1)).save(any());
-		verify(mockEmailService, times(1)).sendVerifyEmail(any(), any(), any());
+		// Act
+		authService.requestPasswordReset("test@example.com");
+
+		// Assert: the dedup key is stored in clear, so only the row id may go into it
+		String token = tokenCaptor.getValue().getToken();
+		verify(notificationService).enqueue(eq("test@example.com"), eq("Password Reset Request"), contains(token),
+				eq("password-reset:7"));
 	}
-}
\ No newline at end of file
+}
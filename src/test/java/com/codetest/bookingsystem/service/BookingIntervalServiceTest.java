@@ -0,0 +1,163 @@
+package com.codetest.bookingsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.codetest.bookingsystem.enums.BookingStatus;
+import com.codetest.bookingsystem.enums.Country;
+import com.codetest.bookingsystem.model.ClassSchedule;
+import com.codetest.bookingsystem.repository.BookingRepository;
+import com.codetest.bookingsystem.repository.BookingRepository.BookingInterval;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingIntervalServiceTest {
+
+	private static final Long USER_ID = 1L;
+
+	@Mock
+	private BookingRepository bookingRepository;
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	@InjectMocks
+	private BookingIntervalService bookingIntervalService;
+
+	private LocalDateTime nineAm;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(bookingIntervalService, "enabled", true);
+		ReflectionTestUtils.setField(bookingIntervalService, "maxUsers", 100L);
+		ReflectionTestUtils.setField(bookingIntervalService, "ttlSeconds", 300L);
+		ReflectionTestUtils.setField(bookingIntervalService, "loadExecutor", (Executor) Runnable::run);
+		bookingIntervalService.init();
+		nineAm = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		// Answers the first check of each test, before the user is indexed
+		when(bookingRepository.findOverlappingBookings(eq(USER_ID), any(), any())).thenReturn(List.of());
+		// 9-10 and 13-14, plus 9:30-11 that a waitlist promotion placed on top of the first
+		when(bookingRepository.findIntervalsByUserId(eq(USER_ID), eq(BookingStatus.BOOKED), any()))
+				.thenReturn(List.of(interval(1L, nineAm, nineAm.plusHours(1)),
+						interval(2L, nineAm.plusHours(4), nineAm.plusHours(5)),
+						interval(3L, nineAm.plusMinutes(30), nineAm.plusHours(2))));
+	}
+
+	@Test
+	void hasOverlappingBooking_shouldQueryInTheCallersTransactionAndLoadOnlyOnceItCompletes() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			assertFalse(overlaps(nineAm.plusHours(2), nineAm.plusHours(3)));
+			assertFalse(overlaps(nineAm.plusHours(2), nineAm.plusHours(3)));
+			verify(bookingRepository, never()).findIntervalsByUserId(any(), any(), any());
+			verify(transactionManager, never()).getTransaction(any());
+			TransactionSynchronizationManager.getSynchronizations()
+					.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertTrue(overlaps(nineAm, nineAm.plusHours(1)));
+		verify(bookingRepository, times(2)).findOverlappingBookings(any(), any(), any());
+		verify(bookingRepository, times(1)).findIntervalsByUserId(eq(USER_ID), eq(BookingStatus.BOOKED), any());
+	}
+
+	@Test
+	void hasOverlappingBooking_shouldAnswerFromTheIndexOnceLoaded() {
+		overlaps(nineAm, nineAm.plusHours(1));
+
+		assertTrue(overlaps(nineAm.plusMinutes(90), nineAm.plusHours(3)), "Overlaps only the stacked booking");
+		assertTrue(overlaps(nineAm.minusHours(1), nineAm.plusHours(6)), "Spans every booking");
+		assertTrue(overlaps(nineAm.plusMinutes(15), nineAm.plusMinutes(20)), "Inside a booking");
+		assertFalse(overlaps(nineAm.plusHours(2), nineAm.plusHours(4)), "Touching both neighbours is not an overlap");
+		assertFalse(overlaps(nineAm.plusHours(5), nineAm.plusHours(6)));
+
+		verify(bookingRepository, times(1)).findIntervalsByUserId(eq(USER_ID), eq(BookingStatus.BOOKED), any());
+		verify(bookingRepository, times(1)).findOverlappingBookings(any(), any(), any());
+	}
+
+	@Test
+	void recordBookedAndRelease_shouldApplyOnlyOnceTheTransactionCommits() {
+		LocalDateTime noon = nineAm.plusHours(3);
+		assertFalse(overlaps(noon, noon.plusMinutes(30)));
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			bookingIntervalService.recordBooked(USER_ID, 4L, classAt(noon));
+			bookingIntervalService.release(USER_ID, 2L);
+			assertFalse(overlaps(noon, noon.plusMinutes(30)), "Not visible before the commit");
+			assertTrue(overlaps(nineAm.plusHours(4), nineAm.plusHours(5)));
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertTrue(overlaps(noon, noon.plusMinutes(30)));
+		assertFalse(overlaps(nineAm.plusHours(4), nineAm.plusHours(5)), "The released booking no longer blocks");
+		verify(bookingRepository, times(1)).findIntervalsByUserId(eq(USER_ID), eq(BookingStatus.BOOKED), any());
+	}
+
+	@Test
+	void hasOverlappingBooking_shouldQueryTheDatabaseOutsideTheLoadedRangeOrAfterAnInvalidation() {
+		overlaps(nineAm, nineAm.plusHours(1));
+		LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+		when(bookingRepository.findOverlappingBookings(USER_ID, yesterday, yesterday.plusHours(1)))
+				.thenReturn(List.of());
+
+		assertFalse(overlaps(yesterday, yesterday.plusHours(1)));
+		bookingIntervalService.handleInvalidation("other-instance|" + USER_ID);
+		overlaps(nineAm, nineAm.plusHours(1));
+		assertTrue(overlaps(nineAm, nineAm.plusHours(1)));
+
+		verify(bookingRepository).findOverlappingBookings(USER_ID, yesterday, yesterday.plusHours(1));
+		verify(bookingRepository, times(2)).findOverlappingBookings(USER_ID, nineAm, nineAm.plusHours(1));
+		verify(bookingRepository, times(2)).findIntervalsByUserId(eq(USER_ID), eq(BookingStatus.BOOKED), any());
+	}
+
+	private boolean overlaps(LocalDateTime startTime, LocalDateTime endTime) {
+		return bookingIntervalService.hasOverlappingBooking(USER_ID, startTime, endTime);
+	}
+
+	private static ClassSchedule classAt(LocalDateTime startTime) {
+		return new ClassSchedule(9L, "Pilates", startTime, startTime.plusHours(1), 10, Country.SINGAPORE, 1, 0);
+	}
+
+	private static BookingInterval interval(Long bookingId, LocalDateTime startTime, LocalDateTime endTime) {
+		return new BookingInterval() {
+			@Override
+			public Long getBookingId() {
+				return bookingId;
+			}
+
+			@Override
+			public LocalDateTime getStartTime() {
+				return startTime;
+			}
+
+			@Override
+			public LocalDateTime getEndTime() {
+				return endTime;
+			}
+		};
+	}
+}
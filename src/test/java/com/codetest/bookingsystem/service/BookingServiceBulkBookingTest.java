@@ -0,0 +1,169 @@
+package com.codetest.bookingsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.codetest.bookingsystem.dto.request.BookingRequest;
+import com.codetest.bookingsystem.dto.request.BulkBookingRequest;
+import com.codetest.bookingsystem.dto.response.BookingResponse;
+import com.codetest.bookingsystem.dto.response.BulkBookingItemResponse;
+import com.codetest.bookingsystem.dto.response.BulkBookingResponse;
+import com.codetest.bookingsystem.enums.BulkBookingMode;
+import com.codetest.bookingsystem.enums.Country;
+import com.codetest.bookingsystem.enums.Role;
+import com.codetest.bookingsystem.model.AppUser;
+import com.codetest.bookingsystem.model.ClassSchedule;
+import com.codetest.bookingsystem.model.CreditPackage;
+import com.codetest.bookingsystem.model.UserPackage;
+import com.codetest.bookingsystem.repository.AppUserRepository;
+import com.codetest.bookingsystem.repository.BookingRepository;
+import com.codetest.bookingsystem.repository.ClassScheduleRepository;
+import com.codetest.bookingsystem.repository.CreditPackageRepository;
+import com.codetest.bookingsystem.repository.UserPackageRepository;
+import com.codetest.bookingsystem.security.UserDetailsImpl;
+
+/**
+ * Best-effort bulk bookings against H2 with real transactions: each class is
+ * committed or rolled back on its own and entities read by one item are
+ * detached by the time a later item uses them, which the mocked transaction
+ * manager in {@link BookingServiceTest} cannot show.
+ */
+@DataJpaTest(properties = { "spring.sql.init.mode=never", "spring.cache.type=none",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect" })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ BookingService.class, ScheduleCatalogueService.class, SeatInventoryService.class,
+		WaitlistQueueService.class })
+@ImportAutoConfiguration({ JacksonAutoConfiguration.class, CacheAutoConfiguration.class })
+public class BookingServiceBulkBookingTest {
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private SeatInventoryService seatInventoryService;
+
+	@Autowired
+	private AppUserRepository appUserRepository;
+
+	@Autowired
+	private CreditPackageRepository creditPackageRepository;
+
+	@Autowired
+	private UserPackageRepository userPackageRepository;
+
+	@Autowired
+	private ClassScheduleRepository classScheduleRepository;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@MockBean
+	private DistributedLockService distributedLockService;
+
+	@MockBean
+	private BookingMetrics bookingMetrics;
+
+	@MockBean
+	private NotificationService notificationService;
+
+	@MockBean
+	private DomainEventService domainEventService;
+
+	@MockBean
+	private WaitlistPromotionService waitlistPromotionService;
+
+	@MockBean
+	private BookingIntervalService bookingIntervalService;
+
+	@MockBean
+	private CreditLedgerService creditLedgerService;
+
+	private AppUser user;
+	private CreditPackage singaporePackage;
+
+	@BeforeEach
+	void setUp() {
+		user = appUserRepository.save(new AppUser(null, "bulk-user", "password", "bulk@example.com", Role.USER, true,
+				null, 0));
+		singaporePackage = creditPackageRepository
+				.save(new CreditPackage(null, "Basic", 5, BigDecimal.TEN, Country.SINGAPORE, 30));
+		userPackageRepository.save(new UserPackage(null, user, singaporePackage, 5, LocalDate.now(),
+				LocalDate.now().plusDays(30)));
+		when(distributedLockService.acquireLock(anyLong())).thenReturn(true);
+
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+				UserDetailsImpl.build(user), null, UserDetailsImpl.build(user).getAuthorities()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+		bookingRepository.deleteAll();
+		userPackageRepository.deleteAll();
+		classScheduleRepository.deleteAll();
+		creditPackageRepository.deleteAll();
+		appUserRepository.deleteAll();
+	}
+
+	@Test
+	void bookClasses_BestEffortHandsTheSeatBackWhenTheUserHasNoPackageForAClass() {
+		ClassSchedule yoga = persistSchedule("Yoga", Country.SINGAPORE, LocalDateTime.now().plusDays(1));
+		ClassSchedule pilates = persistSchedule("Pilates", Country.THAILAND, LocalDateTime.now().plusDays(2));
+
+		BulkBookingResponse response = bookingService.bookClasses(new BulkBookingRequest(
+				List.of(new BookingRequest(yoga.getId()), new BookingRequest(pilates.getId())),
+				BulkBookingMode.BEST_EFFORT));
+
+		assertEquals(Arrays.asList(true, false),
+				response.getResults().stream().map(BulkBookingItemResponse::isBooked).toList());
+		assertEquals(1, seatInventoryService.getBookedCount(yoga.getId()));
+		assertEquals(0, seatInventoryService.getBookedCount(pilates.getId()),
+				"The rejected class must not keep the seat its counter handed out");
+	}
+
+	@Test
+	void bookClasses_BestEffortMapsAPackageFirstReadByAnItemThatRolledBack() {
+		// booked_count says full although no booking is visible yet, so the first item rolls back at reserveSeat
+		LocalDateTime start = LocalDateTime.now().plusDays(1);
+		ClassSchedule full = classScheduleRepository
+				.save(new ClassSchedule(null, "Spin", start, start.plusHours(1), 1, Country.SINGAPORE, 1, 1));
+		ClassSchedule yoga = persistSchedule("Yoga", Country.SINGAPORE, LocalDateTime.now().plusDays(2));
+
+		BulkBookingResponse response = bookingService.bookClasses(new BulkBookingRequest(
+				List.of(new BookingRequest(full.getId()), new BookingRequest(yoga.getId())),
+				BulkBookingMode.BEST_EFFORT));
+
+		assertEquals(Arrays.asList(false, true),
+				response.getResults().stream().map(BulkBookingItemResponse::isBooked).toList());
+		BookingResponse booking = response.getResults().get(1).getBooking();
+		assertEquals("Basic", booking.getUserPackage().getCreditPackage().getName());
+		assertEquals(4, booking.getUserPackage().getRemainingCredits());
+	}
+
+	private ClassSchedule persistSchedule(String name, Country country, LocalDateTime start) {
+		return classScheduleRepository
+				.save(new ClassSchedule(null, name, start, start.plusHours(1), 10, country, 1, 0));
+	}
+}
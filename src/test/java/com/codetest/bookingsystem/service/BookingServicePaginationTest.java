@@ -0,0 +1,128 @@
+package com.codetest.bookingsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import com.codetest.bookingsystem.dto.response.ClassScheduleResponse;
+import com.codetest.bookingsystem.dto.response.CursorPage;
+import com.codetest.bookingsystem.enums.Country;
+import com.codetest.bookingsystem.exception.BadRequestException;
+import com.codetest.bookingsystem.model.ClassSchedule;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@DataJpaTest(properties = { "spring.sql.init.mode=never", "spring.cache.type=none",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+@Import({ BookingService.class, ScheduleCatalogueService.class, SeatInventoryService.class,
+		WaitlistQueueService.class })
+@ImportAutoConfiguration({ JacksonAutoConfiguration.class, CacheAutoConfiguration.class })
+public class BookingServicePaginationTest {
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@MockBean
+	private DistributedLockService distributedLockService;
+
+	@MockBean
+	private BookingMetrics bookingMetrics;
+
+	@MockBean
+	private NotificationService notificationService;
+
+	@MockBean
+	private DomainEventService domainEventService;
+
+	@MockBean
+	private WaitlistPromotionService waitlistPromotionService;
+
+	@MockBean
+	private BookingIntervalService bookingIntervalService;
+
+	@MockBean
+	private CreditLedgerService creditLedgerService;
+
+	private final List<Long> expectedIds = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		// Several classes share a start time so the id tie-breaker is exercised
+		LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+		for (int i = 0; i < 12; i++) {
+			LocalDateTime classStart = start.plusHours(i / 3);
+			ClassSchedule schedule = entityManager.persist(
+					new ClassSchedule(null, "Class " + i, classStart, classStart.plusHours(1), 10, Country.MYANMAR, 1, 0));
+			expectedIds.add(schedule.getId());
+		}
+		entityManager.persist(new ClassSchedule(null, "Past", start.minusDays(2), start.minusDays(2).plusHours(1), 10,
+				Country.MYANMAR, 1, 0));
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void getAvailableSchedules_shouldWalkAllPagesInOrderWithoutGapsOrDuplicates() {
+		List<Long> walkedIds = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			CursorPage<ClassScheduleResponse> page = bookingService.getAvailableSchedules(Country.MYANMAR, cursor, 5);
+			page.getItems().forEach(schedule -> walkedIds.add(schedule.getId()));
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(expectedIds, walkedIds);
+		assertEquals(3, pages);
+	}
+
+	@Test
+	void getAvailableSchedules_shouldNotReturnCursorWhenPageIsExactlyFull() {
+		CursorPage<ClassScheduleResponse> page = bookingService.getAvailableSchedules(Country.MYANMAR, null, 12);
+
+		assertEquals(12, page.getItems().size());
+		assertNull(page.getNextCursor());
+	}
+
+	@Test
+	void getAvailableSchedules_shouldRejectTamperedCursor() {
+		assertThrows(BadRequestException.class,
+				() -> bookingService.getAvailableSchedules(Country.MYANMAR, "not-a-cursor", 5));
+	}
+
+	@Test
+	void streamAvailableSchedules_shouldWriteEveryUpcomingClassAsJsonArray() throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		bookingService.streamAvailableSchedules(Country.MYANMAR, output);
+
+		JsonNode array = objectMapper.readTree(output.toByteArray());
+		List<Long> streamedIds = new ArrayList<>();
+		array.forEach(node -> streamedIds.add(node.get("id").asLong()));
+		assertEquals(expectedIds, streamedIds);
+	}
+}
@@ -0,0 +1,154 @@
+package com.codetest.bookingsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.codetest.bookingsystem.dto.response.BookingResponse;
+import com.codetest.bookingsystem.dto.response.ClassScheduleResponse;
+import com.codetest.bookingsystem.enums.BookingStatus;
+import com.codetest.bookingsystem.enums.Country;
+import com.codetest.bookingsystem.enums.Role;
+import com.codetest.bookingsystem.model.AppUser;
+import com.codetest.bookingsystem.model.Booking;
+import com.codetest.bookingsystem.model.ClassSchedule;
+import com.codetest.bookingsystem.model.CreditPackage;
+import com.codetest.bookingsystem.model.UserPackage;
+import com.codetest.bookingsystem.security.UserDetailsImpl;
+import com.codetest.bookingsystem.util.QueryCounter;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Guards the list endpoints against N+1 regressions: the number of statements
+ * must stay constant no matter how many rows are mapped.
+ */
+@DataJpaTest(properties = { "spring.sql.init.mode=never", "spring.cache.type=none",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+@Import({ BookingService.class, ScheduleCatalogueService.class, SeatInventoryService.class,
+		WaitlistQueueService.class })
+@ImportAutoConfiguration({ JacksonAutoConfiguration.class, CacheAutoConfiguration.class })
+public class BookingServiceQueryCountTest {
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@MockBean
+	private DistributedLockService distributedLockService;
+
+	@MockBean
+	private BookingMetrics bookingMetrics;
+
+	@MockBean
+	private NotificationService notificationService;
+
+	@MockBean
+	private DomainEventService domainEventService;
+
+	@MockBean
+	private WaitlistPromotionService waitlistPromotionService;
+
+	@MockBean
+	private BookingIntervalService bookingIntervalService;
+
+	@MockBean
+	private CreditLedgerService creditLedgerService;
+
+	private QueryCounter queryCounter;
+	private AppUser user;
+	private UserPackage userPackage;
+
+	@BeforeEach
+	void setUp() {
+		queryCounter = new QueryCounter(entityManagerFactory);
+
+		user = entityManager.persist(new AppUser(null, "query-count-user", "password", "qc@example.com", Role.USER,
+				true, null, 0));
+		CreditPackage creditPackage = entityManager
+				.persist(new CreditPackage(null, "Basic", 20, BigDecimal.TEN, Country.SINGAPORE, 30));
+		userPackage = entityManager.persist(new UserPackage(null, user, creditPackage, 20, LocalDate.now(),
+				LocalDate.now().plusDays(30)));
+
+		SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+				UserDetailsImpl.build(user), null, UserDetailsImpl.build(user).getAuthorities()));
+	}
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void getMyBookings_shouldUseConstantNumberOfQueries() {
+		long fewBookings = countStatementsForMyBookings(2);
+		long manyBookings = countStatementsForMyBookings(18);
+
+		assertEquals(fewBookings, manyBookings, "Statement count must not grow with the number of bookings");
+		queryCounter.assertAtMost(2);
+	}
+
+	@Test
+	void getAvailableSchedules_shouldUseConstantNumberOfQueries() {
+		long fewSchedules = countStatementsForSchedules(2);
+		long manySchedules = countStatementsForSchedules(18);
+
+		assertEquals(fewSchedules, manySchedules, "Statement count must not grow with the number of schedules");
+		queryCounter.assertAtMost(2);
+	}
+
+	private long countStatementsForMyBookings(int additionalBookings) {
+		for (int i = 0; i < additionalBookings; i++) {
+			entityManager.persist(new Booking(null, user, persistSchedule(), userPackage, BookingStatus.BOOKED));
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		queryCounter.reset();
+		List<BookingResponse> bookings = bookingService.getMyBookings(null, 50).getItems();
+		bookings.forEach(booking -> assertEquals(1, booking.getClassSchedule().getCurrentBookedCount()));
+		return queryCounter.count();
+	}
+
+	private long countStatementsForSchedules(int additionalSchedules) {
+		for (int i = 0; i < additionalSchedules; i++) {
+			persistSchedule();
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		queryCounter.reset();
+		List<ClassScheduleResponse> schedules = bookingService.getAvailableSchedules(Country.SINGAPORE, null, 50)
+				.getItems();
+		assertEquals(false, schedules.isEmpty());
+		return queryCounter.count();
+	}
+
+	private ClassSchedule persistSchedule() {
+		LocalDateTime start = LocalDateTime.now().plusDays(1);
+		return entityManager.persist(new ClassSchedule(null, "Yoga", start, start.plusHours(1), 10, Country.SINGAPORE, 1, 0));
+	}
+}
@@ -3,10 +3,13 @@ package com.codetest.bookingsystem.service;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -15,21 +18,33 @@ import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
 import com.codetest.bookingsystem.dto.request.BookingRequest;
+import com.codetest.bookingsystem.dto.request.BulkBookingRequest;
+import com.codetest.bookingsystem.dto.response.BookingResponse;
+import com.codetest.bookingsystem.dto.response.BulkBookingItemResponse;
+import com.codetest.bookingsystem.dto.response.BulkBookingResponse;
 import com.codetest.bookingsystem.dto.response.ClassScheduleResponse;
+import com.codetest.bookingsystem.dto.response.CursorPage;
+import com.codetest.bookingsystem.enums.BulkBookingMode;
 import com.codetest.bookingsystem.enums.Country;
 import com.codetest.bookingsystem.enums.Role;
 import com.codetest.bookingsystem.exception.BadRequestException;
@@ -60,6 +75,26 @@ public class BookingServiceTest {
 	private DistributedLockService distributedLockService;
 	@Mock
 	private WaitlistRepository waitlistRepository; // Add this mock
+	@Mock
+	private SeatInventoryService seatInventoryService;
+	@Mock
+	private BookingIntervalService bookingIntervalService;
+	@Mock
+	private CreditLedgerService creditLedgerService;
+	@Mock
+	private WaitlistQueueService waitlistQueueService;
+	@Mock
+	private WaitlistPromotionService waitlistPromotionService;
+	@Mock
+	private ScheduleCatalogueService scheduleCatalogueService;
+	@Mock
+	private BookingMetrics bookingMetrics;
+	@Mock
+	private NotificationService notificationService;
+	@Mock
+	private DomainEventService domainEventService;
+	@Mock
+	private PlatformTransactionManager transactionManager;
 	@InjectMocks
 	private BookingService bookingService;
 
@@ -98,6 +133,7 @@ public class BookingServiceTest {
 		testUserPackage.setCreditPackage(creditPackage);
 
 		bookingRequest = new BookingRequest(testClassSchedule.getId());
+		ReflectionTestUtils.setField(bookingService, "maxBulkBookings", 20);
 	}
 
 	private void mockSecurityContext() {
@@ -112,15 +148,34 @@ public class BookingServiceTest {
 	@Test
 	void getAvailableSchedules_ReturnsListOfClassScheduleResponses() {
 		// Arrange
-		when(classScheduleRepository.findByCountryAndStartTimeAfter(any(), any()))
-				.thenReturn(List.of(testClassSchedule));
+		ReflectionTestUtils.setField(bookingService, "maxPageSize", 200);
+		ClassScheduleResponse cached = new ClassScheduleResponse(testClassSchedule.getId(),
+				testClassSchedule.getClassName(), testClassSchedule.getStartTime(), testClassSchedule.getEndTime(),
+				testClassSchedule.getCapacity(), testClassSchedule.getCountry(), testClassSchedule.getRequiredCredits(), 0);
+		when(scheduleCatalogueService.getUpcomingPage(Country.SINGAPORE, null, 50))
+				.thenReturn(new CursorPage<>(List.of(cached), null));
+		when(seatInventoryService.getBookedCounts(List.of(testClassSchedule.getId())))
+				.thenReturn(Map.of(testClassSchedule.getId(), 4));
 		// Act
-		List<ClassScheduleResponse> schedules = bookingService.getAvailableSchedules(Country.SINGAPORE);
+		CursorPage<ClassScheduleResponse> page = bookingService.getAvailableSchedules(Country.SINGAPORE, null, 50);
+		List<ClassScheduleResponse> schedules = page.getItems();
 
 		// Assert
 		assertFalse(schedules.isEmpty());
 		assertEquals(1, schedules.size());
 		assertEquals(testClassSchedule.getClassName(), schedules.get(0).getClassName());
+		assertEquals(4, schedules.get(0).getCurrentBookedCount(), "Live booked count should be overlaid");
+		assertEquals(0, cached.getCurrentBookedCount(), "Cached entry must not be mutated");
+		assertNull(page.getNextCursor());
+	}
+
+	@Test
+	void getAvailableSchedules_RejectsInvalidPageSize() {
+		ReflectionTestUtils.setField(bookingService, "maxPageSize", 200);
+
+		assertThrows(BadRequestException.class, () -> bookingService.getAvailableSchedules(Country.SINGAPORE, null, 0));
+		assertThrows(BadRequestException.class,
+				() -> bookingService.getAvailableSchedules(Country.SINGAPORE, null, 201));
 	}
 
 	@Test
@@ -133,18 +188,81 @@ public class BookingServiceTest {
 				.thenReturn(Optional.empty());
 		when(waitlistRepository.findByUserIdAndClassScheduleId(testUser.getId(), testClassSchedule.getId()))
 				.thenReturn(Optional.empty());
+		when(seatInventoryService.tryReserve(testClassSchedule.getId(), testClassSchedule.getCapacity()))
+				.thenReturn(true);
 		when(userPackageRepository.findActivePackagesForBooking(anyLong(), any(Country.class), anyInt(), any()))
 				.thenReturn(List.of(testUserPackage));
+		when(userPackageRepository.deductCredits(eq(testUserPackage.getId()), eq(1), any())).thenReturn(1);
 		when(appUserRepository.getReferenceById(testUser.getId())).thenReturn(testUser);
 		when(bookingRepository.save(any())).thenAnswer(i -> i.getArguments()[0]); // Return the argument itself
+		when(classScheduleRepository.reserveSeat(testClassSchedule.getId())).thenReturn(1);
 
 		// Act
 		assertDoesNotThrow(() -> bookingService.bookClass(bookingRequest));
 
 		// Assert
-		verify(userPackageRepository, times(1)).save(any());
+		verify(userPackageRepository, times(1)).deductCredits(eq(testUserPackage.getId()), eq(1), any());
+		verify(userPackageRepository, never()).save(any());
 		verify(bookingRepository, times(1)).save(any());
 		verify(distributedLockService, times(1)).releaseLock(testClassSchedule.getId());
+		verify(bookingMetrics).stop(any(), eq(BookingMetrics.OUTCOME_SUCCESS));
+	}
+
+	@Test
+	void bookClass_FallsBackToNextPackageWhenCreditsWereSpentConcurrently() {
+		// Arrange
+		mockSecurityContext();
+		UserPackage laterPackage = new UserPackage();
+		laterPackage.setId(2L);
+		laterPackage.setRemainingCredits(5);
+		laterPackage.setUser(testUser);
+		laterPackage.setPurchaseDate(LocalDate.now());
+		laterPackage.setExpiryDate(LocalDate.now().plusDays(60));
+		laterPackage.setCreditPackage(testUserPackage.getCreditPackage());
+		when(distributedLockService.acquireLock(testClassSchedule.getId())).thenReturn(true);
+		when(classScheduleRepository.findById(testClassSchedule.getId())).thenReturn(Optional.of(testClassSchedule));
+		when(seatInventoryService.tryReserve(testClassSchedule.getId(), testClassSchedule.getCapacity()))
+				.thenReturn(true);
+		when(userPackageRepository.findActivePackagesForBooking(anyLong(), any(Country.class), anyInt(), any()))
+				.thenReturn(List.of(testUserPackage, laterPackage));
+		// Another booking by the same user drained the first package after it was read
+		when(userPackageRepository.deductCredits(eq(testUserPackage.getId()), eq(1), any())).thenReturn(0);
+		when(userPackageRepository.deductCredits(eq(laterPackage.getId()), eq(1), any())).thenReturn(1);
+		when(userPackageRepository.findRemainingCreditsById(laterPackage.getId())).thenReturn(4);
+		when(appUserRepository.getReferenceById(testUser.getId())).thenReturn(testUser);
+		when(bookingRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+		when(classScheduleRepository.reserveSeat(testClassSchedule.getId())).thenReturn(1);
+
+		// Act
+		BookingResponse response = bookingService.bookClass(bookingRequest);
+
+		// Assert
+		assertEquals(laterPackage.getId(), response.getUserPackage().getId());
+		assertEquals(4, laterPackage.getRemainingCredits());
+		verify(bookingMetrics).stop(any(), eq(BookingMetrics.OUTCOME_SUCCESS));
+	}
+
+	@Test
+	void bookClass_GivesUpWhenEveryPackageWasDrainedConcurrently() {
+		// Arrange
+		mockSecurityContext();
+		when(distributedLockService.acquireLock(testClassSchedule.getId())).thenReturn(true);
+		when(classScheduleRepository.findById(testClassSchedule.getId())).thenReturn(Optional.of(testClassSchedule));
+		when(seatInventoryService.tryReserve(testClassSchedule.getId(), testClassSchedule.getCapacity()))
+				.thenReturn(true);
+		when(userPackageRepository.findActivePackagesForBooking(anyLong(), any(Country.class), anyInt(), any()))
+				.thenReturn(List.of(testUserPackage));
+		when(userPackageRepository.deductCredits(eq(testUserPackage.getId()), eq(1), any())).thenReturn(0);
+
+		// Act & Assert
+		BadRequestException exception = assertThrows(BadRequestException.class,
+				() -> bookingService.bookClass(bookingRequest));
+		assertEquals("Your credits changed while booking. Please try again.", exception.getMessage());
+		// The conditional UPDATE already saw the latest balance, so the packages are not re-read
+		verify(userPackageRepository, times(1)).deductCredits(eq(testUserPackage.getId()), eq(1), any());
+		verify(userPackageRepository, times(1)).findActivePackagesForBooking(anyLong(), any(Country.class), anyInt(),
+				any());
+		verify(bookingRepository, never()).save(any());
 	}
 
 	@Test
@@ -173,6 +291,8 @@ public class BookingServiceTest {
 				.thenReturn(Optional.empty());
 		when(waitlistRepository.findByUserIdAndClassScheduleId(testUser.getId(), testClassSchedule.getId()))
 				.thenReturn(Optional.empty());
+		when(seatInventoryService.tryReserve(testClassSchedule.getId(), testClassSchedule.getCapacity()))
+				.thenReturn(true);
 		when(userPackageRepository.findActivePackagesForBooking(anyLong(), any(Country.class), anyInt(), any()))
 				.thenReturn(List.of()); // No active package found
 		// Act & Assert
@@ -180,6 +300,80 @@ public class BookingServiceTest {
 		verify(userPackageRepository, never()).save(any());
 		verify(bookingRepository, never()).save(any());
 		verify(distributedLockService, times(1)).releaseLock(testClassSchedule.getId());
+		verify(bookingMetrics).stop(any(), eq(BookingMetrics.OUTCOME_NO_PACKAGE));
+	}
+
+	@Test
+	void bookClass_ThrowsExceptionWhenClassIsFull() {
+		// Arrange
+		mockSecurityContext();
+		when(distributedLockService.acquireLock(testClassSchedule.getId())).thenReturn(true);
+		when(classScheduleRepository.findById(testClassSchedule.getId())).thenReturn(Optional.of(testClassSchedule));
+		when(bookingRepository.findByUserIdAndClassScheduleId(testUser.getId(), testClassSchedule.getId()))
+				.thenReturn(Optional.empty());
+		when(waitlistRepository.findByUserIdAndClassScheduleId(testUser.getId(), testClassSchedule.getId()))
+				.thenReturn(Optional.empty());
+		when(seatInventoryService.tryReserve(testClassSchedule.getId(), testClassSchedule.getCapacity()))
+				.thenReturn(false);
+
+		// Act & Assert
+		BadRequestException exception = assertThrows(BadRequestException.class,
+				() -> bookingService.bookClass(bookingRequest));
+		assertEquals("Class is full. You can join the waitlist.", exception.getMessage());
+		verify(bookingRepository, never()).countByClassScheduleIdAndStatus(any(), any());
+		verify(userPackageRepository, never()).save(any());
+		verify(distributedLockService, times(1)).releaseLock(testClassSchedule.getId());
+		verify(bookingMetrics).stop(any(), eq(BookingMetrics.OUTCOME_FULL));
+	}
+
+	@Test
+	void bookClass_ThrowsExceptionWhenAnotherInstanceTookTheLastSeat() {
+		// Arrange
+		mockSecurityContext();
+		when(distributedLockService.acquireLock(testClassSchedule.getId())).thenReturn(true);
+		when(classScheduleRepository.findById(testClassSchedule.getId())).thenReturn(Optional.of(testClassSchedule));
+		// This instance's counter still has room, but booked_count is already at capacity
+		when(seatInventoryService.tryReserve(testClassSchedule.getId(), testClassSchedule.getCapacity()))
+				.thenReturn(true);
+		when(userPackageRepository.findActivePackagesForBooking(anyLong(), any(Country.class), anyInt(), any()))
+				.thenReturn(List.of(testUserPackage));
+		when(userPackageRepository.deductCredits(eq(testUserPackage.getId()), eq(1), any())).thenReturn(1);
+		when(appUserRepository.getReferenceById(testUser.getId())).thenReturn(testUser);
+		when(bookingRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+		when(classScheduleRepository.reserveSeat(testClassSchedule.getId())).thenReturn(0);
+
+		// Act & Assert
+		BadRequestException exception = assertThrows(BadRequestException.class,
+				() -> bookingService.bookClass(bookingRequest));
+		assertEquals("Class is full. You can join the waitlist.", exception.getMessage());
+		verify(distributedLockService, times(1)).releaseLock(testClassSchedule.getId());
+		verify(bookingMetrics).stop(any(), eq(BookingMetrics.OUTCOME_FULL));
+	}
+
+	@Test
+	void bookClass_ConditionalUpdateEngineRejectsWhenSeatUpdateFindsClassFull() {
+		// Arrange
+		ReflectionTestUtils.setField(bookingService, "bookingEngine", BookingService.ENGINE_CONDITIONAL_UPDATE);
+		mockSecurityContext();
+		when(classScheduleRepository.findById(testClassSchedule.getId())).thenReturn(Optional.of(testClassSchedule));
+		when(seatInventoryService.getBookedCount(testClassSchedule.getId())).thenReturn(9);
+		when(userPackageRepository.findActivePackagesForBooking(anyLong(), any(Country.class), anyInt(), any()))
+				.thenReturn(List.of(testUserPackage));
+		when(userPackageRepository.deductCredits(eq(testUserPackage.getId()), eq(1), any())).thenReturn(1);
+		when(appUserRepository.getReferenceById(testUser.getId())).thenReturn(testUser);
+		when(bookingRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+		// Another booking took the last seat after the in-memory count was read
+		when(classScheduleRepository.reserveSeat(testClassSchedule.getId())).thenReturn(0);
+
+		// Act & Assert
+		BadRequestException exception = assertThrows(BadRequestException.class,
+				() -> bookingService.bookClass(bookingRequest));
+		assertEquals("Class is full. You can join the waitlist.", exception.getMessage());
+		verify(distributedLockService, never()).acquireLock(any());
+		verify(distributedLockService, never()).releaseLock(any());
+		verify(seatInventoryService, never()).tryReserve(any(), anyInt());
+		verify(seatInventoryService, never()).recordBooked(any());
+		verify(bookingMetrics).stop(any(), eq(BookingMetrics.OUTCOME_FULL));
 	}
 
 	@Test
@@ -208,5 +402,144 @@ public class BookingServiceTest {
 		verify(userPackageRepository, never()).save(any());
 		verify(bookingRepository, never()).save(any());
 		verify(distributedLockService, never()).releaseLock(testClassSchedule.getId());
+		verify(bookingMetrics).stop(any(), eq(BookingMetrics.OUTCOME_LOCK_CONTENDED));
+	}
+
+	@Test
+	void bookClasses_AllOrNothingLocksInIdOrderAndSpendsFromOnePackageRead() {
+		// Arrange
+		mockSecurityContext();
+		ClassSchedule laterClass = classAt(2L, testClassSchedule.getEndTime());
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		when(distributedLockService.acquireLock(anyLong())).thenReturn(true);
+		when(classScheduleRepository.findAllById(any())).thenReturn(List.of(testClassSchedule, laterClass));
+		when(seatInventoryService.tryReserve(anyLong(), eq(10))).thenReturn(true);
+		when(classScheduleRepository.reserveSeat(anyLong())).thenReturn(1);
+		when(userPackageRepository.findRemainingCreditsById(testUserPackage.getId())).thenReturn(4, 3);
+		when(userPackageRepository.findActivePackagesForBooking(anyLong(), any(Country.class), anyInt(), any()))
+				.thenReturn(List.of(testUserPackage));
+		when(userPackageRepository.deductCredits(eq(testUserPackage.getId()), eq(1), any())).thenReturn(1);
+		when(appUserRepository.getReferenceById(testUser.getId())).thenReturn(testUser);
+		when(bookingRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+
+		// Act
+		BulkBookingResponse response = bookingService.bookClasses(new BulkBookingRequest(
+				List.of(new BookingRequest(2L), new BookingRequest(1L)), BulkBookingMode.ALL_OR_NOTHING));
+
+		// Assert
+		assertEquals(2, response.getBookedCount());
+		assertEquals(List.of(2L, 1L),
+				response.getResults().stream().map(BulkBookingItemResponse::getClassScheduleId).toList());
+		assertEquals(3, testUserPackage.getRemainingCredits());
+		verify(userPackageRepository, times(1)).findActivePackagesForBooking(anyLong(), any(Country.class), anyInt(),
+				any());
+		InOrder locks = inOrder(distributedLockService, transactionManager);
+		locks.verify(distributedLockService).acquireLock(1L);
+		locks.verify(distributedLockService).acquireLock(2L);
+		locks.verify(transactionManager).commit(any());
+		locks.verify(distributedLockService).releaseLock(2L);
+		locks.verify(distributedLockService).releaseLock(1L);
+		verify(bookingMetrics).stop(any(), eq(BookingMetrics.OUTCOME_SUCCESS));
+	}
+
+	@Test
+	void bookClasses_AllOrNothingReadsPackagesThatCoverTheCheapestClassOfACountry() {
+		// Arrange
+		mockSecurityContext();
+		testClassSchedule.setRequiredCredits(3);
+		ClassSchedule cheaperClass = classAt(2L, testClassSchedule.getEndTime());
+		UserPackage smallPackage = new UserPackage();
+		smallPackage.setId(2L);
+		smallPackage.setRemainingCredits(1);
+		smallPackage.setUser(testUser);
+		smallPackage.setExpiryDate(LocalDate.now().plusDays(10));
+		smallPackage.setCreditPackage(testUserPackage.getCreditPackage());
+		testUserPackage.setRemainingCredits(3);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		when(distributedLockService.acquireLock(anyLong())).thenReturn(true);
+		when(classScheduleRepository.findAllById(any())).thenReturn(List.of(testClassSchedule, cheaperClass));
+		when(seatInventoryService.tryReserve(anyLong(), eq(10))).thenReturn(true);
+		when(classScheduleRepository.reserveSeat(anyLong())).thenReturn(1);
+		// Read once with the 1 credit the cheaper class needs, so the small package is a candidate too
+		when(userPackageRepository.findActivePackagesForBooking(anyLong(), eq(Country.SINGAPORE), eq(1), any()))
+				.thenReturn(List.of(smallPackage, testUserPackage));
+		when(userPackageRepository.deductCredits(eq(smallPackage.getId()), eq(3), any())).thenReturn(0);
+		when(userPackageRepository.deductCredits(eq(testUserPackage.getId()), eq(3), any())).thenReturn(1);
+		when(userPackageRepository.deductCredits(eq(smallPackage.getId()), eq(1), any())).thenReturn(1);
+		when(userPackageRepository.findRemainingCreditsById(anyLong())).thenReturn(0);
+		when(appUserRepository.getReferenceById(testUser.getId())).thenReturn(testUser);
+		when(bookingRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+
+		// Act
+		BulkBookingResponse response = bookingService.bookClasses(new BulkBookingRequest(
+				List.of(new BookingRequest(1L), new BookingRequest(2L)), BulkBookingMode.ALL_OR_NOTHING));
+
+		// Assert
+		assertEquals(2, response.getBookedCount());
+		assertEquals(List.of(1L, 2L), response.getResults().stream()
+				.map(item -> item.getBooking().getUserPackage().getId()).toList());
+		verify(userPackageRepository, times(1)).findActivePackagesForBooking(anyLong(), any(Country.class), anyInt(),
+				any());
+	}
+
+	@Test
+	void bookClasses_AllOrNothingRejectsTheBatchWhenTwoOfItsClassesOverlap() {
+		// Arrange
+		mockSecurityContext();
+		ClassSchedule clashingClass = classAt(2L, testClassSchedule.getStartTime().plusMinutes(30));
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		when(distributedLockService.acquireLock(anyLong())).thenReturn(true);
+		when(classScheduleRepository.findAllById(any())).thenReturn(List.of(testClassSchedule, clashingClass));
+
+		// Act & Assert
+		BadRequestException exception = assertThrows(BadRequestException.class,
+				() -> bookingService.bookClasses(new BulkBookingRequest(
+						List.of(new BookingRequest(1L), new BookingRequest(2L)), null)));
+		assertEquals("Class 2 cannot be booked: This class overlaps with another class in the request.",
+				exception.getMessage());
+		verify(userPackageRepository, never()).deductCredits(anyLong(), anyInt(), any());
+		verify(bookingRepository, never()).save(any());
+		verify(transactionManager).rollback(any());
+		verify(distributedLockService).releaseLock(1L);
+		verify(distributedLockService).releaseLock(2L);
+	}
+
+	@Test
+	void bookClasses_BestEffortBooksWhatItCanAndReportsTheRest() {
+		// Arrange
+		mockSecurityContext();
+		ClassSchedule fullClass = classAt(2L, testClassSchedule.getEndTime());
+		ClassSchedule bookedClass = classAt(3L, fullClass.getEndTime());
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		when(distributedLockService.acquireLock(anyLong())).thenReturn(true);
+		when(classScheduleRepository.findAllById(any())).thenReturn(List.of(testClassSchedule, fullClass, bookedClass));
+		when(bookingRepository.findClassIdsBookedByUser(eq(testUser.getId()), any())).thenReturn(List.of(3L));
+		when(seatInventoryService.tryReserve(1L, 10)).thenReturn(true);
+		when(seatInventoryService.tryReserve(2L, 10)).thenReturn(false);
+		when(classScheduleRepository.reserveSeat(1L)).thenReturn(1);
+		when(userPackageRepository.findActivePackagesForBooking(anyLong(), any(Country.class), anyInt(), any()))
+				.thenReturn(List.of(testUserPackage));
+		when(userPackageRepository.deductCredits(eq(testUserPackage.getId()), eq(1), any())).thenReturn(1);
+		when(appUserRepository.getReferenceById(testUser.getId())).thenReturn(testUser);
+		when(bookingRepository.save(any())).thenAnswer(i -> i.getArguments()[0]);
+
+		// Act
+		BulkBookingResponse response = bookingService.bookClasses(new BulkBookingRequest(List.of(
+				new BookingRequest(1L), new BookingRequest(2L), new BookingRequest(3L)), BulkBookingMode.BEST_EFFORT));
+
+		// Assert
+		assertEquals(1, response.getBookedCount());
+		assertEquals(2, response.getFailedCount());
+		assertEquals(Arrays.asList(null, "Class is full. You can join the waitlist.",
+				"You have already booked this class."),
+				response.getResults().stream().map(BulkBookingItemResponse::getMessage).toList());
+		verify(bookingRepository, times(1)).save(any());
+		// Class 3 was rejected before any transaction was opened
+		verify(transactionManager, times(2)).commit(any());
+		verify(bookingMetrics).stop(any(), eq(BookingMetrics.OUTCOME_PARTIAL));
+	}
+
+	private ClassSchedule classAt(Long id, LocalDateTime startTime) {
+		return new ClassSchedule(id, "Class " + id, startTime, startTime.plusHours(1), 10, Country.SINGAPORE, 1, 0);
 	}
 }
\ No newline at end of file
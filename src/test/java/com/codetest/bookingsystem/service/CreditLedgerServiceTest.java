@@ -0,0 +1,96 @@
+package com.codetest.bookingsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.codetest.bookingsystem.enums.Country;
+import com.codetest.bookingsystem.enums.CreditEntryType;
+import com.codetest.bookingsystem.enums.Role;
+import com.codetest.bookingsystem.model.AppUser;
+import com.codetest.bookingsystem.model.CreditPackage;
+import com.codetest.bookingsystem.model.UserPackage;
+import com.codetest.bookingsystem.repository.UserPackageRepository;
+
+@DataJpaTest(properties = { "spring.sql.init.mode=never",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect" })
+@Import(CreditLedgerService.class)
+public class CreditLedgerServiceTest {
+
+	@Autowired
+	private CreditLedgerService creditLedgerService;
+
+	@Autowired
+	private UserPackageRepository userPackageRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private UserPackage legacyPackage;
+	private UserPackage newPackage;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(creditLedgerService, "batchSize", 1);
+		CreditPackage creditPackage = entityManager
+				.persist(new CreditPackage(null, "Basic", 10, BigDecimal.TEN, Country.SINGAPORE, 30));
+		AppUser user = entityManager
+				.persist(new AppUser(null, "user", "password", "user@example.com", Role.USER, true, null, 0));
+		// Bought before the ledger existed, then spent from once it did
+		legacyPackage = entityManager.persist(
+				new UserPackage(null, user, creditPackage, 7, LocalDate.now(), LocalDate.now().plusDays(30)));
+		creditLedgerService.recordBooking(legacyPackage.getId(), 2, 1L);
+		newPackage = entityManager.persist(
+				new UserPackage(null, user, creditPackage, 10, LocalDate.now(), LocalDate.now().plusDays(30)));
+		creditLedgerService.recordPurchase(newPackage.getId(), 10);
+		creditLedgerService.recordWaitlistJoin(newPackage.getId(), 3, 1L);
+		userPackageRepository.deductCredits(newPackage.getId(), 3, Instant.now());
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void reconcile_shouldOpenOlderPackagesSoEveryLedgerMatchesItsBalance() {
+		assertEquals(0, creditLedgerService.reconcile());
+
+		assertEquals(9L, credits(legacyPackage, CreditEntryType.OPENING_BALANCE),
+				"Opened with the balance from before the booking");
+		assertEquals(0L, credits(newPackage, CreditEntryType.OPENING_BALANCE), "Bought with the ledger in place");
+		assertEquals(0, creditLedgerService.openBalances(), "Opening is done once per package");
+	}
+
+	@Test
+	void reconcile_shouldRebuildADriftedBalanceFromTheLedgerWhenEnabled() {
+		userPackageRepository.refundCredits(newPackage.getId(), 5, Instant.now());
+
+		assertEquals(1, creditLedgerService.reconcile(), "Only reported by default");
+		assertEquals(12, balance(newPackage));
+
+		ReflectionTestUtils.setField(creditLedgerService, "rebuildBalances", true);
+		assertEquals(1, creditLedgerService.reconcile());
+		assertEquals(7, balance(newPackage));
+		assertEquals(0, creditLedgerService.reconcile());
+	}
+
+	private long credits(UserPackage userPackage, CreditEntryType type) {
+		return (Long) entityManager.getEntityManager()
+				.createQuery("SELECT COALESCE(SUM(e.credits), 0) FROM CreditLedgerEntry e "
+						+ "WHERE e.userPackageId = :id AND e.entryType = :type")
+				.setParameter("id", userPackage.getId()).setParameter("type", type).getSingleResult();
+	}
+
+	private int balance(UserPackage userPackage) {
+		entityManager.clear();
+		return entityManager.find(UserPackage.class, userPackage.getId()).getRemainingCredits();
+	}
+}
@@ -3,18 +3,21 @@ package com.codetest.bookingsystem.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
 
-import java.time.Duration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
 
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -22,43 +25,45 @@ import static org.mockito.Mockito.when;
 public class DistributedLockServiceTest {
 
 	@Mock
-	private StringRedisTemplate redisTemplate;
-
-	@Mock
-	private ValueOperations<String, String> valueOperations;
+	private LockStrategy lockStrategy;
 
-	@InjectMocks
 	private DistributedLockService distributedLockService;
 
+	private SimpleMeterRegistry meterRegistry;
+	private BookingMetrics bookingMetrics;
+
 	private final Long CLASS_SCHEDULE_ID = 1L;
-	private final String LOCK_KEY = "lock:class:" + CLASS_SCHEDULE_ID;
 
 	@BeforeEach
 	void setUp() {
-		// This setup is moved into the tests that need it to avoid UnnecessaryStubbingException.
+		when(lockStrategy.name()).thenReturn("fair");
+		meterRegistry = new SimpleMeterRegistry();
+		bookingMetrics = new BookingMetrics(meterRegistry, ObservationRegistry.NOOP);
+		distributedLockService = new DistributedLockService();
+		ReflectionTestUtils.setField(distributedLockService, "lockStrategies", List.of(lockStrategy));
+		ReflectionTestUtils.setField(distributedLockService, "lockMode", "fair");
+		ReflectionTestUtils.setField(distributedLockService, "bookingMetrics", bookingMetrics);
+		distributedLockService.selectStrategy();
 	}
 
 	@Test
 	void acquireLock_shouldReturnTrue_whenLockIsSuccessfullyAcquired() {
 		// Arrange
-		when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-		// When setIfAbsent is called with our lock key, a value, and a duration, return true
-		when(valueOperations.setIfAbsent(eq(LOCK_KEY), eq("locked"), any(Duration.class))).thenReturn(true);
+		when(lockStrategy.tryAcquire(CLASS_SCHEDULE_ID)).thenReturn(new LockHandle(CLASS_SCHEDULE_ID, "owner", 7));
 
 		// Act
 		boolean result = distributedLockService.acquireLock(CLASS_SCHEDULE_ID);
 
 		// Assert
 		assertTrue(result, "Should return true when lock is acquired");
-		verify(valueOperations).setIfAbsent(eq(LOCK_KEY), eq("locked"), any(Duration.class));
+		assertEquals(1, meterRegistry.get(BookingMetrics.LOCK_WAIT).tag("outcome", BookingMetrics.OUTCOME_SUCCESS)
+				.timer().count());
 	}
 
 	@Test
 	void acquireLock_shouldReturnFalse_whenLockIsAlreadyHeld() {
 		// Arrange
-		when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-		// When setIfAbsent is called, return false, simulating that the lock is already held
-		when(valueOperations.setIfAbsent(eq(LOCK_KEY), eq("locked"), any(Duration.class))).thenReturn(false);
+		when(lockStrategy.tryAcquire(CLASS_SCHEDULE_ID)).thenReturn(null);
 
 		// Act
 		boolean result = distributedLockService.acquireLock(CLASS_SCHEDULE_ID);
@@ -68,12 +73,33 @@ public class DistributedLockServiceTest {
 	}
 
 	@Test
-	void releaseLock_shouldCallDeleteOnRedisTemplate() {
+	void releaseLock_shouldReleaseTheHandleAcquiredByThisThread() {
+		// Arrange
+		LockHandle handle = new LockHandle(CLASS_SCHEDULE_ID, "owner", 1);
+		when(lockStrategy.tryAcquire(CLASS_SCHEDULE_ID)).thenReturn(handle);
+		distributedLockService.acquireLock(CLASS_SCHEDULE_ID);
+
+		// Act
+		distributedLockService.releaseLock(CLASS_SCHEDULE_ID);
+		distributedLockService.releaseLock(CLASS_SCHEDULE_ID);
+
+		// Assert: the second release finds nothing held
+		verify(lockStrategy).release(handle);
+		assertEquals(1, meterRegistry.get(BookingMetrics.LOCK_HOLD).tag("strategy", "fair").timer().count());
+	}
+
+	@Test
+	void releaseLock_shouldDoNothing_whenThisThreadHoldsNoLock() {
 		// Act
 		distributedLockService.releaseLock(CLASS_SCHEDULE_ID);
 
 		// Assert
-		// Verify that the delete method was called on the redisTemplate with the correct lock key
-		verify(redisTemplate).delete(LOCK_KEY);
+		verify(lockStrategy, never()).release(any());
+	}
+
+	@Test
+	void selectStrategy_shouldRejectUnknownMode() {
+		ReflectionTestUtils.setField(distributedLockService, "lockMode", "unknown");
+		assertThrows(IllegalStateException.class, () -> distributedLockService.selectStrategy());
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,156 @@
+package com.codetest.bookingsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.codetest.bookingsystem.enums.DomainEventType;
+import com.codetest.bookingsystem.model.DomainEvent;
+import com.codetest.bookingsystem.repository.DomainEventRepository;
+import com.codetest.bookingsystem.repository.JobWatermarkRepository;
+
+@DataJpaTest(properties = { "spring.sql.init.mode=never",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect" })
+@Import({ DomainEventService.class, JobWatermarkService.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@RecordApplicationEvents
+public class DomainEventServiceTest {
+
+	@Autowired
+	private DomainEventService domainEventService;
+
+	@Autowired
+	private DomainEventRepository domainEventRepository;
+
+	@Autowired
+	private JobWatermarkRepository jobWatermarkRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private ApplicationEvents applicationEvents;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(domainEventService, "batchSize", 2);
+	}
+
+	@Test
+	void relayPending_shouldPublishEveryEventOnceInRecordedOrder() {
+		domainEventService.record(DomainEventType.BOOKED, 1L, 10L, 100L, Map.of("credits", 3));
+		domainEventService.record(DomainEventType.WAITLIST_JOINED, 2L, 11L, 200L, null);
+		domainEventService.record(DomainEventType.CANCELLED, 1L, 10L, 100L, Map.of("refunded", true));
+		domainEventService.recordAll(List.of(domainEventService.event(DomainEventType.WAITLIST_REFUNDED, 2L, 11L,
+				200L, Map.of("credits", 3))));
+
+		int published = domainEventService.relayPending();
+		entityManager.clear();
+
+		assertEquals(4, published);
+		List<DomainEvent> events = applicationEvents.stream(DomainEvent.class).toList();
+		assertEquals(List.of(DomainEventType.BOOKED, DomainEventType.WAITLIST_JOINED, DomainEventType.CANCELLED,
+				DomainEventType.WAITLIST_REFUNDED), events.stream().map(DomainEvent::getEventType).toList());
+		assertEquals("{\"credits\":3}", events.get(0).getPayload());
+		domainEventRepository.findAll().forEach(event -> assertNotNull(event.getPublishedAt()));
+		assertEquals(0, domainEventService.relayPending(), "Published events are not relayed again");
+	}
+
+	@Test
+	void relayPending_shouldPublishEachClassInSequenceOrder() {
+		domainEventService.record(DomainEventType.BOOKED, 1L, 10L, 100L, null);
+		domainEventService.recordAll(List.of(
+				domainEventService.event(DomainEventType.WAITLIST_REFUNDED, 2L, 11L, 200L, null),
+				domainEventService.event(DomainEventType.WAITLIST_REFUNDED, 1L, 12L, 300L, null),
+				domainEventService.event(DomainEventType.WAITLIST_REFUNDED, 1L, 13L, 400L, null)));
+		domainEventService.record(DomainEventType.CANCELLED, 1L, 10L, 100L, null);
+
+		domainEventService.relayPending();
+
+		List<DomainEvent> events = applicationEvents.stream(DomainEvent.class).toList();
+		assertEquals(List.of(1L, 2L, 3L, 4L), events.stream().filter(event -> event.getClassScheduleId() == 1L)
+				.map(DomainEvent::getSequenceNumber).toList());
+		assertEquals(List.of(1L), events.stream().filter(event -> event.getClassScheduleId() == 2L)
+				.map(DomainEvent::getSequenceNumber).toList());
+	}
+
+	@Test
+	void relayPending_shouldLeaveEventsToTheInstanceHoldingTheLease() {
+		LocalDateTime now = LocalDateTime.now();
+		jobWatermarkRepository.insert(DomainEventService.RELAY_JOB_NAME, now);
+		jobWatermarkRepository.claimLease(DomainEventService.RELAY_JOB_NAME, "other-instance", now, now.plusMinutes(1));
+		domainEventService.record(DomainEventType.BOOKED, 1L, 10L, 100L, null);
+
+		assertEquals(0, domainEventService.relayPending());
+		assertEquals(0, applicationEvents.stream(DomainEvent.class).count());
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void record_shouldMakeTheClassesNextEventWaitForTheRecordingTransactionToCommit() throws Exception {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		CountDownLatch recorded = new CountDownLatch(1);
+		CountDownLatch commit = new CountDownLatch(1);
+		try {
+			domainEventService.record(DomainEventType.BOOKED, 7L, 10L, 100L, null);
+			CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+				domainEventService.record(DomainEventType.CHECKED_IN, 7L, 10L, 100L, null);
+				recorded.countDown();
+				try {
+					commit.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}));
+			recorded.await(10, TimeUnit.SECONDS);
+			CompletableFuture<Void> second = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(
+					status -> domainEventService.record(DomainEventType.CANCELLED, 7L, 11L, 101L, null)));
+
+			Thread.sleep(300);
+			assertFalse(second.isDone(), "The class's next event must wait for the open transaction");
+			commit.countDown();
+			first.get(10, TimeUnit.SECONDS);
+			second.get(10, TimeUnit.SECONDS);
+
+			List<DomainEvent> events = domainEventRepository.findUnpublished(Limit.of(10));
+			assertEquals(List.of(DomainEventType.BOOKED, DomainEventType.CHECKED_IN, DomainEventType.CANCELLED),
+					events.stream().map(DomainEvent::getEventType).toList());
+			assertEquals(List.of(1L, 2L, 3L), events.stream().map(DomainEvent::getSequenceNumber).toList());
+		} finally {
+			commit.countDown();
+			domainEventRepository.deleteAll();
+			jdbcTemplate.update("DELETE FROM domain_event_sequence");
+		}
+	}
+}
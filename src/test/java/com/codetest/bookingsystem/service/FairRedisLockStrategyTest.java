@@ -0,0 +1,150 @@
+package com.codetest.bookingsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.codetest.bookingsystem.util.EmbeddedRedis;
+
+public class FairRedisLockStrategyTest {
+
+	private static EmbeddedRedis redis;
+
+	private FairRedisLockStrategy lockStrategy;
+
+	private final Long CLASS_SCHEDULE_ID = 1L;
+	private final String LOCK_KEY = "lock:class:" + CLASS_SCHEDULE_ID;
+
+	@BeforeAll
+	static void startRedis() throws Exception {
+		redis = EmbeddedRedis.start();
+	}
+
+	@AfterAll
+	static void stopRedis() throws Exception {
+		redis.stop();
+	}
+
+	@BeforeEach
+	void setUp() {
+		redis.flushAll();
+		lockStrategy = newStrategy(10000, 1000);
+	}
+
+	@AfterEach
+	void tearDown() {
+		lockStrategy.shutdown();
+	}
+
+	private FairRedisLockStrategy newStrategy(long leaseMs, long waitTimeoutMs) {
+		FairRedisLockStrategy strategy = new FairRedisLockStrategy();
+		ReflectionTestUtils.setField(strategy, "redisTemplate", redis.template());
+		ReflectionTestUtils.setField(strategy, "leaseMs", leaseMs);
+		ReflectionTestUtils.setField(strategy, "waitTimeoutMs", waitTimeoutMs);
+		return strategy;
+	}
+
+	@Test
+	void tryAcquire_shouldIssueIncreasingFencingTokens() {
+		LockHandle first = lockStrategy.tryAcquire(CLASS_SCHEDULE_ID);
+		assertNotNull(first);
+		lockStrategy.release(first);
+
+		LockHandle second = lockStrategy.tryAcquire(CLASS_SCHEDULE_ID);
+		assertNotNull(second);
+		assertTrue(second.getFencingToken() > first.getFencingToken(), "Fencing tokens must increase");
+	}
+
+	@Test
+	void tryAcquire_shouldWaitForHolderInsteadOfFailing() throws Exception {
+		LockHandle holder = lockStrategy.tryAcquire(CLASS_SCHEDULE_ID);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<LockHandle> waiter = executor.submit(() -> lockStrategy.tryAcquire(CLASS_SCHEDULE_ID));
+			Thread.sleep(100);
+			lockStrategy.release(holder);
+
+			LockHandle acquired = waiter.get(2, TimeUnit.SECONDS);
+			assertNotNull(acquired, "Waiter should get the lock once the holder releases it");
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void tryAcquire_shouldGiveUpAfterWaitTimeoutAndLeaveQueue() {
+		LockHandle holder = lockStrategy.tryAcquire(CLASS_SCHEDULE_ID);
+		FairRedisLockStrategy impatient = newStrategy(10000, 100);
+		try {
+			assertNull(impatient.tryAcquire(CLASS_SCHEDULE_ID));
+			assertEquals(0L, redis.template().opsForZSet().size(LOCK_KEY + ":queue"));
+		} finally {
+			impatient.shutdown();
+		}
+		lockStrategy.release(holder);
+	}
+
+	@Test
+	void tryAcquire_shouldGrantLockInArrivalOrder() throws Exception {
+		LockHandle holder = lockStrategy.tryAcquire(CLASS_SCHEDULE_ID);
+		List<String> order = new CopyOnWriteArrayList<>();
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			for (String name : List.of("first", "second", "third")) {
+				executor.submit(() -> {
+					LockHandle handle = lockStrategy.tryAcquire(CLASS_SCHEDULE_ID);
+					if (handle != null) {
+						order.add(name);
+						lockStrategy.release(handle);
+					}
+				});
+				Thread.sleep(50); // make the arrival order deterministic
+			}
+			lockStrategy.release(holder);
+			executor.shutdown();
+			assertTrue(executor.awaitTermination(2, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(List.of("first", "second", "third"), order);
+	}
+
+	@Test
+	void release_shouldNotDeleteLockOwnedBySomeoneElse() {
+		LockHandle stale = new LockHandle(CLASS_SCHEDULE_ID, "expired-owner", 1);
+		LockHandle holder = lockStrategy.tryAcquire(CLASS_SCHEDULE_ID);
+
+		lockStrategy.release(stale);
+
+		assertEquals(holder.getOwnerToken(), redis.template().opsForValue().get(LOCK_KEY));
+	}
+
+	@Test
+	void watchdog_shouldRenewLeaseWhileLockIsHeld() throws Exception {
+		FairRedisLockStrategy shortLease = newStrategy(300, 1000);
+		try {
+			LockHandle handle = shortLease.tryAcquire(CLASS_SCHEDULE_ID);
+			Thread.sleep(900);
+			assertEquals(handle.getOwnerToken(), redis.template().opsForValue().get(LOCK_KEY),
+					"Lease should have been renewed past its original expiry");
+			shortLease.release(handle);
+		} finally {
+			shortLease.shutdown();
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.codetest.bookingsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.codetest.bookingsystem.repository.JobWatermarkRepository;
+
+@DataJpaTest(properties = { "spring.sql.init.mode=never",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect" })
+@Import(JobWatermarkService.class)
+public class JobWatermarkServiceTest {
+
+	private static final String JOB = "test-job";
+	private static final Duration LEASE = Duration.ofMinutes(5);
+
+	@Autowired
+	private JobWatermarkService nodeA;
+
+	@Autowired
+	private JobWatermarkRepository jobWatermarkRepository;
+
+	private JobWatermarkService nodeB;
+	private LocalDateTime initial;
+
+	@BeforeEach
+	void setUp() {
+		nodeB = new JobWatermarkService();
+		ReflectionTestUtils.setField(nodeB, "jobWatermarkRepository", jobWatermarkRepository);
+		initial = LocalDateTime.now().minusHours(1).withNano(0);
+	}
+
+	@Test
+	void claim_shouldStartFromInitialWatermarkAndExcludeOtherNodes() {
+		assertEquals(initial, nodeA.claim(JOB, LEASE, initial));
+		assertNull(nodeB.claim(JOB, LEASE, LocalDateTime.now()), "Lease is held by node A");
+
+		nodeA.release(JOB);
+		assertEquals(initial, nodeB.claim(JOB, LEASE, LocalDateTime.now()),
+				"Node B resumes from the committed watermark, not its own initial value");
+	}
+
+	@Test
+	void advance_shouldOnlySucceedForLeaseHolder() {
+		nodeA.claim(JOB, LEASE, initial);
+
+		assertFalse(nodeB.advance(JOB, initial.plusMinutes(30), LEASE));
+		assertTrue(nodeA.advance(JOB, initial.plusMinutes(30), LEASE));
+		nodeA.release(JOB);
+
+		assertEquals(initial.plusMinutes(30), nodeB.claim(JOB, LEASE, initial));
+	}
+
+	@Test
+	void claim_shouldTakeOverExpiredLease() {
+		nodeA.claim(JOB, Duration.ofSeconds(-1), initial);
+
+		assertEquals(initial, nodeB.claim(JOB, LEASE, initial));
+		assertFalse(nodeA.advance(JOB, initial.plusMinutes(5), LEASE), "Node A lost its lease");
+	}
+}
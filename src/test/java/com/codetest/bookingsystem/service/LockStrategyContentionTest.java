@@ -0,0 +1,140 @@
+package com.codetest.bookingsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.codetest.bookingsystem.util.EmbeddedRedis;
+
+/**
+ * Hammers a single class with concurrent lock/unlock cycles and checks that
+ * every strategy keeps the critical section exclusive. Throughput per strategy
+ * is logged so the local fast path can be compared with the Redis round trip.
+ */
+public class LockStrategyContentionTest {
+
+	private static final Logger logger = LoggerFactory.getLogger(LockStrategyContentionTest.class);
+
+	private static final int THREADS = 8;
+	private static final int ITERATIONS_PER_THREAD = 25;
+	private static final Long CLASS_SCHEDULE_ID = 1L;
+
+	private static EmbeddedRedis redis;
+
+	private LocalLockStrategy localLockStrategy;
+	private FairRedisLockStrategy fairRedisLockStrategy;
+	private HybridLockStrategy hybridLockStrategy;
+
+	private int sharedCounter;
+
+	@BeforeAll
+	static void startRedis() throws Exception {
+		redis = EmbeddedRedis.start();
+	}
+
+	@AfterAll
+	static void stopRedis() throws Exception {
+		redis.stop();
+	}
+
+	@BeforeEach
+	void setUp() {
+		redis.flushAll();
+		localLockStrategy = new LocalLockStrategy();
+		ReflectionTestUtils.setField(localLockStrategy, "stripeCount", 16);
+		ReflectionTestUtils.setField(localLockStrategy, "waitTimeoutMs", 10000L);
+		localLockStrategy.initStripes();
+
+		fairRedisLockStrategy = new FairRedisLockStrategy();
+		ReflectionTestUtils.setField(fairRedisLockStrategy, "redisTemplate", redis.template());
+		ReflectionTestUtils.setField(fairRedisLockStrategy, "leaseMs", 10000L);
+		ReflectionTestUtils.setField(fairRedisLockStrategy, "waitTimeoutMs", 10000L);
+
+		RedisLockStrategy redisLockStrategy = new RedisLockStrategy();
+		ReflectionTestUtils.setField(redisLockStrategy, "redisTemplate", redis.template());
+		ReflectionTestUtils.setField(redisLockStrategy, "leaseMs", 10000L);
+
+		hybridLockStrategy = new HybridLockStrategy();
+		ReflectionTestUtils.setField(hybridLockStrategy, "localLockStrategy", localLockStrategy);
+		ReflectionTestUtils.setField(hybridLockStrategy, "redisLockStrategy", redisLockStrategy);
+		ReflectionTestUtils.setField(hybridLockStrategy, "fairRedisLockStrategy", fairRedisLockStrategy);
+		ReflectionTestUtils.setField(hybridLockStrategy, "remoteMode", "fair");
+	}
+
+	@Test
+	void localStrategy_shouldKeepCriticalSectionExclusive() throws Exception {
+		assertExclusiveUnderContention(localLockStrategy);
+	}
+
+	@Test
+	void fairStrategy_shouldKeepCriticalSectionExclusive() throws Exception {
+		assertExclusiveUnderContention(fairRedisLockStrategy);
+		fairRedisLockStrategy.shutdown();
+	}
+
+	@Test
+	void hybridStrategy_shouldKeepCriticalSectionExclusive() throws Exception {
+		assertExclusiveUnderContention(hybridLockStrategy);
+		fairRedisLockStrategy.shutdown();
+	}
+
+	private void assertExclusiveUnderContention(LockStrategy strategy) throws Exception {
+		sharedCounter = 0;
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Integer>> results = new ArrayList<>();
+		try {
+			for (int t = 0; t < THREADS; t++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					int acquired = 0;
+					for (int i = 0; i < ITERATIONS_PER_THREAD; i++) {
+						LockHandle handle = strategy.tryAcquire(CLASS_SCHEDULE_ID);
+						if (handle == null) {
+							continue;
+						}
+						try {
+							int read = sharedCounter;
+							Thread.yield(); // widen the window for a lost update if exclusion is broken
+							sharedCounter = read + 1;
+							acquired++;
+						} finally {
+							strategy.release(handle);
+						}
+					}
+					return acquired;
+				}));
+			}
+			long startNanos = System.nanoTime();
+			start.countDown();
+			int totalAcquired = 0;
+			for (Future<Integer> result : results) {
+				totalAcquired += result.get(60, TimeUnit.SECONDS);
+			}
+			long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+
+			assertEquals(THREADS * ITERATIONS_PER_THREAD, totalAcquired, "No acquisition should time out");
+			assertEquals(totalAcquired, sharedCounter, "Critical section must not lose updates");
+			assertTrue(elapsedMicros > 0);
+			logger.info("Lock strategy '{}': {} acquisitions by {} threads in {} ms ({} ops/s)", strategy.name(),
+					totalAcquired, THREADS, elapsedMicros / 1000, totalAcquired * 1_000_000L / elapsedMicros);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package com.codetest.bookingsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.codetest.bookingsystem.enums.NotificationStatus;
+import com.codetest.bookingsystem.model.Notification;
+import com.codetest.bookingsystem.repository.NotificationRepository;
+
+@DataJpaTest(properties = { "spring.sql.init.mode=never",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect" })
+@Import(NotificationService.class)
+public class NotificationServiceTest {
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@SpyBean
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	// Stand-in for the email sink
+	@MockBean
+	private MockEmailService mockEmailService;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(notificationService, "batchSize", 2);
+		ReflectionTestUtils.setField(notificationService, "maxAttempts", 2);
+	}
+
+	@Test
+	void enqueue_shouldSkipDuplicatesOfTheSameEvent() {
+		notificationService.enqueue("a@example.com", "Subject", "Body", "waitlist-promoted:1");
+		notificationService.enqueue("a@example.com", "Subject", "Body", "waitlist-promoted:1");
+
+		assertEquals(1, notificationRepository.count());
+	}
+
+	@Test
+	void enqueue_shouldSkipADuplicateThatRacedPastTheExistenceCheck() {
+		notificationService.enqueue("a@example.com", "Subject", "Body", "waitlist-promoted:1");
+		// Another transaction inserted the same event between our check and our insert
+		doReturn(false).when(notificationRepository).existsByDedupKey("waitlist-promoted:1");
+
+		notificationService.enqueue("a@example.com", "Subject", "Body", "waitlist-promoted:1");
+		notificationService.enqueue("b@example.com", "Subject", "Body", "waitlist-promoted:2");
+
+		// The caller's transaction is still usable after the duplicate
+		assertEquals(2, notificationRepository.count());
+	}
+
+	@Test
+	void dispatchDue_shouldSendEveryPendingNotificationInBatches() {
+		when(mockEmailService.sendEmail(any(), any(), any())).thenReturn(true);
+		for (int i = 0; i < 5; i++) {
+			notificationService.enqueue("user" + i + "@example.com", "Subject", "Body " + i, "event:" + i);
+		}
+
+		int sent = notificationService.dispatchDue();
+		entityManager.clear();
+
+		assertEquals(5, sent);
+		notificationRepository.findAll().forEach(notification -> {
+			assertEquals(NotificationStatus.SENT, notification.getStatus());
+			assertEquals(NotificationService.REDACTED_BODY, notification.getBody());
+			assertEquals(1, notification.getAttempts());
+			assertNull(notification.getClaimedBy());
+		});
+		assertEquals(0, notificationService.dispatchDue(), "Sent notifications are not sent again");
+		verify(mockEmailService, times(5)).sendEmail(any(), any(), any());
+	}
+
+	@Test
+	void dispatchDue_shouldBackOffAndEventuallyGiveUpOnFailures() {
+		when(mockEmailService.sendEmail(eq("broken@example.com"), any(), any()))
+				.thenThrow(new IllegalStateException("SMTP unavailable"));
+		notificationService.enqueue("broken@example.com", "Subject", "Body", "event:broken");
+
+		assertEquals(0, notificationService.dispatchDue());
+		entityManager.flush();
+		entityManager.clear();
+		Notification retrying = notificationRepository.findAll().get(0);
+		assertEquals(NotificationStatus.PENDING, retrying.getStatus());
+		assertEquals("SMTP unavailable", retrying.getLastError());
+		assertTrue(retrying.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(20)));
+		assertEquals(0, notificationService.dispatchDue(), "Not due again before the backoff elapses");
+
+		retrying.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+		notificationRepository.saveAndFlush(retrying);
+		notificationService.dispatchDue();
+		entityManager.flush();
+		entityManager.clear();
+
+		Notification failed = notificationRepository.findAll().get(0);
+		assertEquals(NotificationStatus.FAILED, failed.getStatus());
+		assertEquals(2, failed.getAttempts());
+	}
+}
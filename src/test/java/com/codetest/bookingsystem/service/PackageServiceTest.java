@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -48,6 +49,8 @@ public class PackageServiceTest {
 	private AppUserRepository appUserRepository;
 	@Mock
 	private MockPaymentService mockPaymentService;
+	@Mock
+	private CreditLedgerService creditLedgerService;
 	@InjectMocks
 	private PackageService packageService;
 
@@ -114,6 +117,7 @@ public class PackageServiceTest {
 		// Assert
 		verify(userPackageRepository, times(1)).save(any());
 		verify(mockPaymentService, times(1)).paymentCharge(any(), any(), any());
+		verify(creditLedgerService).recordPurchase(any(), eq(testCreditPackage.getCredits()));
 	}
 
 	@Test
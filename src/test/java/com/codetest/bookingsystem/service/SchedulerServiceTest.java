@@ -0,0 +1,219 @@
+package com.codetest.bookingsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.codetest.bookingsystem.config.SchedulingConfig;
+import com.codetest.bookingsystem.enums.Country;
+import com.codetest.bookingsystem.enums.CreditEntryType;
+import com.codetest.bookingsystem.enums.DomainEventType;
+import com.codetest.bookingsystem.enums.Role;
+import com.codetest.bookingsystem.enums.WaitlistStatus;
+import com.codetest.bookingsystem.model.AppUser;
+import com.codetest.bookingsystem.model.ClassSchedule;
+import com.codetest.bookingsystem.model.CreditPackage;
+import com.codetest.bookingsystem.model.UserPackage;
+import com.codetest.bookingsystem.model.Waitlist;
+import com.codetest.bookingsystem.repository.WaitlistRepository;
+
+@DataJpaTest(properties = { "spring.sql.init.mode=never",
+		"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect" })
+@Import({ SchedulerService.class, DomainEventService.class, CreditLedgerService.class, JobWatermarkService.class,
+		SchedulerServiceTest.SyncExecutorConfig.class })
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+public class SchedulerServiceTest {
+
+	// Workers run on the test thread so they see the data of the test transaction
+	@TestConfiguration
+	static class SyncExecutorConfig {
+		@Bean(SchedulingConfig.CLASS_COMPLETION_EXECUTOR)
+		Executor classCompletionExecutor() {
+			return new SyncTaskExecutor();
+		}
+	}
+
+	@Autowired
+	private SchedulerService schedulerService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@SpyBean
+	private JdbcTemplate jdbcTemplate;
+
+	private LocalDateTime now;
+	private UserPackage sharedPackage;
+	private UserPackage otherPackage;
+	private final List<Long> waitingIds = new ArrayList<>();
+	private Long promotedId;
+	private Long outsideWindowId;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(schedulerService, "refundChunkSize", 2);
+		now = LocalDateTime.now().withNano(0);
+		CreditPackage creditPackage = entityManager
+				.persist(new CreditPackage(null, "Basic", 10, BigDecimal.TEN, Country.THAILAND, 30));
+		ClassSchedule ended = entityManager.persist(new ClassSchedule(null, "Ended", now.minusHours(1),
+				now.minusMinutes(5), 1, Country.THAILAND, 3, 0));
+		ClassSchedule endedEarlier = entityManager.persist(new ClassSchedule(null, "Ended earlier",
+				now.minusHours(3), now.minusHours(2), 1, Country.THAILAND, 3, 0));
+
+		List<UserPackage> packages = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			AppUser user = entityManager.persist(new AppUser(null, "user" + i, "password", "user" + i + "@example.com",
+					Role.USER, true, null, 0));
+			packages.add(entityManager.persist(
+					new UserPackage(null, user, creditPackage, 0, LocalDate.now(), LocalDate.now().plusDays(30))));
+		}
+		sharedPackage = packages.get(0);
+		otherPackage = packages.get(1);
+
+		// Five waiting entries over three chunks; two of them were paid from the same package
+		AppUser owner = sharedPackage.getUser();
+		waitingIds.add(waitlist(owner, ended, sharedPackage, WaitlistStatus.WAITING));
+		waitingIds.add(waitlist(otherPackage.getUser(), ended, otherPackage, WaitlistStatus.WAITING));
+		waitingIds.add(waitlist(packages.get(2).getUser(), ended, packages.get(2), WaitlistStatus.WAITING));
+		waitingIds.add(waitlist(packages.get(3).getUser(), ended, packages.get(3), WaitlistStatus.WAITING));
+		ClassSchedule endedSameSlot = entityManager.persist(new ClassSchedule(null, "Ended too",
+				now.minusHours(1), now.minusMinutes(10), 1, Country.THAILAND, 3, 0));
+		waitingIds.add(waitlist(owner, endedSameSlot, sharedPackage, WaitlistStatus.WAITING));
+		promotedId = waitlist(otherPackage.getUser(), endedSameSlot, otherPackage,
+				WaitlistStatus.PROMOTED_TO_BOOKING);
+		outsideWindowId = waitlist(otherPackage.getUser(), endedEarlier, otherPackage, WaitlistStatus.WAITING);
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void refundWaitlists_shouldRefundEveryWaitingEntryInChunks() {
+		int refunded = schedulerService.refundWaitlistsForClassesEndedBetween(now.minusMinutes(15), now);
+		entityManager.clear();
+
+		assertEquals(5, refunded);
+		waitingIds.forEach(id -> assertEquals(WaitlistStatus.CREDIT_REFUNDED, status(id)));
+		assertEquals(WaitlistStatus.PROMOTED_TO_BOOKING, status(promotedId));
+		assertEquals(WaitlistStatus.WAITING, status(outsideWindowId));
+		assertEquals(6, credits(sharedPackage), "Both entries paid from the shared package are refunded");
+		assertEquals(3, credits(otherPackage));
+		assertEquals(5L, entityManager.getEntityManager()
+				.createQuery("SELECT COUNT(n) FROM Notification n WHERE n.dedupKey LIKE 'waitlist-refunded:%'")
+				.getSingleResult(), "Every refunded user is notified");
+		assertEquals(5L, entityManager.getEntityManager()
+				.createQuery("SELECT COUNT(e) FROM DomainEvent e WHERE e.eventType = :type")
+				.setParameter("type", DomainEventType.WAITLIST_REFUNDED).getSingleResult());
+		assertEquals(6L, entityManager.getEntityManager()
+				.createQuery("SELECT SUM(e.credits) FROM CreditLedgerEntry e WHERE e.userPackageId = :id "
+						+ "AND e.entryType = :type AND e.waitlistId IS NOT NULL")
+				.setParameter("id", sharedPackage.getId()).setParameter("type", CreditEntryType.WAITLIST_REFUND)
+				.getSingleResult(), "Each refunded entry gets its own ledger entry");
+	}
+
+	@Test
+	void refundWaitlists_shouldNotRefundTwiceWhenRerun() {
+		schedulerService.refundWaitlistsForClassesEndedBetween(now.minusMinutes(15), now);
+		int refundedAgain = schedulerService.refundWaitlistsForClassesEndedBetween(now.minusMinutes(15), now);
+		entityManager.clear();
+
+		assertEquals(0, refundedAgain);
+		assertEquals(6, credits(sharedPackage));
+	}
+
+	@Test
+	void refundWaitlists_shouldNotTrustBatchesThatReportNoRowCounts() {
+		Long claimedId = waitingIds.get(0);
+		doAnswer(invocation -> {
+			// The promotion worker claims an entry between the chunk read and the refund update
+			jdbcTemplate.update("UPDATE waitlist SET status = ? WHERE id = ?",
+					WaitlistStatus.PROMOTED_TO_BOOKING.name(), claimedId);
+			int[][] counts = (int[][]) invocation.callRealMethod();
+			Arrays.fill(counts[0], Statement.SUCCESS_NO_INFO);
+			return counts;
+		}).when(jdbcTemplate).batchUpdate(startsWith("UPDATE waitlist"), anyCollection(), anyInt(), any());
+
+		int refunded = schedulerService.refundWaitlistsForClassesEndedBetween(now.minusMinutes(15), now);
+		entityManager.clear();
+
+		assertEquals(4, refunded);
+		assertEquals(WaitlistStatus.PROMOTED_TO_BOOKING, status(claimedId));
+		assertEquals(3, credits(sharedPackage), "Only the entry that was still waiting is refunded");
+		assertEquals(4L, entityManager.getEntityManager()
+				.createQuery("SELECT COUNT(n) FROM Notification n WHERE n.dedupKey LIKE 'waitlist-refunded:%'")
+				.getSingleResult());
+	}
+
+	@Test
+	void refundWaitlists_shouldKeepRefundingOtherClassesWhenOneFails() {
+		WaitlistRepository failingRepository = mock(WaitlistRepository.class);
+		when(failingRepository.findClassIdsEndedBetween(any(), any(), any())).thenReturn(List.of(1L, 2L, 3L));
+		when(failingRepository.findRefundChunk(eq(1L), any(), any(), any())).thenReturn(List.of());
+		when(failingRepository.findRefundChunk(eq(2L), any(), any(), any()))
+				.thenThrow(new IllegalStateException("boom"));
+		when(failingRepository.findRefundChunk(eq(3L), any(), any(), any())).thenReturn(List.of());
+		SchedulerService isolated = new SchedulerService();
+		ReflectionTestUtils.setField(isolated, "waitlistRepository", failingRepository);
+		ExecutorService workers = Executors.newFixedThreadPool(2);
+		ReflectionTestUtils.setField(isolated, "classCompletionExecutor", workers);
+		ReflectionTestUtils.setField(isolated, "refundChunkSize", 2);
+
+		IllegalStateException exception;
+		try {
+			exception = assertThrows(IllegalStateException.class,
+					() -> isolated.refundWaitlistsForClassesEndedBetween(now.minusMinutes(15), now));
+		} finally {
+			workers.shutdownNow();
+		}
+
+		assertEquals("Waitlist refunds failed for classes [2]", exception.getMessage());
+		verify(failingRepository).findRefundChunk(eq(1L), any(), any(), any());
+		verify(failingRepository).findRefundChunk(eq(3L), any(), any(), any());
+	}
+
+	private Long waitlist(AppUser user, ClassSchedule classSchedule, UserPackage userPackage,
+			WaitlistStatus status) {
+		return entityManager.persist(new Waitlist(null, user, classSchedule, status, userPackage)).getId();
+	}
+
+	private WaitlistStatus status(Long waitlistId) {
+		return entityManager.find(Waitlist.class, waitlistId).getStatus();
+	}
+
+	private int credits(UserPackage userPackage) {
+		return entityManager.find(UserPackage.class, userPackage.getId()).getRemainingCredits();
+	}
+}
@@ -0,0 +1,116 @@
+package com.codetest.bookingsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.codetest.bookingsystem.enums.BookingStatus;
+import com.codetest.bookingsystem.repository.BookingRepository;
+import com.codetest.bookingsystem.repository.ClassScheduleRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class SeatInventoryServiceTest {
+
+	@Mock
+	private BookingRepository bookingRepository;
+	@Mock
+	private ClassScheduleRepository classScheduleRepository;
+	@InjectMocks
+	private SeatInventoryService seatInventoryService;
+
+	private final Long CLASS_SCHEDULE_ID = 1L;
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void tryReserve_shouldStopAtCapacity_andLoadCountOnlyOnce() {
+		// Arrange
+		when(bookingRepository.countByClassScheduleIdAndStatus(CLASS_SCHEDULE_ID, BookingStatus.BOOKED)).thenReturn(1);
+
+		// Act & Assert
+		assertTrue(seatInventoryService.tryReserve(CLASS_SCHEDULE_ID, 2));
+		assertFalse(seatInventoryService.tryReserve(CLASS_SCHEDULE_ID, 2));
+		assertEquals(2, seatInventoryService.getBookedCount(CLASS_SCHEDULE_ID));
+		verify(bookingRepository, times(1)).countByClassScheduleIdAndStatus(CLASS_SCHEDULE_ID, BookingStatus.BOOKED);
+	}
+
+	@Test
+	void tryReserve_shouldHandSeatBack_whenTransactionRollsBack() {
+		// Arrange
+		when(bookingRepository.countByClassScheduleIdAndStatus(CLASS_SCHEDULE_ID, BookingStatus.BOOKED)).thenReturn(0);
+		TransactionSynchronizationManager.initSynchronization();
+
+		// Act
+		assertTrue(seatInventoryService.tryReserve(CLASS_SCHEDULE_ID, 1));
+		assertEquals(1, seatInventoryService.getBookedCount(CLASS_SCHEDULE_ID));
+		TransactionSynchronizationManager.getSynchronizations()
+				.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+		// Assert
+		assertEquals(0, seatInventoryService.getBookedCount(CLASS_SCHEDULE_ID));
+	}
+
+	@Test
+	void release_shouldOnlyApplyAfterCommit() {
+		// Arrange
+		when(bookingRepository.countByClassScheduleIdAndStatus(CLASS_SCHEDULE_ID, BookingStatus.BOOKED)).thenReturn(3);
+		TransactionSynchronizationManager.initSynchronization();
+
+		// Act
+		seatInventoryService.release(CLASS_SCHEDULE_ID);
+		assertEquals(3, seatInventoryService.getBookedCount(CLASS_SCHEDULE_ID));
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+		// Assert
+		assertEquals(2, seatInventoryService.getBookedCount(CLASS_SCHEDULE_ID));
+	}
+
+	@Test
+	void reconcile_shouldCorrectDriftAndPrimeUntrackedClasses() {
+		// Arrange
+		when(bookingRepository.countByClassScheduleIdAndStatus(CLASS_SCHEDULE_ID, BookingStatus.BOOKED)).thenReturn(5);
+		seatInventoryService.getBookedCount(CLASS_SCHEDULE_ID);
+		BookingRepository.ClassBookingCount row = new BookingRepository.ClassBookingCount() {
+			@Override
+			public Long getClassScheduleId() {
+				return CLASS_SCHEDULE_ID;
+			}
+
+			@Override
+			public long getBookedCount() {
+				return 4;
+			}
+		};
+		when(classScheduleRepository.findIdsEndingAfter(any())).thenReturn(List.of(CLASS_SCHEDULE_ID, 2L));
+		when(bookingRepository.countUpcomingByStatus(eq(BookingStatus.BOOKED), any())).thenReturn(List.of(row));
+
+		// Act
+		seatInventoryService.reconcile();
+
+		// Assert
+		assertEquals(4, seatInventoryService.getBookedCount(CLASS_SCHEDULE_ID));
+		assertEquals(0, seatInventoryService.getBookedCount(2L));
+		verify(bookingRepository, times(1)).countByClassScheduleIdAndStatus(any(), any());
+	}
+}
@@ -0,0 +1,196 @@
+package com.codetest.bookingsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.codetest.bookingsystem.enums.Country;
+import com.codetest.bookingsystem.enums.WaitlistStatus;
+import com.codetest.bookingsystem.model.AppUser;
+import com.codetest.bookingsystem.model.Booking;
+import com.codetest.bookingsystem.model.ClassSchedule;
+import com.codetest.bookingsystem.model.UserPackage;
+import com.codetest.bookingsystem.model.Waitlist;
+import com.codetest.bookingsystem.repository.BookingRepository;
+import com.codetest.bookingsystem.repository.ClassScheduleRepository;
+import com.codetest.bookingsystem.repository.UserPackageRepository;
+import com.codetest.bookingsystem.repository.WaitlistRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class WaitlistPromotionServiceTest {
+
+	private static final Long CLASS_SCHEDULE_ID = 1L;
+
+	@Mock
+	private ClassScheduleRepository classScheduleRepository;
+	@Mock
+	private BookingRepository bookingRepository;
+	@Mock
+	private UserPackageRepository userPackageRepository;
+	@Mock
+	private WaitlistRepository waitlistRepository;
+	@Mock
+	private WaitlistQueueService waitlistQueueService;
+	@Mock
+	private SeatInventoryService seatInventoryService;
+	@Mock
+	private BookingIntervalService bookingIntervalService;
+	@Mock
+	private NotificationService notificationService;
+	@Mock
+	private DomainEventService domainEventService;
+	@Mock
+	private BookingMetrics bookingMetrics;
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	@InjectMocks
+	private WaitlistPromotionService waitlistPromotionService;
+
+	// Tasks handed to the promotion pool; run by the test
+	private final Queue<Runnable> submitted = new ArrayDeque<>();
+
+	private ClassSchedule classSchedule;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(waitlistPromotionService, "promotionExecutor", (Executor) submitted::add);
+		ReflectionTestUtils.setField(waitlistPromotionService, "maxAttempts", 3);
+		ReflectionTestUtils.setField(waitlistPromotionService, "retryBackoffMs", 0L);
+
+		LocalDateTime start = LocalDateTime.now().plusDays(1);
+		classSchedule = new ClassSchedule(CLASS_SCHEDULE_ID, "Yoga", start, start.plusHours(1), 10,
+				Country.SINGAPORE, 1, 0);
+		when(classScheduleRepository.findById(CLASS_SCHEDULE_ID)).thenReturn(Optional.of(classSchedule));
+		when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+	}
+
+	@Test
+	void seatFreed_shouldPromoteWaitersUntilTheClassIsFullAgain() {
+		when(waitlistQueueService.pollNext(CLASS_SCHEDULE_ID)).thenReturn(Optional.of(waiter(1L)),
+				Optional.of(waiter(2L)), Optional.of(waiter(3L)));
+		// Two seats were freed at once
+		when(seatInventoryService.tryReserve(CLASS_SCHEDULE_ID, 10)).thenReturn(true, true, false);
+		when(classScheduleRepository.reserveSeat(CLASS_SCHEDULE_ID)).thenReturn(1);
+		when(waitlistRepository.updateStatus(anyLong(), eq(WaitlistStatus.WAITING),
+				eq(WaitlistStatus.PROMOTED_TO_BOOKING), any())).thenReturn(1);
+		when(bookingRepository.save(any())).thenAnswer(invocation -> withId(invocation.getArgument(0)));
+
+		waitlistPromotionService.seatFreed(CLASS_SCHEDULE_ID);
+		waitlistPromotionService.seatFreed(CLASS_SCHEDULE_ID);
+		assertEquals(1, submitted.size(), "Signals for a class being drained are coalesced");
+		submitted.poll().run();
+
+		verify(bookingRepository, times(2)).save(any(Booking.class));
+		verify(waitlistRepository, never()).save(any(Waitlist.class));
+		// The third attempt is rolled back, which hands its waiter back to the queue and undoes its claim
+		ArgumentCaptor<TransactionStatus> statuses = ArgumentCaptor.forClass(TransactionStatus.class);
+		verify(transactionManager, times(3)).commit(statuses.capture());
+		assertEquals(List.of(false, false, true),
+				statuses.getAllValues().stream().map(TransactionStatus::isRollbackOnly).toList());
+		assertEquals(0, submitted.size());
+	}
+
+	@Test
+	void seatFreed_shouldRetryATransientFailure() {
+		when(waitlistQueueService.pollNext(CLASS_SCHEDULE_ID)).thenReturn(Optional.of(waiter(1L)),
+				Optional.of(waiter(1L)), Optional.empty());
+		when(seatInventoryService.tryReserve(CLASS_SCHEDULE_ID, 10)).thenReturn(true);
+		when(classScheduleRepository.reserveSeat(CLASS_SCHEDULE_ID)).thenReturn(1);
+		when(waitlistRepository.updateStatus(eq(1L), eq(WaitlistStatus.WAITING),
+				eq(WaitlistStatus.PROMOTED_TO_BOOKING), any())).thenReturn(1);
+		when(bookingRepository.save(any())).thenThrow(new QueryTimeoutException("lock wait timeout"))
+				.thenAnswer(invocation -> withId(invocation.getArgument(0)));
+
+		waitlistPromotionService.seatFreed(CLASS_SCHEDULE_ID);
+		submitted.poll().run();
+
+		verify(bookingRepository, times(2)).save(any(Booking.class));
+		verify(notificationService).enqueue(any(), any(), any(), eq("waitlist-promoted:1"));
+	}
+
+	@Test
+	void seatFreed_shouldSkipAnEntryTheRefundJobMovedFirst() {
+		when(waitlistQueueService.pollNext(CLASS_SCHEDULE_ID)).thenReturn(Optional.of(waiter(1L)),
+				Optional.of(waiter(2L)), Optional.empty());
+		// Entry 1 was refunded after it was polled, so the conditional claim matches no row
+		when(waitlistRepository.updateStatus(eq(1L), eq(WaitlistStatus.WAITING),
+				eq(WaitlistStatus.PROMOTED_TO_BOOKING), any())).thenReturn(0);
+		when(waitlistRepository.updateStatus(eq(2L), eq(WaitlistStatus.WAITING),
+				eq(WaitlistStatus.PROMOTED_TO_BOOKING), any())).thenReturn(1);
+		when(seatInventoryService.tryReserve(CLASS_SCHEDULE_ID, 10)).thenReturn(true);
+		when(classScheduleRepository.reserveSeat(CLASS_SCHEDULE_ID)).thenReturn(1);
+		when(bookingRepository.save(any())).thenAnswer(invocation -> withId(invocation.getArgument(0)));
+
+		waitlistPromotionService.seatFreed(CLASS_SCHEDULE_ID);
+		submitted.poll().run();
+
+		verify(seatInventoryService, times(1)).tryReserve(CLASS_SCHEDULE_ID, 10);
+		verify(bookingRepository, times(1)).save(any(Booking.class));
+		verify(notificationService, never()).enqueue(any(), any(), any(), eq("waitlist-promoted:1"));
+		verify(notificationService).enqueue(any(), any(), any(), eq("waitlist-promoted:2"));
+	}
+
+	@Test
+	void seatFreed_shouldNotPromoteIntoAClassThatHasStarted() {
+		classSchedule.setStartTime(LocalDateTime.now().minusMinutes(5));
+
+		waitlistPromotionService.seatFreed(CLASS_SCHEDULE_ID);
+		submitted.poll().run();
+
+		verify(waitlistQueueService, never()).pollNext(anyLong());
+		verify(seatInventoryService, never()).tryReserve(anyLong(), anyInt());
+	}
+
+	@Test
+	void sweep_shouldSignalClassesWithFreeSeatsAndWaiters() {
+		when(waitlistRepository.findClassIdsWithFreeSeats(eq(WaitlistStatus.WAITING), any()))
+				.thenReturn(List.of(CLASS_SCHEDULE_ID));
+		when(seatInventoryService.getBookedCount(CLASS_SCHEDULE_ID)).thenReturn(10);
+
+		assertEquals(1, waitlistPromotionService.sweep());
+		submitted.poll().run();
+
+		verify(waitlistQueueService, never()).pollNext(anyLong());
+		verify(seatInventoryService, never()).tryReserve(anyLong(), anyInt());
+	}
+
+	private static Booking withId(Booking booking) {
+		booking.setId(100L + booking.getUser().getId());
+		return booking;
+	}
+
+	private static Waitlist waiter(Long id) {
+		AppUser user = new AppUser();
+		user.setId(id);
+		user.setEmail("waiter" + id + "@example.com");
+		UserPackage userPackage = new UserPackage();
+		userPackage.setId(id);
+		return new Waitlist(id, user, null, WaitlistStatus.WAITING, userPackage);
+	}
+}
@@ -0,0 +1,149 @@
+package com.codetest.bookingsystem.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.codetest.bookingsystem.enums.WaitlistStatus;
+import com.codetest.bookingsystem.model.Waitlist;
+import com.codetest.bookingsystem.repository.WaitlistRepository;
+import com.codetest.bookingsystem.repository.WaitlistRepository.QueuedEntry;
+import com.codetest.bookingsystem.util.EmbeddedRedis;
+
+public class WaitlistQueueServiceTest {
+
+	private static final Long CLASS_SCHEDULE_ID = 7L;
+
+	private static EmbeddedRedis redis;
+
+	private WaitlistRepository waitlistRepository;
+	private WaitlistQueueService waitlistQueueService;
+	private final Map<Long, Waitlist> entries = new HashMap<>();
+
+	@BeforeAll
+	static void startRedis() throws Exception {
+		redis = EmbeddedRedis.start();
+	}
+
+	@AfterAll
+	static void stopRedis() throws Exception {
+		redis.stop();
+	}
+
+	@BeforeEach
+	void setUp() {
+		redis.flushAll();
+		waitlistRepository = mock(WaitlistRepository.class);
+		when(waitlistRepository.findById(anyLong()))
+				.thenAnswer(invocation -> Optional.ofNullable(entries.get(invocation.<Long>getArgument(0))));
+		waitlistQueueService = new WaitlistQueueService();
+		ReflectionTestUtils.setField(waitlistQueueService, "waitlistRepository", waitlistRepository);
+		ReflectionTestUtils.setField(waitlistQueueService, "redisTemplate", redis.template());
+		ReflectionTestUtils.setField(waitlistQueueService, "engine", WaitlistQueueService.ENGINE_REDIS);
+		waitlistQueueService.rebuild();
+	}
+
+	@Test
+	void pollNext_shouldPopInJoinOrderAndSkipEntriesNoLongerWaiting() {
+		for (long id = 1; id <= 3; id++) {
+			entries.put(id, waitlist(id, WaitlistStatus.WAITING));
+			waitlistQueueService.enqueue(CLASS_SCHEDULE_ID, id);
+		}
+		entries.get(1L).setStatus(WaitlistStatus.CREDIT_REFUNDED);
+
+		assertEquals(2L, waitlistQueueService.pollNext(CLASS_SCHEDULE_ID).orElseThrow().getId());
+		assertEquals(3L, waitlistQueueService.pollNext(CLASS_SCHEDULE_ID).orElseThrow().getId());
+		assertFalse(waitlistQueueService.pollNext(CLASS_SCHEDULE_ID).isPresent());
+		verify(waitlistRepository, never()).findFirstByClassScheduleIdAndStatusOrderByCreatedAtAsc(any(), any());
+	}
+
+	@Test
+	void pollNext_shouldPushTheEntryBackWhenThePromotionRollsBack() {
+		entries.put(1L, waitlist(1L, WaitlistStatus.WAITING));
+		waitlistQueueService.enqueue(CLASS_SCHEDULE_ID, 1L);
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			assertTrue(waitlistQueueService.pollNext(CLASS_SCHEDULE_ID).isPresent());
+			TransactionSynchronizationManager.getSynchronizations()
+					.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertEquals(1L, waitlistQueueService.pollNext(CLASS_SCHEDULE_ID).orElseThrow().getId());
+	}
+
+	@Test
+	void pollNext_shouldReadTheTableUntilLostQueuesAreRebuilt() {
+		entries.put(1L, waitlist(1L, WaitlistStatus.WAITING));
+		entries.put(2L, waitlist(2L, WaitlistStatus.WAITING));
+		waitlistQueueService.enqueue(CLASS_SCHEDULE_ID, 1L);
+		waitlistQueueService.enqueue(CLASS_SCHEDULE_ID, 2L);
+		redis.flushAll();
+		when(waitlistRepository.findFirstByClassScheduleIdAndStatusOrderByCreatedAtAsc(CLASS_SCHEDULE_ID,
+				WaitlistStatus.WAITING)).thenReturn(Optional.of(entries.get(1L)));
+
+		assertEquals(1L, waitlistQueueService.pollNext(CLASS_SCHEDULE_ID).orElseThrow().getId());
+
+		when(waitlistRepository.findQueuedEntries(eq(WaitlistStatus.WAITING), any()))
+				.thenReturn(List.of(queued(1L), queued(2L)));
+		assertEquals(2, waitlistQueueService.rebuild());
+		// The rebuild read entry 1 before its promotion committed, so the pop has to skip it
+		entries.get(1L).setStatus(WaitlistStatus.PROMOTED_TO_BOOKING);
+		assertEquals(2L, waitlistQueueService.pollNext(CLASS_SCHEDULE_ID).orElseThrow().getId());
+	}
+
+	@Test
+	void rebuild_shouldDropQueuesOfClassesNobodyWaitsFor() {
+		waitlistQueueService.enqueue(99L, 5L);
+		when(waitlistRepository.findQueuedEntries(eq(WaitlistStatus.WAITING), any())).thenReturn(List.of(queued(1L)));
+
+		waitlistQueueService.rebuild();
+
+		assertFalse(redis.template().hasKey(WaitlistQueueService.KEY_PREFIX + 99));
+		assertEquals(List.of("1"),
+				redis.template().opsForList().range(WaitlistQueueService.KEY_PREFIX + CLASS_SCHEDULE_ID, 0, -1));
+	}
+
+	private static Waitlist waitlist(Long id, WaitlistStatus status) {
+		Waitlist waitlist = new Waitlist();
+		waitlist.setId(id);
+		waitlist.setStatus(status);
+		return waitlist;
+	}
+
+	private static QueuedEntry queued(Long id) {
+		return new QueuedEntry() {
+			@Override
+			public Long getClassScheduleId() {
+				return CLASS_SCHEDULE_ID;
+			}
+
+			@Override
+			public Long getId() {
+				return id;
+			}
+		};
+	}
+}
@@ -0,0 +1,55 @@
+package com.codetest.bookingsystem.util;
+
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+
+/**
+ * In-process Redis server for tests that need real Redis semantics (Lua
+ * scripts, TTLs) without an external instance.
+ */
+public class EmbeddedRedis {
+
+	private final RedisServer server;
+	private final LettuceConnectionFactory connectionFactory;
+	private final StringRedisTemplate template;
+
+	private EmbeddedRedis(int port) throws IOException {
+		server = RedisServer.newRedisServer().port(port).setting("save \"\"")
+				.setting("appendonly no").build();
+		server.start();
+		connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", port));
+		connectionFactory.afterPropertiesSet();
+		connectionFactory.start();
+		template = new StringRedisTemplate(connectionFactory);
+	}
+
+	public static EmbeddedRedis start() throws IOException {
+		int port;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		return new EmbeddedRedis(port);
+	}
+
+	public StringRedisTemplate template() {
+		return template;
+	}
+
+	public void flushAll() {
+		template.execute((RedisCallback<Void>) connection -> {
+			connection.serverCommands().flushAll();
+			return null;
+		});
+	}
+
+	public void stop() throws IOException {
+		connectionFactory.destroy();
+		server.stop();
+	}
+}
@@ -0,0 +1,36 @@
+package com.codetest.bookingsystem.util;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the JDBC statements Hibernate prepares so tests can assert that a code
+ * path issues a fixed number of queries. Requires
+ * {@code hibernate.generate_statistics=true}.
+ */
+public class QueryCounter {
+
+	private final Statistics statistics;
+
+	public QueryCounter(EntityManagerFactory entityManagerFactory) {
+		this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	public void reset() {
+		statistics.clear();
+	}
+
+	public long count() {
+		return statistics.getPrepareStatementCount();
+	}
+
+	public void assertAtMost(long expected) {
+		long actual = count();
+		assertTrue(actual <= expected,
+				"Expected at most " + expected + " statements but " + actual + " were prepared");
+	}
+}
@@ -0,0 +1,51 @@
+package com.codetest.bookingsystem.util;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Fails a test when a query Hibernate issues would scan a whole table. Register
+ * it with
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector};
+ * {@link #assertNoFullScans} then runs H2's {@code EXPLAIN} on every query
+ * recorded while the given action ran. Parameters are bound as null, which
+ * does not change the plan H2 picks when it prepares the statement.
+ */
+public class QueryPlanChecker implements StatementInspector {
+
+	private static final List<String> recorded = new CopyOnWriteArrayList<>();
+
+	@Override
+	public String inspect(String sql) {
+		recorded.add(sql);
+		return sql;
+	}
+
+	public static void assertNoFullScans(JdbcTemplate jdbcTemplate, String name, Runnable action) {
+		recorded.clear();
+		action.run();
+		List<String> queries = recorded.stream().filter(sql -> !sql.stripLeading().toLowerCase().startsWith("insert"))
+				.toList();
+		assertTrue(!queries.isEmpty(), name + " issued no query to check");
+
+		List<String> fullScans = new ArrayList<>();
+		for (String sql : queries) {
+			int parameters = (int) sql.chars().filter(c -> c == '?').count();
+			String plan = String.join("\n", jdbcTemplate.query("EXPLAIN " + sql, ps -> {
+				for (int i = 1; i <= parameters; i++) {
+					ps.setObject(i, null);
+				}
+			}, (rs, rowNum) -> rs.getString(1)));
+			if (plan.contains(".tableScan")) {
+				fullScans.add(plan);
+			}
+		}
+		assertTrue(fullScans.isEmpty(), name + " scans a whole table:\n" + String.join("\n\n", fullScans));
+	}
+}